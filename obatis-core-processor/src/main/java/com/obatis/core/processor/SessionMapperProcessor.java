@@ -0,0 +1,128 @@
+package com.obatis.core.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+/**
+ * 编译期生成 sessionMapper 接口类，替代运行时 javac 编译。
+ * 1、被 @Table 注解的实体生成继承 BaseBeanSessionMapper 的接口；
+ * 2、ResultInfoOutput 的子类生成继承 BaseResultSessionMapper 的接口。
+ * 生成的接口与实体在同一包下，类名为实体类名加 _SessionMapper 后缀(与 SessionMapperCompilerTemplet.getGeneratedMapperName 保持一致)，
+ * 运行时优先加载生成的接口，不存在时才进行运行时编译。
+ * 使用时将 obatis-core-processor 加入编译期依赖(provided 或 annotationProcessorPaths)即可。
+ * @author HuangLongPu
+ */
+@SupportedAnnotationTypes("*")
+public class SessionMapperProcessor extends AbstractProcessor {
+
+	private static final String TABLE_ANNOTATION = "com.obatis.core.annotation.Table";
+	private static final String RESULT_INFO_OUTPUT = "com.obatis.core.result.ResultInfoOutput";
+	private static final String BEAN_SESSION_MAPPER = "com.obatis.core.mapper.BaseBeanSessionMapper";
+	private static final String RESULT_SESSION_MAPPER = "com.obatis.core.mapper.BaseResultSessionMapper";
+	private static final String GENERATED_MAPPER_SUFFIX = "_SessionMapper";
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (Element element : roundEnv.getRootElements()) {
+			if (element.getKind() != ElementKind.CLASS) {
+				continue;
+			}
+			TypeElement typeElement = (TypeElement) element;
+			if (typeElement.getNestingKind() != NestingKind.TOP_LEVEL || typeElement.getModifiers().contains(Modifier.ABSTRACT)
+					|| !typeElement.getTypeParameters().isEmpty()) {
+				continue;
+			}
+
+			if (isTable(typeElement)) {
+				generateMapper(typeElement, BEAN_SESSION_MAPPER);
+			} else if (isResultInfoOutput(typeElement)) {
+				generateMapper(typeElement, RESULT_SESSION_MAPPER);
+			}
+		}
+		// 不声明处理任何注解，不影响其他注解处理器
+		return false;
+	}
+
+	private boolean isTable(TypeElement typeElement) {
+		for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+			TypeElement annotationElement = (TypeElement) annotation.getAnnotationType().asElement();
+			if (TABLE_ANNOTATION.contentEquals(annotationElement.getQualifiedName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isResultInfoOutput(TypeElement typeElement) {
+		TypeMirror superType = typeElement.getSuperclass();
+		while (superType.getKind() == TypeKind.DECLARED) {
+			TypeElement superElement = (TypeElement) ((DeclaredType) superType).asElement();
+			if (RESULT_INFO_OUTPUT.contentEquals(superElement.getQualifiedName())) {
+				return true;
+			}
+			superType = superElement.getSuperclass();
+		}
+		return false;
+	}
+
+	private void generateMapper(TypeElement typeElement, String mapperCls) {
+		String canonicalName = typeElement.getQualifiedName().toString();
+		if (canonicalName.indexOf('.') < 0) {
+			// 默认包下的类不生成
+			return;
+		}
+		String mapperName = getGeneratedMapperName(canonicalName);
+		int index = mapperName.lastIndexOf(".");
+		String packageName = mapperName.substring(0, index);
+		String javaName = mapperName.substring(index + 1);
+
+		String javaSource = "package " + packageName + ";\n\n"
+				+ "public interface " + javaName + " extends " + mapperCls + "<" + canonicalName + "> {\n"
+				+ "}\n";
+
+		Filer filer = processingEnv.getFiler();
+		try {
+			JavaFileObject sourceFile = filer.createSourceFile(mapperName, typeElement);
+			try (Writer writer = sourceFile.openWriter()) {
+				writer.write(javaSource);
+			}
+		} catch (FilerException e) {
+			// 已生成或与已有类同名时不再重复生成
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "obatis: skip generate " + mapperName + ", " + e.getMessage(), typeElement);
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "obatis: generate " + mapperName + " fail, " + e.getMessage(), typeElement);
+		}
+	}
+
+	/**
+	 * 与 com.obatis.core.mapper.factory.SessionMapperCompilerTemplet.getGeneratedMapperName 保持一致
+	 * @param canonicalName
+	 * @return
+	 */
+	static String getGeneratedMapperName(String canonicalName) {
+		return canonicalName + GENERATED_MAPPER_SUFFIX;
+	}
+}
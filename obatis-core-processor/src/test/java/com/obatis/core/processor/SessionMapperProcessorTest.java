@@ -0,0 +1,129 @@
+package com.obatis.core.processor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 通过 javax.tools 编译示例实体，obatis-core 的注解和 mapper 接口使用同名的桩类
+ */
+public class SessionMapperProcessorTest {
+
+	private Path outputDir;
+
+	@Before
+	public void setUp() throws IOException {
+		outputDir = Files.createTempDirectory("obatis-processor");
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<Path> paths = Files.walk(outputDir)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	public void generateMapperForTableEntity() throws Exception {
+		compile(
+				source("com.obatis.core.annotation.Table", "package com.obatis.core.annotation;"
+						+ "public @interface Table { String name(); }"),
+				source("com.obatis.core.mapper.BaseBeanSessionMapper", "package com.obatis.core.mapper;"
+						+ "public interface BaseBeanSessionMapper<T> {}"),
+				source("demo.entity.UserEntity", "package demo.entity;"
+						+ "@com.obatis.core.annotation.Table(name = \"user\") public class UserEntity {}"),
+				// 项目自定义的 mapper 与生成的接口不冲突
+				source("demo.mapper.UserMapper", "package demo.mapper;"
+						+ "public interface UserMapper {}"));
+
+		assertTrue(Files.exists(outputDir.resolve("demo/entity/UserEntity_SessionMapper.java")));
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] {outputDir.toUri().toURL()}, null)) {
+			Class<?> mapperCls = classLoader.loadClass("demo.entity.UserEntity_SessionMapper");
+			assertTrue(mapperCls.isInterface());
+			Type[] interfaces = mapperCls.getGenericInterfaces();
+			assertEquals(1, interfaces.length);
+			ParameterizedType type = (ParameterizedType) interfaces[0];
+			assertEquals(classLoader.loadClass("com.obatis.core.mapper.BaseBeanSessionMapper"), type.getRawType());
+			assertEquals(classLoader.loadClass("demo.entity.UserEntity"), type.getActualTypeArguments()[0]);
+			assertEquals(0, classLoader.loadClass("demo.mapper.UserMapper").getInterfaces().length);
+		}
+	}
+
+	@Test
+	public void generateMapperForResultInfoOutput() throws Exception {
+		compile(
+				source("com.obatis.core.result.ResultInfoOutput", "package com.obatis.core.result;"
+						+ "public abstract class ResultInfoOutput {}"),
+				source("com.obatis.core.mapper.BaseResultSessionMapper", "package com.obatis.core.mapper;"
+						+ "public interface BaseResultSessionMapper<R> {}"),
+				source("demo.output.BaseOutput", "package demo.output;"
+						+ "public class BaseOutput extends com.obatis.core.result.ResultInfoOutput {}"),
+				source("demo.output.UserOutput", "package demo.output;"
+						+ "public class UserOutput extends BaseOutput {}"),
+				source("demo.output.AbstractOutput", "package demo.output;"
+						+ "public abstract class AbstractOutput extends BaseOutput {}"));
+
+		assertTrue(Files.exists(outputDir.resolve("demo/output/BaseOutput_SessionMapper.java")));
+		assertTrue(Files.exists(outputDir.resolve("demo/output/UserOutput_SessionMapper.java")));
+		assertFalse(Files.exists(outputDir.resolve("demo/output/AbstractOutput_SessionMapper.java")));
+	}
+
+	@Test
+	public void generatedMapperName() {
+		assertEquals("demo.entity.UserEntity_SessionMapper", SessionMapperProcessor.getGeneratedMapperName("demo.entity.UserEntity"));
+	}
+
+	private void compile(JavaFileObject... sources) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+		try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+			fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(outputDir.toFile()));
+			fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(outputDir.toFile()));
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, null, null, Arrays.asList(sources));
+			task.setProcessors(Collections.singletonList(new SessionMapperProcessor()));
+			boolean success = task.call();
+			StringBuilder message = new StringBuilder();
+			for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+				if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+					message.append(diagnostic.getMessage(null)).append('\n');
+				}
+			}
+			assertTrue(message.toString(), success);
+		}
+	}
+
+	private static JavaFileObject source(String className, String code) {
+		return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+	}
+}
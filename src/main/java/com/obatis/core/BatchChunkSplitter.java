@@ -0,0 +1,78 @@
+package com.obatis.core;
+
+import com.obatis.core.convert.EntityMeta;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作的数据分批，每批的参数个数不超过 maxParams，估算的 sql 字节数不超过 maxBytes，
+ * 避免单条多行 insert 语句超过数据库的 max_allowed_packet 或者驱动的占位符数量限制
+ * @author HuangLongPu
+ */
+final class BatchChunkSplitter {
+
+	/**
+	 * 每个占位符及分隔符的估算字节数
+	 */
+	private static final int PARAM_BYTES = 2;
+	/**
+	 * 非字符串类型参数的估算字节数
+	 */
+	private static final int VALUE_BYTES = 24;
+
+	private BatchChunkSplitter() {
+	}
+
+	/**
+	 * 按参数个数和估算字节数分批，单行超过 maxBytes 时单独为一批
+	 * @param list
+	 * @param entityMeta
+	 * @param maxParams
+	 * @param maxBytes
+	 * @param <E>
+	 * @return
+	 */
+	static <E> List<List<E>> split(List<E> list, EntityMeta entityMeta, int maxParams, long maxBytes) {
+		int columnSize = Math.max(1, entityMeta.size());
+		int maxRows = Math.max(1, maxParams / columnSize);
+		List<List<E>> chunks = new ArrayList<>();
+		int begin = 0;
+		long chunkBytes = 0;
+		for (int i = 0, j = list.size(); i < j; i++) {
+			long rowBytes = estimateRowBytes(list.get(i), entityMeta);
+			int rows = i - begin;
+			if (rows > 0 && (rows == maxRows || chunkBytes + rowBytes > maxBytes)) {
+				chunks.add(list.subList(begin, i));
+				begin = i;
+				chunkBytes = 0;
+			}
+			chunkBytes += rowBytes;
+		}
+		// 只有一批时直接使用原集合
+		chunks.add(begin == 0 ? list : list.subList(begin, list.size()));
+		return chunks;
+	}
+
+	/**
+	 * 估算一行数据的字节数，字符串按 utf8 最大 3 字节加引号，二进制按转义后 2 倍计算
+	 * @param obj
+	 * @param entityMeta
+	 * @return
+	 */
+	private static long estimateRowBytes(Object obj, EntityMeta entityMeta) {
+		long bytes = 0;
+		for (int i = 0, j = entityMeta.size(); i < j; i++) {
+			Object value = entityMeta.getAccessor(i).get(obj);
+			if (value instanceof CharSequence) {
+				bytes += ((CharSequence) value).length() * 3L + 2;
+			} else if (value instanceof byte[]) {
+				bytes += ((byte[]) value).length * 2L + 3;
+			} else {
+				bytes += VALUE_BYTES;
+			}
+			bytes += PARAM_BYTES;
+		}
+		return bytes;
+	}
+}
@@ -0,0 +1,54 @@
+package com.obatis.core;
+
+import java.util.List;
+
+/**
+ * 游标分页(keyset)的查询结果，nextCursor 用于查询下一页
+ * @author HuangLongPu
+ * @param <T>
+ */
+public class CursorPageInfo<T> {
+
+	/**
+	 * 当前页数据
+	 */
+	private List<T> list;
+	/**
+	 * 下一页的游标，没有下一页时为 null
+	 */
+	private String nextCursor;
+	/**
+	 * 是否有下一页
+	 */
+	private boolean hasNext;
+	/**
+	 * 总条数，QueryProvider 设置 setSeekTotal(true) 时才查询，否则为 null
+	 */
+	private Long total;
+
+	public List<T> getList() {
+		return list;
+	}
+	public void setList(List<T> list) {
+		this.list = list;
+	}
+	public String getNextCursor() {
+		return nextCursor;
+	}
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+	public boolean isHasNext() {
+		return hasNext;
+	}
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+	public Long getTotal() {
+		return total;
+	}
+	public void setTotal(Long total) {
+		this.total = total;
+	}
+
+}
@@ -2,6 +2,11 @@ package com.obatis.core;
 
 import com.obatis.config.response.result.PageInfo;
 import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.constant.type.FilterEnum;
+import com.obatis.core.constant.type.OrderEnum;
+import com.obatis.core.convert.BeanCacheConvert;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.convert.FieldAccessorFactory;
 import com.obatis.core.exception.HandleException;
 import com.obatis.core.mapper.BaseBeanSessionMapper;
 import com.obatis.core.mapper.BaseResultSessionMapper;
@@ -9,20 +14,48 @@ import com.obatis.core.mapper.factory.BeanSessionMapperFactory;
 import com.obatis.core.mapper.factory.ResultSessionMapperFactory;
 import com.obatis.core.result.ResultInfoOutput;
 import com.obatis.core.sql.QueryProvider;
+import com.obatis.core.sql.SeekCursor;
 import com.obatis.core.sql.SqlHandleProvider;
-import com.obatis.core.constant.CacheInfoConstant;
 import com.obatis.validate.ValidateTool;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.reflection.ParamNameResolver;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.ResourceTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.io.IOException;
 import java.lang.reflect.ParameterizedType;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * DBHandleFactory 数据库操作类，提供对数据库操作的入口，并进行简要封装
@@ -34,11 +67,26 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	private Logger log = LoggerFactory.getLogger(DBHandleFactory.class);
 
 	private Class<T> entityCls;
-	private String tableName;
 	private String canonicalName;
-	private BaseBeanSessionMapper<T> baseBeanSessionMapper;
+	private volatile EntityMeta entityMeta;
+	private volatile BaseBeanSessionMapper<T> baseBeanSessionMapper;
 	@Resource
 	private SqlSession sqlSession;
+	private volatile SqlSessionFactory sqlSessionFactory;
+	private volatile ParamNameResolver cursorParamResolver;
+	private volatile ParamNameResolver pageParamResolver;
+	@Autowired(required = false)
+	private ObjectProvider<PlatformTransactionManager> transactionManagerProvider;
+	private volatile TransactionTemplate transactionTemplate;
+	private volatile PageTotalCache pageTotalCache;
+	/**
+	 * ResultInfoOutput 子类对应的 sessionMapper，按 class 缓存
+	 */
+	private final Map<Class<?>, BaseResultSessionMapper<?>> resultMapperCache = new ConcurrentHashMap<>();
+	/**
+	 * 窗口函数分页语句 id，按结果 class 缓存
+	 */
+	private final Map<Class<?>, String> windowStatementCache = new ConcurrentHashMap<>();
 
 	/**
 	 * 获取泛型注入类的 sessionMapper
@@ -53,7 +101,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 		if (baseBeanSessionMapper != null) {
 			return baseBeanSessionMapper;
 		}
-		baseBeanSessionMapper = (BaseBeanSessionMapper<T>) BeanSessionMapperFactory.getSessionMapper(sqlSession, canonicalName);
+		baseBeanSessionMapper = (BaseBeanSessionMapper<T>) BeanSessionMapperFactory.getSessionMapper(sqlSession, entityCls);
 		return baseBeanSessionMapper;
 	}
 
@@ -70,24 +118,18 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 			throw new HandleException("error: resultCls is null");
 		}
 
-		Map<String, BaseResultSessionMapper<M>> resultMapperMap = new HashMap<>();
-		if (resultMapperMap.containsKey(resultCls.getCanonicalName())) {
-			return resultMapperMap.get(resultCls.getCanonicalName());
+		BaseResultSessionMapper<?> resultMapper = resultMapperCache.get(resultCls);
+		if (resultMapper != null) {
+			return (BaseResultSessionMapper<M>) resultMapper;
 		}
-
-		try {
-			if(!(resultCls.newInstance() instanceof ResultInfoOutput)) {
-				throw new HandleException("error: resultCls is not instanceof ResultInfoOutput");
-			}
-		} catch (Exception e) {
-			log.warn(" >>>>> error: resultCls newInstance fail");
-			throw new HandleException("error: resultCls newInstance fail");
+		// 只在首次获取时校验类型，不再实例化结果类
+		if (!ResultInfoOutput.class.isAssignableFrom(resultCls)) {
+			throw new HandleException("error: resultCls is not instanceof ResultInfoOutput");
 		}
-
-
-		BaseResultSessionMapper<M> resultMapper = (BaseResultSessionMapper<M>) ResultSessionMapperFactory.getSessionMapper(sqlSession, resultCls.getCanonicalName());
-		resultMapperMap.put(resultCls.getCanonicalName(), resultMapper);
-		return resultMapper;
+		// 在 computeIfAbsent 外获取，编译 mapper 时不占用缓存的锁，并发时只保留先放入的 mapper
+		resultMapper = ResultSessionMapperFactory.getSessionMapper(sqlSession, resultCls);
+		BaseResultSessionMapper<?> exist = resultMapperCache.putIfAbsent(resultCls, resultMapper);
+		return (BaseResultSessionMapper<M>) (exist != null ? exist : resultMapper);
 	}
 
 	/**
@@ -99,22 +141,45 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	}
 
 	/**
-	 * 获取存入缓存中的表名
+	 * 获取泛型注入实体的元数据，首次获取后直接持有，不再查询缓存
 	 * @return
 	 * @throws HandleException
 	 */
-	public String getTableName() throws HandleException {
+	protected EntityMeta getEntityMeta() throws HandleException {
 
+		if (entityMeta != null) {
+			return entityMeta;
+		}
 		if (entityCls == null) {
 			getEntityCls();
 		}
-		if (ValidateTool.isEmpty(tableName)) {
-			String clsName = entityCls.getCanonicalName();
-			if (CacheInfoConstant.TABLE_CACHE.containsKey(clsName)) {
-				tableName = CacheInfoConstant.TABLE_CACHE.get(clsName);
-			}
+		EntityMeta meta = BeanCacheConvert.getEntityMeta(entityCls);
+		if (meta == null) {
+			throw new HandleException("error: " + canonicalName + " entity cache is not init");
+		}
+		entityMeta = meta;
+		return entityMeta;
+	}
+
+	/**
+	 * 获取当前数据源的分页总条数缓存，同一数据源的 DBHandleFactory 共用
+	 * @return
+	 */
+	public PageTotalCache getPageTotalCache() {
+		if (pageTotalCache != null) {
+			return pageTotalCache;
 		}
-		return tableName;
+		pageTotalCache = PageTotalCache.getInstance(sqlSession.getConfiguration());
+		return pageTotalCache;
+	}
+
+	/**
+	 * 获取存入缓存中的表名
+	 * @return
+	 * @throws HandleException
+	 */
+	public String getTableName() throws HandleException {
+		return this.getEntityMeta().getTableName();
 	}
 
 	/**
@@ -126,16 +191,243 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 		if (!(t instanceof CommonModel)) {
 			throw new HandleException("error: entity is not instanceof CommonModel");
 		}
-		return this.getBaseBeanSessionMapper().insert(t, getTableName(), entityCls);
+		return this.invalidateTotal(this.getBaseBeanSessionMapper().insert(t, this.getEntityMeta()));
 	}
 
 	/**
 	 * 批量添加，传入list CommonModel 对象，返回影响行数
+	 * 按参数个数和估算字节数分批添加(参考 getBatchMaxParams、getBatchMaxBytes)，多批时在同一事务中执行
 	 * @param list
 	 * @return
 	 */
 	public int batchInsert(List<T> list) throws HandleException {
-		return this.getBaseBeanSessionMapper().insertBatch(list, getTableName(), entityCls);
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batch insert list is empty");
+		}
+		EntityMeta meta = this.getEntityMeta();
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		List<List<T>> chunks = BatchChunkSplitter.split(list, meta, this.getBatchMaxParams(), this.getBatchMaxBytes());
+		if (chunks.size() == 1) {
+			return this.invalidateTotal(mapper.insertBatch(list, meta));
+		}
+		return this.invalidateTotal(this.executeInTransaction(() -> {
+			int result = 0;
+			for (List<T> chunk : chunks) {
+				result += mapper.insertBatch(chunk, meta);
+			}
+			return result;
+		}));
+	}
+
+	/**
+	 * 批量添加或更新，与 batchInsert 相同按参数个数和估算字节数分批，多批时在同一事务中执行
+	 * 主键或唯一索引冲突时更新 updateFields 对应的字段，updateFields 为空时更新 id 和 create_time 之外的所有字段
+	 * id 为空时会生成新的 id，此时只有其他唯一索引冲突才会更新
+	 * 返回值为数据库的影响行数，MySQL 中新增的行计 1，更新的行计 2，值未变化的行计 0
+	 * @param list
+	 * @param updateFields  冲突时更新的属性名
+	 * @return
+	 * @throws HandleException
+	 */
+	public int batchUpsert(List<T> list, String... updateFields) throws HandleException {
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batch upsert list is empty");
+		}
+		EntityMeta meta = this.getEntityMeta();
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		List<List<T>> chunks = BatchChunkSplitter.split(list, meta, this.getBatchMaxParams(), this.getBatchMaxBytes());
+		if (chunks.size() == 1) {
+			return this.invalidateTotal(mapper.upsertBatch(list, updateFields, meta));
+		}
+		return this.invalidateTotal(this.executeInTransaction(() -> {
+			int result = 0;
+			for (List<T> chunk : chunks) {
+				result += mapper.upsertBatch(chunk, updateFields, meta);
+			}
+			return result;
+		}));
+	}
+
+	/**
+	 * 通过 ExecutorType.BATCH 批量添加，每条数据使用同一条包含所有字段的 insert 预编译语句，addBatch 后统一 executeBatch，
+	 * 数据库只解析一次语句，兼容驱动的 rewriteBatchedStatements，在同一事务中执行，返回每条数据的影响行数
+	 * 开启 rewriteBatchedStatements 时，驱动返回的影响行数可能为 Statement.SUCCESS_NO_INFO
+	 * @param list
+	 * @return
+	 * @throws HandleException
+	 */
+	public int[] executeBatchInsert(List<T> list) throws HandleException {
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batch insert list is empty");
+		}
+		EntityMeta meta = this.getEntityMeta();
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		return this.executeBatch(session -> {
+			BaseBeanSessionMapper<T> batchMapper = this.getSessionMapper(session, mapper);
+			List<BatchResult> batchResults = new ArrayList<>();
+			for (int i = 0, j = list.size(); i < j; i++) {
+				batchMapper.insertAll(list.get(i), meta);
+				if ((i + 1) % SqlConstant.BATCH_FLUSH_SIZE == 0) {
+					batchResults.addAll(session.flushStatements());
+				}
+			}
+			return batchResults;
+		});
+	}
+
+	/**
+	 * 通过 ExecutorType.BATCH 批量更新，不需要数据库连接开启 allowMultiQueries，
+	 * 结构相同的 QueryProvider 生成的 update 语句相同，连续相同的语句复用同一预编译语句，在同一事务中执行，返回每条语句的影响行数
+	 * @param list
+	 * @return
+	 * @throws HandleException
+	 */
+	public int[] executeBatchUpdate(List<QueryProvider> list) throws HandleException {
+		if (list == null || list.isEmpty()) {
+			throw new HandleException("error: batchUpdate QueryProvider is empty");
+		}
+		EntityMeta meta = this.getEntityMeta();
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		return this.executeBatch(session -> {
+			BaseBeanSessionMapper<T> batchMapper = this.getSessionMapper(session, mapper);
+			List<BatchResult> batchResults = new ArrayList<>();
+			for (int i = 0, j = list.size(); i < j; i++) {
+				Map<String, Object> paramMap = new HashMap<>();
+				paramMap.put(SqlConstant.PROVIDER_OBJ, list.get(i));
+				batchMapper.update(paramMap, meta);
+				if ((i + 1) % SqlConstant.BATCH_FLUSH_SIZE == 0) {
+					batchResults.addAll(session.flushStatements());
+				}
+			}
+			return batchResults;
+		});
+	}
+
+	/**
+	 * 打开 ExecutorType.BATCH 的 SqlSession 在事务中执行，action 返回中途 flush 的结果，剩余语句在这里 flush 后提交，
+	 * 执行异常时回滚并丢弃未 flush 的语句；返回值按执行顺序合并每条语句的影响行数，存在变更(影响行数不为 0)时使分页总条数缓存失效
+	 * @param action
+	 * @return
+	 */
+	private int[] executeBatch(Function<SqlSession, List<BatchResult>> action) {
+		List<BatchResult> batchResults = new ArrayList<>();
+		this.executeInTransaction(() -> {
+			try (SqlSession session = this.getSqlSessionFactory().openSession(ExecutorType.BATCH)) {
+				try {
+					batchResults.addAll(action.apply(session));
+					batchResults.addAll(session.flushStatements());
+					// 连接由 spring 事务管理时提交由事务完成，这里不生效；sqlSession 不由 spring 管理时提交当前 session
+					session.commit();
+				} catch (RuntimeException | Error e) {
+					try {
+						session.rollback(true);
+					} catch (RuntimeException rollbackException) {
+						e.addSuppressed(rollbackException);
+					}
+					throw e;
+				}
+			}
+			return batchResults.size();
+		});
+
+		int size = 0;
+		for (BatchResult batchResult : batchResults) {
+			size += batchResult.getUpdateCounts().length;
+		}
+		int[] result = new int[size];
+		int index = 0;
+		boolean changed = false;
+		for (BatchResult batchResult : batchResults) {
+			int[] updateCounts = batchResult.getUpdateCounts();
+			System.arraycopy(updateCounts, 0, result, index, updateCounts.length);
+			index += updateCounts.length;
+			for (int updateCount : updateCounts) {
+				// 开启 rewriteBatchedStatements 时影响行数为 Statement.SUCCESS_NO_INFO，同样视为存在变更
+				if (updateCount != 0) {
+					changed = true;
+				}
+			}
+		}
+		if (changed) {
+			this.getPageTotalCache().invalidate(this.getTableName());
+		}
+		return result;
+	}
+
+	/**
+	 * 批量添加每批的最大参数个数，默认 SqlConstant.BATCH_MAX_PARAMS，子类可重写
+	 * @return
+	 */
+	protected int getBatchMaxParams() {
+		return SqlConstant.BATCH_MAX_PARAMS;
+	}
+
+	/**
+	 * 延迟关联分页生效的最小偏移量，默认 SqlConstant.DEFERRED_JOIN_OFFSET，子类可重写，QueryProvider.setDeferredJoinOffset 优先
+	 * @return
+	 */
+	protected int getDeferredJoinOffset() {
+		return SqlConstant.DEFERRED_JOIN_OFFSET;
+	}
+
+	/**
+	 * 批量添加每批估算的最大字节数，默认 SqlConstant.BATCH_MAX_BYTES，需小于数据库的 max_allowed_packet，子类可重写
+	 * @return
+	 */
+	protected long getBatchMaxBytes() {
+		return SqlConstant.BATCH_MAX_BYTES;
+	}
+
+	/**
+	 * 在事务中执行，当前已存在事务时直接加入当前事务
+	 * sqlSession 不是 SqlSessionTemplate 时由调用方管理事务和提交，直接在调用方的 sqlSession 中执行
+	 * @param action
+	 * @return
+	 */
+	private int executeInTransaction(Supplier<Integer> action) {
+		if (TransactionSynchronizationManager.isActualTransactionActive() || !(sqlSession instanceof SqlSessionTemplate)) {
+			return action.get();
+		}
+		return this.getTransactionTemplate().execute(status -> action.get());
+	}
+
+	private TransactionTemplate getTransactionTemplate() {
+		if (transactionTemplate != null) {
+			return transactionTemplate;
+		}
+		PlatformTransactionManager transactionManager = this.getTransactionManager();
+		if (transactionManager == null) {
+			throw new HandleException("error: no transaction is active and PlatformTransactionManager is not found, "
+					+ "start a transaction or override getTransactionManager");
+		}
+		if (transactionManager instanceof ResourceTransactionManager) {
+			Object resource = ((ResourceTransactionManager) transactionManager).getResourceFactory();
+			DataSource dataSource = sqlSession.getConfiguration().getEnvironment().getDataSource();
+			if (resource instanceof DataSource && !this.isSameDataSource((DataSource) resource, dataSource)) {
+				throw new HandleException("error: PlatformTransactionManager is not for the DataSource of sqlSession, override getTransactionManager");
+			}
+		}
+		transactionTemplate = new TransactionTemplate(transactionManager);
+		return transactionTemplate;
+	}
+
+	private boolean isSameDataSource(DataSource first, DataSource second) {
+		if (first instanceof TransactionAwareDataSourceProxy) {
+			first = ((TransactionAwareDataSourceProxy) first).getTargetDataSource();
+		}
+		if (second instanceof TransactionAwareDataSourceProxy) {
+			second = ((TransactionAwareDataSourceProxy) second).getTargetDataSource();
+		}
+		return first == second;
+	}
+
+	/**
+	 * 没有事务时，多条语句的批量操作使用的事务管理器，默认为 spring 容器中唯一(或 @Primary)的 PlatformTransactionManager，
+	 * 多数据源时子类需重写，返回 sqlSession 数据源对应的事务管理器
+	 * @return
+	 */
+	protected PlatformTransactionManager getTransactionManager() {
+		return transactionManagerProvider == null ? null : transactionManagerProvider.getIfUnique();
 	}
 
 	/**
@@ -151,7 +443,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 		
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().update(paramMap, this.getTableName());
+		return this.invalidateTotal(this.getBaseBeanSessionMapper().update(paramMap, this.getEntityMeta()));
 	}
 
 	/**
@@ -166,9 +458,79 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 			throw new HandleException("error: batchUpdate QueryProvider is empty");
 		}
 		
-		Map<String, Object> paramMap = new HashMap<>();
-		paramMap.put(SqlConstant.PROVIDER_OBJ, list);
-		return this.getBaseBeanSessionMapper().updateBatch(paramMap, this.getTableName());
+		EntityMeta meta = this.getEntityMeta();
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		if (!this.isUpdateCaseSupported(list, meta)) {
+			Map<String, Object> paramMap = new HashMap<>();
+			paramMap.put(SqlConstant.PROVIDER_OBJ, list);
+			return this.invalidateTotal(mapper.updateBatch(paramMap, meta));
+		}
+
+		// 每行占用 id 及每个字段的值、case 中的 id 共 2 * 字段数 + 1 个参数
+		int paramSize = list.get(0).getFields().size() * 2 + 1;
+		int chunkSize = Math.max(1, Math.min(SqlConstant.BATCH_UPDATE_CASE_SIZE, this.getBatchMaxParams() / paramSize));
+		if (list.size() <= chunkSize) {
+			Map<String, Object> paramMap = new HashMap<>();
+			paramMap.put(SqlConstant.PROVIDER_OBJ, list);
+			return this.invalidateTotal(mapper.updateCase(paramMap, meta));
+		}
+		return this.invalidateTotal(this.executeInTransaction(() -> {
+			int result = 0;
+			for (int i = 0, j = list.size(); i < j; i += chunkSize) {
+				Map<String, Object> paramMap = new HashMap<>();
+				paramMap.put(SqlConstant.PROVIDER_OBJ, list.subList(i, Math.min(i + chunkSize, j)));
+				result += mapper.updateCase(paramMap, meta);
+			}
+			return result;
+		}));
+	}
+
+	/**
+	 * 批量更新是否可以合并为 case when 语句，需同时满足：
+	 * 数据多于一条，每条更新的字段及类型相同，条件只有一个 id 等于且值不为空，没有 or 条件和连接查询，id 不重复
+	 * @param list
+	 * @param entityMeta
+	 * @return
+	 */
+	private boolean isUpdateCaseSupported(List<QueryProvider> list, EntityMeta entityMeta) {
+		if (list.size() < 2) {
+			return false;
+		}
+		List<Object[]> firstFields = list.get(0).getFields();
+		if (firstFields == null || firstFields.isEmpty()) {
+			return false;
+		}
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		Set<String> ids = new HashSet<>();
+		for (QueryProvider queryProvider : list) {
+			if (queryProvider == null || queryProvider.getOrProviders() != null && !queryProvider.getOrProviders().isEmpty()
+					|| queryProvider.getLeftJoinProviders() != null && !queryProvider.getLeftJoinProviders().isEmpty()) {
+				return false;
+			}
+			List<Object[]> filters = queryProvider.getFilters();
+			if (filters == null || filters.size() != 1) {
+				return false;
+			}
+			Object[] filter = filters.get(0);
+			String filterName = filter[0].toString();
+			String column = columnMap.get(filterName);
+			if (!CommonField.FIELD_ID.equals(ValidateTool.isEmpty(column) ? filterName : column) || !FilterEnum.EQUAL.equals(filter[1])
+					|| filter[2] == null || !ids.add(filter[2].toString())) {
+				return false;
+			}
+			List<Object[]> fields = queryProvider.getFields();
+			if (fields == null || fields.size() != firstFields.size()) {
+				return false;
+			}
+			for (int i = 0, j = fields.size(); i < j; i++) {
+				Object[] field = fields.get(i);
+				Object[] firstField = firstFields.get(i);
+				if (!field[0].equals(firstField[0]) || field[1] != firstField[1]) {
+					return false;
+				}
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -177,7 +539,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	 * @return
 	 */
 	public int deleteById(BigInteger id) throws HandleException {
-		return this.getBaseBeanSessionMapper().deleteById(id, this.getTableName());
+		return this.invalidateTotal(this.getBaseBeanSessionMapper().deleteById(id, this.getEntityMeta()));
 	}
 
 	/**
@@ -188,7 +550,19 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public int delete(QueryProvider queryProvider) throws HandleException {
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().delete(paramMap, this.getTableName());
+		return this.invalidateTotal(this.getBaseBeanSessionMapper().delete(paramMap, this.getEntityMeta()));
+	}
+
+	/**
+	 * 数据变更后使当前表的分页总条数缓存失效
+	 * @param result  影响行数
+	 * @return
+	 */
+	private int invalidateTotal(int result) {
+		if (result > 0) {
+			this.getPageTotalCache().invalidate(this.getTableName());
+		}
+		return result;
 	}
 
 	/**
@@ -250,7 +624,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public T find(QueryProvider queryProvider) {
 		Map<String, Object> providerMap = new HashMap<>();
 		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().find(providerMap, this.getTableName());
+		return this.getBaseBeanSessionMapper().find(providerMap, this.getEntityMeta());
 	}
 
 	/**
@@ -263,7 +637,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public <M> M find(QueryProvider queryProvider, Class<M> resultCls) {
 		Map<String, Object> providerMap = new HashMap<>();
 		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseResultSessionMapper(resultCls).findR(providerMap, this.getTableName());
+		return this.getBaseResultSessionMapper(resultCls).findR(providerMap, this.getEntityMeta());
 	}
 	
 	/**
@@ -275,7 +649,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public boolean validate(QueryProvider queryProvider) {
 		Map<String, Object> providerMap = new HashMap<>();
 		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().validate(providerMap, this.getTableName()) > 0;
+		return this.getBaseBeanSessionMapper().validate(providerMap, this.getEntityMeta()) > 0;
 	}
 
 	/**
@@ -286,7 +660,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public Map<String, Object> findConvertMap(QueryProvider queryProvider) {
 		Map<String, Object> providerMap = new HashMap<>();
 		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().findToMap(providerMap, this.getTableName());
+		return this.getBaseBeanSessionMapper().findToMap(providerMap, this.getEntityMeta());
 	}
 
 	/**
@@ -298,7 +672,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public List<T> list(QueryProvider queryProvider) {
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().list(paramMap, this.getTableName());
+		return this.getBaseBeanSessionMapper().list(paramMap, this.getEntityMeta());
 	}
 
 	/**
@@ -310,7 +684,233 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public <M> List<M> list(QueryProvider queryProvider, Class<M> resultCls) {
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseResultSessionMapper(resultCls).listR(paramMap, this.getTableName());
+		return this.getBaseResultSessionMapper(resultCls).listR(paramMap, this.getEntityMeta());
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象，流式查询符合条件的记录，通过 mybatis Cursor 逐行读取，内存占用与数据量无关，适用于导出等大数据量处理。
+	 * 查询使用单独的 SqlSession(存在事务时使用事务的连接)，读取完成后必须关闭 Stream，建议使用 try-with-resources。
+	 * 查询为流式读取(SqlConstant.STREAM_FETCH_SIZE)，Stream 关闭前连接被结果集占用，存在事务时不能在读取过程中执行其他查询，
+	 * 否则 MySQL 驱动会抛出 streaming result set is still active 异常。
+	 * @param queryProvider
+	 * @return
+	 */
+	public Stream<T> stream(QueryProvider queryProvider) {
+		Map<String, Object> paramMap = new HashMap<>();
+		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
+		return this.openStream(session -> this.getSessionMapper(session, mapper).cursor(paramMap, this.getEntityMeta()));
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象，流式查询符合条件的记录，返回类型为预设的class类型，读取完成后必须关闭 Stream。
+	 * @param queryProvider
+	 * @param resultCls
+	 * @return
+	 */
+	public <M> Stream<M> stream(QueryProvider queryProvider, Class<M> resultCls) {
+		Map<String, Object> paramMap = new HashMap<>();
+		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		BaseResultSessionMapper<M> mapper = this.getBaseResultSessionMapper(resultCls);
+		return this.openStream(session -> this.getSessionMapper(session, mapper).cursorR(paramMap, this.getEntityMeta()));
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象，逐行回调处理符合条件的记录，通过 mybatis ResultHandler 读取，不生成中间 List。
+	 * 回调在查询的连接上同步执行，回调返回后才读取下一行。
+	 * 查询为流式读取(SqlConstant.STREAM_FETCH_SIZE)，读取完成前连接被结果集占用：存在事务时回调中的查询使用同一连接，
+	 * MySQL 驱动会抛出 streaming result set is still active 异常；无事务时回调中的查询会占用另一个连接。
+	 * @param queryProvider
+	 * @param consumer
+	 */
+	public void forEach(QueryProvider queryProvider, Consumer<T> consumer) {
+		Map<String, Object> paramMap = new HashMap<>();
+		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		this.select(this.getBaseBeanSessionMapper(), "cursor", paramMap, context -> consumer.accept((T) context.getResultObject()));
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象，逐行回调处理符合条件的记录，返回类型为预设的class类型，连接占用同 forEach(QueryProvider, Consumer)。
+	 * @param queryProvider
+	 * @param resultCls
+	 * @param consumer
+	 */
+	public <M> void forEach(QueryProvider queryProvider, Class<M> resultCls, Consumer<M> consumer) {
+		Map<String, Object> paramMap = new HashMap<>();
+		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		this.select(this.getBaseResultSessionMapper(resultCls), "cursorR", paramMap, context -> consumer.accept((M) context.getResultObject()));
+	}
+
+	/**
+	 * 根据传入的 QueryProvider 对象，逐行回调处理符合条件的Map格式记录，连接占用同 forEach(QueryProvider, Consumer)。
+	 * @param queryProvider
+	 * @param consumer
+	 */
+	public void forEachMap(QueryProvider queryProvider, Consumer<Map<String, Object>> consumer) {
+		Map<String, Object> paramMap = new HashMap<>();
+		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		this.select(this.getBaseBeanSessionMapper(), "cursorMap", paramMap, context -> consumer.accept((Map<String, Object>) context.getResultObject()));
+	}
+
+	/**
+	 * 通过 ResultHandler 执行 mapper 的游标查询语句，语句的 fetchSize 为流式读取
+	 * 参数按 mapper 方法 (Map, EntityMeta) 的参数名封装，与直接调用 mapper 方法一致
+	 * @param mapper
+	 * @param methodName
+	 * @param paramMap
+	 * @param handler
+	 */
+	private void select(Object mapper, String methodName, Map<String, Object> paramMap, ResultHandler<Object> handler) {
+		String statement = mapper.getClass().getInterfaces()[0].getName() + "." + methodName;
+		Object param = this.getCursorParamResolver().getNamedParams(new Object[] {paramMap, this.getEntityMeta()});
+		sqlSession.select(statement, param, handler);
+	}
+
+	private ParamNameResolver getCursorParamResolver() {
+		if (cursorParamResolver != null) {
+			return cursorParamResolver;
+		}
+		try {
+			cursorParamResolver = new ParamNameResolver(sqlSession.getConfiguration(), BaseBeanSessionMapper.class.getMethod("cursor", Map.class, EntityMeta.class));
+		} catch (NoSuchMethodException e) {
+			throw new HandleException("error: mapper method cursor is not exist");
+		}
+		return cursorParamResolver;
+	}
+
+	/**
+	 * 按主键 id 升序分批处理符合条件的记录，每批通过 id > 上一批最后一条 id 的条件查询，查询性能与批次深度无关，适用于全表遍历。
+	 * 查询使用 queryProvider 的副本，不修改传入对象的游标分页设置和 pageSize，指定查询字段时需包含主键 id。
+	 * @param queryProvider
+	 * @param chunkSize     每批数量
+	 * @param consumer
+	 */
+	public void forEachChunk(QueryProvider queryProvider, int chunkSize, Consumer<List<T>> consumer) {
+		this.forEachChunk(queryProvider, chunkSize, consumer, false);
+	}
+
+	/**
+	 * 按主键 id 升序分批处理符合条件的记录。
+	 * prefetch 为 true 时，处理当前批次的同时在后台线程查询下一批，当前存在事务或 sqlSession 不是 SqlSessionTemplate 时不预读。
+	 * @param queryProvider
+	 * @param chunkSize     每批数量
+	 * @param consumer
+	 * @param prefetch      是否预读下一批
+	 */
+	public void forEachChunk(QueryProvider queryProvider, int chunkSize, Consumer<List<T>> consumer, boolean prefetch) {
+		if (chunkSize <= 0) {
+			throw new HandleException("error: chunkSize must be greater than 0");
+		}
+		QueryProvider chunkProvider = queryProvider.copy();
+		chunkProvider.setSeek(OrderEnum.ORDER_ASC, CommonField.FIELD_ID);
+		chunkProvider.setSeekTotal(false);
+		chunkProvider.setPageSize(chunkSize);
+		chunkProvider.setCursor(null);
+
+		if (!prefetch || !this.isSessionShareable()) {
+			CursorPageInfo<T> page;
+			do {
+				page = this.pageAfter(chunkProvider);
+				if (!page.getList().isEmpty()) {
+					consumer.accept(page.getList());
+				}
+				chunkProvider.setCursor(page.getNextCursor());
+			} while (page.isHasNext());
+			return;
+		}
+
+		// 同一时间只有一个后台查询在执行，chunkProvider 只在后台查询中修改
+		Future<CursorPageInfo<T>> future = PageQueryExecutor.submit(() -> this.pageAfter(chunkProvider));
+		while (future != null) {
+			CursorPageInfo<T> page = this.getChunk(future);
+			future = null;
+			if (page.isHasNext()) {
+				String nextCursor = page.getNextCursor();
+				future = PageQueryExecutor.submit(() -> {
+					chunkProvider.setCursor(nextCursor);
+					return this.pageAfter(chunkProvider);
+				});
+			}
+			if (!page.getList().isEmpty()) {
+				try {
+					consumer.accept(page.getList());
+				} catch (RuntimeException e) {
+					if (future != null) {
+						future.cancel(true);
+					}
+					throw e;
+				}
+			}
+		}
+	}
+
+	private CursorPageInfo<T> getChunk(Future<CursorPageInfo<T>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new HandleException("error: chunk query is interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			HandleException exception = new HandleException("error: chunk query fail");
+			exception.initCause(cause);
+			throw exception;
+		}
+	}
+
+	/**
+	 * 打开单独的 SqlSession 执行游标查询，Stream 关闭时关闭游标和 SqlSession
+	 * @param query
+	 * @return
+	 */
+	private <E> Stream<E> openStream(Function<SqlSession, Cursor<E>> query) {
+		SqlSession session = this.getSqlSessionFactory().openSession();
+		try {
+			Cursor<E> cursor = query.apply(session);
+			return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> {
+				try {
+					cursor.close();
+				} catch (IOException e) {
+					throw new HandleException("error: cursor close fail");
+				} finally {
+					session.close();
+				}
+			});
+		} catch (RuntimeException e) {
+			session.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 获取绑定到指定 SqlSession 的 mapper，mapper 接口已在注册 sessionMapper 时加入 configuration
+	 * @param session
+	 * @param mapper
+	 * @return
+	 */
+	private <E> E getSessionMapper(SqlSession session, E mapper) {
+		return (E) session.getMapper(mapper.getClass().getInterfaces()[0]);
+	}
+
+	/**
+	 * 获取打开单独 SqlSession 的工厂，sqlSession 不是 SqlSessionTemplate 时按其 configuration 创建，
+	 * 此时打开的 SqlSession 不参与调用方的事务，写操作需显式提交
+	 * @return
+	 */
+	private SqlSessionFactory getSqlSessionFactory() {
+		if (sqlSessionFactory != null) {
+			return sqlSessionFactory;
+		}
+		if (sqlSession instanceof SqlSessionTemplate) {
+			sqlSessionFactory = ((SqlSessionTemplate) sqlSession).getSqlSessionFactory();
+		} else {
+			sqlSessionFactory = new DefaultSqlSessionFactory(sqlSession.getConfiguration());
+		}
+		return sqlSessionFactory;
 	}
 
 	/**
@@ -322,7 +922,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public List<Map<String, Object>> listConvertMap(QueryProvider queryProvider) {
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().query(paramMap, this.getTableName());
+		return this.getBaseBeanSessionMapper().query(paramMap, this.getEntityMeta());
 	}
 
 	/**
@@ -375,7 +975,7 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	private Object findObject(QueryProvider queryProvider) {
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		return this.getBaseBeanSessionMapper().findObject(paramMap, this.getTableName());
+		return this.getBaseBeanSessionMapper().findObject(paramMap, this.getEntityMeta());
 	}
 
 	/**
@@ -542,20 +1142,31 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public PageInfo<T> page(QueryProvider queryProvider) {
 		Map<String, Object> providerMap = new HashMap<>();
 		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		providerMap.put(SqlConstant.PROVIDER_DEFERRED_JOIN_OFFSET, this.getDeferredJoinOffset());
 		// 拼装SQL语句
-		SqlHandleProvider.getQueryPageSql(providerMap, this.getTableName());
+		SqlHandleProvider.getQueryPageSql(providerMap, this.getEntityMeta());
 
-		int total = this.getBaseBeanSessionMapper().findTotal((String) providerMap.get(SqlConstant.PROVIDER_COUNT_SQL), providerMap);
+		String totalSql = (String) providerMap.get(SqlConstant.PROVIDER_COUNT_SQL);
+		String querySql = (String) providerMap.get(SqlConstant.PROVIDER_QUERY_SQL);
+		BaseBeanSessionMapper<T> mapper = this.getBaseBeanSessionMapper();
 		PageInfo<T> page = new PageInfo<>();
+		if (providerMap.containsKey(SqlConstant.PROVIDER_WINDOW_SQL)) {
+			this.pageByWindow(page, queryProvider, providerMap, entityCls);
+			return page;
+		}
+		if (this.isPageConcurrent(queryProvider)) {
+			PageQueryExecutor.query(page, () -> this.findPageTotal(queryProvider, totalSql, providerMap), () -> mapper.page(querySql, providerMap));
+			return page;
+		}
+
+		int total = this.findPageTotal(queryProvider, totalSql, providerMap);
 		page.setTotal(total);
 		if (total == 0) {
 			// 当总条数为0时，直接取消数据查询
 			return page;
 		}
 
-		String querySql = (String) providerMap.get(SqlConstant.PROVIDER_QUERY_SQL);
-		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		page.setList(this.getBaseBeanSessionMapper().page(querySql, providerMap));
+		page.setList(mapper.page(querySql, providerMap));
 		return page;
 	}
 	
@@ -569,11 +1180,24 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 	public <M> PageInfo<M> PageResultHandle(QueryProvider queryProvider, Class<M> resultCls) {
 		Map<String, Object> paramMap = new HashMap<>();
 		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		paramMap.put(SqlConstant.PROVIDER_DEFERRED_JOIN_OFFSET, this.getDeferredJoinOffset());
 		// 拼装SQL语句
-		SqlHandleProvider.getQueryPageSql(paramMap, this.getTableName());
+		SqlHandleProvider.getQueryPageSql(paramMap, this.getEntityMeta());
 
-		int total = this.getBaseBeanSessionMapper().findTotal((String) paramMap.get(SqlConstant.PROVIDER_COUNT_SQL), paramMap);
+		String totalSql = (String) paramMap.get(SqlConstant.PROVIDER_COUNT_SQL);
+		String querySql = (String) paramMap.get(SqlConstant.PROVIDER_QUERY_SQL);
+		BaseResultSessionMapper<M> resultMapper = this.getBaseResultSessionMapper(resultCls);
 		PageInfo<M> page = new PageInfo<>();
+		if (paramMap.containsKey(SqlConstant.PROVIDER_WINDOW_SQL)) {
+			this.pageByWindow(page, queryProvider, paramMap, resultCls);
+			return page;
+		}
+		if (this.isPageConcurrent(queryProvider)) {
+			PageQueryExecutor.query(page, () -> this.findPageTotal(queryProvider, totalSql, paramMap), () -> resultMapper.pageR(querySql, paramMap));
+			return page;
+		}
+
+		int total = this.findPageTotal(queryProvider, totalSql, paramMap);
 		page.setTotal(total);
 		
 		if (total == 0) {
@@ -581,12 +1205,194 @@ public abstract class DBHandleFactory<T extends CommonModel> {
 			return page;
 		}
 
-		String querySql = (String) paramMap.get(SqlConstant.PROVIDER_QUERY_SQL);
-		paramMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
-		page.setList(this.getBaseResultSessionMapper(resultCls).pageR(querySql, paramMap));
+		page.setList(resultMapper.pageR(querySql, paramMap));
 		return page;
 	}
 
+	/**
+	 * 窗口函数分页，一次查询同时得到当前页数据和总条数
+	 * 页码超过总条数时查询不到数据，也就得不到总条数，此时单独查询总条数
+	 * @param page
+	 * @param queryProvider
+	 * @param providerMap
+	 * @param resultCls
+	 */
+	private <M> void pageByWindow(PageInfo<M> page, QueryProvider queryProvider, Map<String, Object> providerMap, Class<M> resultCls) {
+		List<WindowPageStatement.WindowRow<M>> rows = sqlSession.selectList(this.getWindowStatement(resultCls),
+				this.getPageParamResolver().getNamedParams(new Object[] {providerMap.get(SqlConstant.PROVIDER_WINDOW_SQL), providerMap}));
+		if (rows.isEmpty()) {
+			int total = queryProvider.getPageNumber() > 1 ? this.findPageTotal(queryProvider, (String) providerMap.get(SqlConstant.PROVIDER_COUNT_SQL), providerMap) : 0;
+			page.setTotal(total);
+			if (total != 0) {
+				page.setList(new ArrayList<>());
+			}
+			return;
+		}
+
+		page.setTotal(rows.get(0).getTotal());
+		List<M> list = new ArrayList<>(rows.size());
+		for (WindowPageStatement.WindowRow<M> row : rows) {
+			list.add(row.getRow());
+		}
+		page.setList(list);
+	}
+
+	/**
+	 * 获取 resultCls 的窗口函数分页语句，基于实体 mapper 的 page 语句注册，按 class 缓存
+	 * @param resultCls
+	 * @return
+	 */
+	private String getWindowStatement(Class<?> resultCls) {
+		String statement = windowStatementCache.get(resultCls);
+		if (statement == null) {
+			String pageStatement = this.getBaseBeanSessionMapper().getClass().getInterfaces()[0].getName() + ".page";
+			statement = WindowPageStatement.getStatement(sqlSession.getConfiguration(), pageStatement, resultCls);
+			windowStatementCache.put(resultCls, statement);
+		}
+		return statement;
+	}
+
+	private ParamNameResolver getPageParamResolver() {
+		if (pageParamResolver != null) {
+			return pageParamResolver;
+		}
+		try {
+			pageParamResolver = new ParamNameResolver(sqlSession.getConfiguration(), BaseBeanSessionMapper.class.getMethod("page", String.class, Map.class));
+		} catch (NoSuchMethodException e) {
+			throw new HandleException("error: mapper method page is not exist");
+		}
+		return pageParamResolver;
+	}
+
+	/**
+	 * 是否并发查询总条数和数据，不能在后台线程中使用 sqlSession 时(参考 isSessionShareable)仍顺序查询
+	 * @param queryProvider
+	 * @return
+	 */
+	private boolean isPageConcurrent(QueryProvider queryProvider) {
+		return queryProvider.isPageConcurrent() && this.isSessionShareable();
+	}
+
+	/**
+	 * 是否可以在后台线程与当前线程同时使用 sqlSession 查询
+	 * 只有 SqlSessionTemplate 线程安全，且存在事务时查询需使用事务的同一连接，其他情况只在当前线程中查询
+	 * @return
+	 */
+	private boolean isSessionShareable() {
+		return sqlSession instanceof SqlSessionTemplate && !TransactionSynchronizationManager.isActualTransactionActive();
+	}
+
+	/**
+	 * 查询分页总条数，QueryProvider 设置 setTotalCache(true) 时优先从缓存中获取
+	 * @param queryProvider
+	 * @param totalSql
+	 * @param providerMap
+	 * @return
+	 */
+	private int findPageTotal(QueryProvider queryProvider, String totalSql, Map<String, Object> providerMap) {
+		if (!queryProvider.isTotalCache()) {
+			return this.getBaseBeanSessionMapper().findTotal(totalSql, providerMap);
+		}
+		return this.getPageTotalCache().getTotal(this.getTableName(), queryProvider, totalSql, (Map<String, Object>) providerMap.get(SqlConstant.PROVIDER_FILTER),
+				() -> this.getBaseBeanSessionMapper().findTotal(totalSql, providerMap));
+	}
+
+	/**
+	 * 游标分页(keyset)查询，QueryProvider 需通过 setSeek 设置排序字段，通过 setCursor 传入上一页返回的 nextCursor
+	 * 按游标条件 where (a,b) > (?,?) 查询，不使用 limit offset，页码越深性能越稳定，默认不查询总条数
+	 * @param queryProvider 封装的参数对象
+	 * @return
+	 */
+	public CursorPageInfo<T> pageAfter(QueryProvider queryProvider) {
+		Map<String, Object> providerMap = new HashMap<>();
+		CursorPageInfo<T> page = new CursorPageInfo<>();
+		if (!this.prepareSeekPage(providerMap, queryProvider, page, this.getEntityMeta().getEntityCls())) {
+			return page;
+		}
+		List<T> list = this.getBaseBeanSessionMapper().page((String) providerMap.get(SqlConstant.PROVIDER_QUERY_SQL), providerMap);
+		this.setSeekPage(page, list, queryProvider, providerMap);
+		return page;
+	}
+
+	/**
+	 * 游标分页(keyset)查询，返回预定义的 resultCls 类型，resultCls 需包含游标排序字段的属性
+	 * @param queryProvider  封装的参数对象
+	 * @param resultCls      返回 预定义的 resultCls Bean 泛型数据类型
+	 * @return
+	 */
+	public <M> CursorPageInfo<M> pageAfter(QueryProvider queryProvider, Class<M> resultCls) {
+		Map<String, Object> providerMap = new HashMap<>();
+		CursorPageInfo<M> page = new CursorPageInfo<>();
+		if (!this.prepareSeekPage(providerMap, queryProvider, page, resultCls)) {
+			return page;
+		}
+		List<M> list = this.getBaseResultSessionMapper(resultCls).pageR((String) providerMap.get(SqlConstant.PROVIDER_QUERY_SQL), providerMap);
+		this.setSeekPage(page, list, queryProvider, providerMap);
+		return page;
+	}
+
+	/**
+	 * 拼装游标分页 sql，需要时查询总条数，总条数为 0 时返回 false，不再查询数据
+	 * 查询前校验游标字段均已查询且 resultCls 包含对应属性，避免下一页游标记录为 null
+	 * @param providerMap
+	 * @param queryProvider
+	 * @param page
+	 * @param resultCls
+	 * @return
+	 */
+	private boolean prepareSeekPage(Map<String, Object> providerMap, QueryProvider queryProvider, CursorPageInfo<?> page, Class<?> resultCls) {
+		providerMap.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		// 拼装SQL语句
+		SqlHandleProvider.getQuerySeekSql(providerMap, this.getEntityMeta());
+		if (!Map.class.isAssignableFrom(resultCls)) {
+			for (String seekField : (String[]) providerMap.get(SqlConstant.PROVIDER_SEEK_FIELD)) {
+				FieldAccessorFactory.getAccessor(resultCls, seekField);
+			}
+		}
+		if (queryProvider.isSeekTotal()) {
+			long total = this.findPageTotal(queryProvider, (String) providerMap.get(SqlConstant.PROVIDER_COUNT_SQL), providerMap);
+			page.setTotal(total);
+			if (total == 0) {
+				page.setList(new ArrayList<>());
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 查询语句多查一条数据，用于判断是否有下一页，下一页的游标为当前页最后一条数据的排序字段值
+	 * @param page
+	 * @param list
+	 * @param queryProvider
+	 * @param providerMap
+	 */
+	private <M> void setSeekPage(CursorPageInfo<M> page, List<M> list, QueryProvider queryProvider, Map<String, Object> providerMap) {
+		int pageSize = queryProvider.getPageSize();
+		boolean hasNext = list.size() > pageSize;
+		if (hasNext) {
+			list = new ArrayList<>(list.subList(0, pageSize));
+		}
+		page.setList(list);
+		page.setHasNext(hasNext);
+		if (hasNext && pageSize > 0) {
+			M last = list.get(pageSize - 1);
+			String[] seekFields = (String[]) providerMap.get(SqlConstant.PROVIDER_SEEK_FIELD);
+			Object[] values = new Object[seekFields.length];
+			for (int i = 0; i < values.length; i++) {
+				if (last instanceof Map) {
+					values[i] = ((Map<?, ?>) last).get(seekFields[i]);
+				} else {
+					values[i] = FieldAccessorFactory.getAccessor(last.getClass(), seekFields[i]).get(last);
+				}
+				if (values[i] == null) {
+					throw new HandleException("error: seek field(" + seekFields[i] + ") value is null");
+				}
+			}
+			page.setNextCursor(SeekCursor.encode(values));
+		}
+	}
+
 	private long getPages(long total, int pageSize) {
 		long pages = total / pageSize;
 		if (total % pageSize != 0) {
@@ -0,0 +1,168 @@
+package com.obatis.core;
+
+import com.obatis.config.response.result.PageInfo;
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.exception.HandleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 分页查询的并发执行器，数据查询提交到共享的有界线程池，总条数在当前线程查询，两条查询使用不同的 SqlSession 同时执行
+ * 总条数为 0 时取消数据查询，线程池队列已满时退回顺序查询，同时用于分批处理时预读下一批数据
+ * @author HuangLongPu
+ */
+public final class PageQueryExecutor {
+
+	private static final Logger log = LoggerFactory.getLogger(PageQueryExecutor.class);
+
+	private static final ThreadPoolExecutor EXECUTOR;
+
+	private static final LongAdder CONCURRENT_COUNT = new LongAdder();
+	private static final LongAdder FALLBACK_COUNT = new LongAdder();
+	private static final LongAdder CANCEL_COUNT = new LongAdder();
+	private static final LongAdder SAVED_NANOS = new LongAdder();
+
+	static {
+		int poolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+		AtomicInteger threadIndex = new AtomicInteger();
+		EXECUTOR = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(SqlConstant.PAGE_QUERY_QUEUE_SIZE), runnable -> {
+			Thread thread = new Thread(runnable, "obatis-page-query-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private PageQueryExecutor() {
+	}
+
+	/**
+	 * 同时查询总条数和数据，结果放入 page
+	 * @param page
+	 * @param totalQuery  查询总条数
+	 * @param listQuery   查询数据
+	 * @param <E>
+	 */
+	static <E> void query(PageInfo<E> page, Supplier<Integer> totalQuery, Supplier<List<E>> listQuery) {
+		long begin = System.nanoTime();
+		long[] listNanos = new long[1];
+		Future<List<E>> listFuture;
+		try {
+			listFuture = EXECUTOR.submit(() -> {
+				long listBegin = System.nanoTime();
+				List<E> list = listQuery.get();
+				listNanos[0] = System.nanoTime() - listBegin;
+				return list;
+			});
+		} catch (RejectedExecutionException e) {
+			FALLBACK_COUNT.increment();
+			log.debug("page query executor is busy, query in sequence");
+			int total = totalQuery.get();
+			page.setTotal(total);
+			if (total != 0) {
+				page.setList(listQuery.get());
+			}
+			return;
+		}
+
+		CONCURRENT_COUNT.increment();
+		int total;
+		long totalNanos;
+		try {
+			long totalBegin = System.nanoTime();
+			total = totalQuery.get();
+			totalNanos = System.nanoTime() - totalBegin;
+		} catch (RuntimeException e) {
+			listFuture.cancel(true);
+			throw e;
+		}
+		page.setTotal(total);
+		if (total == 0) {
+			// 当总条数为0时，取消数据查询
+			listFuture.cancel(true);
+			CANCEL_COUNT.increment();
+			return;
+		}
+
+		try {
+			page.setList(listFuture.get());
+		} catch (InterruptedException e) {
+			listFuture.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new HandleException("error: page query is interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new HandleException("error: page query fail, " + cause);
+		}
+		// 节省的时间 = 顺序执行耗时 - 并发执行耗时
+		long saved = totalNanos + listNanos[0] - (System.nanoTime() - begin);
+		if (saved > 0) {
+			SAVED_NANOS.add(saved);
+		}
+	}
+
+	/**
+	 * 提交后台查询任务，线程池队列已满时在当前线程直接执行
+	 * @param task
+	 * @param <V>
+	 * @return
+	 */
+	static <V> Future<V> submit(Callable<V> task) {
+		try {
+			return EXECUTOR.submit(task);
+		} catch (RejectedExecutionException e) {
+			FALLBACK_COUNT.increment();
+			FutureTask<V> future = new FutureTask<>(task);
+			future.run();
+			return future;
+		}
+	}
+
+	/**
+	 * 并发查询的次数
+	 * @return
+	 */
+	public static long getConcurrentCount() {
+		return CONCURRENT_COUNT.sum();
+	}
+
+	/**
+	 * 线程池繁忙退回顺序查询的次数
+	 * @return
+	 */
+	public static long getFallbackCount() {
+		return FALLBACK_COUNT.sum();
+	}
+
+	/**
+	 * 总条数为 0 取消数据查询的次数
+	 * @return
+	 */
+	public static long getCancelCount() {
+		return CANCEL_COUNT.sum();
+	}
+
+	/**
+	 * 并发查询相对顺序查询累计节省的时间，单位毫秒
+	 * @return
+	 */
+	public static long getSavedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(SAVED_NANOS.sum());
+	}
+}
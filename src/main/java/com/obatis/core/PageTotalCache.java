@@ -0,0 +1,293 @@
+package com.obatis.core;
+
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.exception.HandleException;
+import com.obatis.core.sql.LruCache;
+import com.obatis.core.sql.QueryProvider;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Array;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 分页总条数缓存，key 为统计计数 sql 加条件值，缓存有效期默认为 SqlConstant.PAGE_TOTAL_CACHE_TTL，
+ * 最大数量默认为 SqlConstant.PAGE_TOTAL_CACHE_SIZE，可通过 DBHandleFactory.getPageTotalCache 获取后调用 setTtl、setCapacity 修改
+ * 每张表维护一个版本号，通过 DBHandleFactory 添加、修改、删除数据时版本号加 1，缓存记录查询时主表及连接表的版本号，版本号变化后缓存失效
+ * 缓存和版本号按数据源区分，不同数据源的同名表互不影响
+ * @author HuangLongPu
+ */
+public final class PageTotalCache {
+
+	private static final Map<Object, PageTotalCache> DATA_SOURCE_CACHE = new ConcurrentHashMap<>();
+
+	private volatile LruCache<TotalKey, TotalEntry> totalCache = new LruCache<>(SqlConstant.PAGE_TOTAL_CACHE_SIZE);
+	private volatile long ttl = SqlConstant.PAGE_TOTAL_CACHE_TTL;
+	private final Map<String, AtomicLong> tableVersion = new ConcurrentHashMap<>();
+
+	private PageTotalCache() {
+	}
+
+	/**
+	 * 获取 mybatis 配置对应数据源的总条数缓存，未配置数据源时按 Configuration 区分
+	 * @param configuration
+	 * @return
+	 */
+	public static PageTotalCache getInstance(Configuration configuration) {
+		Environment environment = configuration.getEnvironment();
+		Object key = environment == null || environment.getDataSource() == null ? configuration : environment.getDataSource();
+		PageTotalCache cache = DATA_SOURCE_CACHE.get(key);
+		if (cache == null) {
+			cache = DATA_SOURCE_CACHE.computeIfAbsent(key, k -> new PageTotalCache());
+		}
+		return cache;
+	}
+
+	/**
+	 * 获取总条数，缓存不存在、过期或者表数据已变更时查询并缓存
+	 * @param tableName      主表表名
+	 * @param queryProvider
+	 * @param totalSql
+	 * @param filterValue    条件值
+	 * @param totalQuery     查询总条数
+	 * @return
+	 */
+	int getTotal(String tableName, QueryProvider queryProvider, String totalSql, Map<String, Object> filterValue, Supplier<Integer> totalQuery) {
+		List<String> tableNames = new ArrayList<>();
+		tableNames.add(tableName);
+		addJoinTableName(tableNames, queryProvider);
+		// 查询前获取版本号，查询过程中数据变更时，缓存在下次获取时失效
+		long[] versions = new long[tableNames.size()];
+		for (int i = 0; i < versions.length; i++) {
+			versions[i] = this.getVersion(tableNames.get(i));
+		}
+
+		LruCache<TotalKey, TotalEntry> cache = totalCache;
+		TotalKey cacheKey = new TotalKey(totalSql, filterValue);
+		TotalEntry entry = cache.get(cacheKey);
+		if (entry != null && entry.expireTime > System.currentTimeMillis() && Arrays.equals(entry.versions, versions)) {
+			return entry.total;
+		}
+
+		int total = totalQuery.get();
+		cache.put(cacheKey, new TotalEntry(total, System.currentTimeMillis() + ttl, versions));
+		return total;
+	}
+
+	/**
+	 * 表数据变更，使该表相关的总条数缓存失效
+	 * 存在事务时，事务结束后再次失效，避免事务提交前被其他线程缓存旧的总条数，同一事务只注册一次事务回调，回调中记录变更的表
+	 * @param tableName
+	 */
+	public void invalidate(String tableName) {
+		AtomicLong version = tableVersion.computeIfAbsent(tableName, name -> new AtomicLong());
+		version.incrementAndGet();
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		InvalidateSynchronization synchronization = (InvalidateSynchronization) TransactionSynchronizationManager.getResource(this);
+		if (synchronization == null) {
+			synchronization = new InvalidateSynchronization();
+			TransactionSynchronizationManager.bindResource(this, synchronization);
+			TransactionSynchronizationManager.registerSynchronization(synchronization);
+		}
+		synchronization.versions.add(version);
+	}
+
+	/**
+	 * 清空当前数据源的总条数缓存
+	 */
+	public void clear() {
+		totalCache.clear();
+	}
+
+	/**
+	 * 设置缓存有效期，单位毫秒，只对之后缓存的总条数生效
+	 * @param ttl
+	 */
+	public void setTtl(long ttl) {
+		if (ttl <= 0) {
+			throw new HandleException("error: page total cache ttl must be greater than 0");
+		}
+		this.ttl = ttl;
+	}
+
+	public long getTtl() {
+		return ttl;
+	}
+
+	/**
+	 * 设置缓存最大数量，容量变化时清空已缓存的总条数
+	 * @param capacity
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity <= 0) {
+			throw new HandleException("error: page total cache capacity must be greater than 0");
+		}
+		if (capacity != totalCache.getCapacity()) {
+			totalCache = new LruCache<>(capacity);
+		}
+	}
+
+	public int getCapacity() {
+		return totalCache.getCapacity();
+	}
+
+	public long getHitCount() {
+		return totalCache.getHitCount();
+	}
+
+	public long getMissCount() {
+		return totalCache.getMissCount();
+	}
+
+	private long getVersion(String tableName) {
+		AtomicLong version = tableVersion.get(tableName);
+		return version == null ? 0 : version.get();
+	}
+
+	private static void addJoinTableName(List<String> tableNames, QueryProvider queryProvider) {
+		List<Object[]> leftJoinProviders = queryProvider.getLeftJoinProviders();
+		if (leftJoinProviders == null) {
+			return;
+		}
+		for (Object[] leftJoin : leftJoinProviders) {
+			QueryProvider joinProvider = (QueryProvider) leftJoin[2];
+			tableNames.add(joinProvider.getJoinTableName());
+			addJoinTableName(tableNames, joinProvider);
+		}
+	}
+
+	/**
+	 * 缓存 key，由统计计数 sql 和按条件名排序的条件值组成，条件值按类型编码后比较
+	 */
+	static final class TotalKey {
+
+		private final Object[] parts;
+		private final int hash;
+
+		TotalKey(String totalSql, Map<String, Object> filterValue) {
+			if (filterValue == null || filterValue.isEmpty()) {
+				this.parts = new Object[] {totalSql};
+			} else {
+				Map<String, Object> sortedValue = filterValue instanceof TreeMap ? filterValue : new TreeMap<>(filterValue);
+				this.parts = new Object[1 + sortedValue.size() * 2];
+				this.parts[0] = totalSql;
+				int index = 1;
+				for (Map.Entry<String, Object> entry : sortedValue.entrySet()) {
+					this.parts[index++] = entry.getKey();
+					this.parts[index++] = encode(entry.getValue());
+				}
+			}
+			this.hash = Arrays.deepHashCode(parts);
+		}
+
+		/**
+		 * 条件值编码，数组和集合展开为元素的编码，Date 为类型加毫秒数(Timestamp 加纳秒)，
+		 * 其他值按自身的 equals 比较，不同类型的值(例如 Integer 1 与 Long 1)不相等
+		 * @param value
+		 * @return
+		 */
+		private static Object encode(Object value) {
+			if (value == null) {
+				return null;
+			}
+			if (value instanceof Timestamp) {
+				return new Object[] {Timestamp.class, ((Timestamp) value).getTime(), ((Timestamp) value).getNanos()};
+			}
+			if (value instanceof Date) {
+				return new Object[] {value.getClass(), ((Date) value).getTime()};
+			}
+			if (value.getClass().isArray()) {
+				int length = Array.getLength(value);
+				Object[] encoded = new Object[length + 1];
+				encoded[0] = value.getClass();
+				for (int i = 0; i < length; i++) {
+					encoded[i + 1] = encode(Array.get(value, i));
+				}
+				return encoded;
+			}
+			if (value instanceof Collection) {
+				Collection<?> collection = (Collection<?>) value;
+				Object[] encoded = new Object[collection.size() + 1];
+				encoded[0] = Collection.class;
+				int index = 1;
+				for (Object element : collection) {
+					encoded[index++] = encode(element);
+				}
+				return encoded;
+			}
+			return value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof TotalKey)) {
+				return false;
+			}
+			TotalKey other = (TotalKey) obj;
+			return hash == other.hash && Arrays.deepEquals(parts, other.parts);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * 事务结束后使本事务变更过的表的缓存再次失效，事务挂起时解除绑定，恢复时重新绑定
+	 */
+	private final class InvalidateSynchronization extends TransactionSynchronizationAdapter {
+
+		private final Set<AtomicLong> versions = new HashSet<>();
+
+		@Override
+		public void suspend() {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PageTotalCache.this);
+		}
+
+		@Override
+		public void resume() {
+			TransactionSynchronizationManager.bindResource(PageTotalCache.this, this);
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(PageTotalCache.this);
+			for (AtomicLong version : versions) {
+				version.incrementAndGet();
+			}
+		}
+	}
+
+	private static final class TotalEntry {
+
+		private final int total;
+		private final long expireTime;
+		private final long[] versions;
+
+		private TotalEntry(int total, long expireTime, long[] versions) {
+			this.total = total;
+			this.expireTime = expireTime;
+			this.versions = versions;
+		}
+	}
+}
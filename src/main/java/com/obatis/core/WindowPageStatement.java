@@ -0,0 +1,89 @@
+package com.obatis.core;
+
+import com.obatis.core.constant.SqlConstant;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 窗口函数分页的查询语句，与 mapper 的 page 语句使用同一 sql，结果映射为 WindowRow
+ * WindowRow 通过构造参数读取总条数字段，row 为 resultCls 的嵌套映射，按 mybatis 自动映射规则(TypeHandler、忽略大小写等)赋值，
+ * 嵌套映射的行唯一标识为空，每一行都生成新的对象，不会把数据相同的行合并
+ * @author HuangLongPu
+ */
+final class WindowPageStatement {
+
+	private static final String STATEMENT_SUFFIX = "-window-";
+
+	private WindowPageStatement() {
+	}
+
+	/**
+	 * 获取 pageStatement 对应 resultCls 的窗口函数分页语句 id，不存在时注册到 mybatis 配置中
+	 * @param configuration
+	 * @param pageStatement  mapper 的 page 语句 id
+	 * @param resultCls
+	 * @return
+	 */
+	static String getStatement(Configuration configuration, String pageStatement, Class<?> resultCls) {
+		String statement = pageStatement + STATEMENT_SUFFIX + resultCls.getName().replace('.', '_');
+		// mybatis 的语句和结果映射注册表不是线程安全的，注册时按配置加锁
+		synchronized (configuration) {
+			if (configuration.hasStatement(statement, false)) {
+				return statement;
+			}
+			MappedStatement page = configuration.getMappedStatement(pageStatement);
+			ResultMap rowMap = new ResultMap.Builder(configuration, statement + "-row", resultCls, new ArrayList<>(), true).build();
+			configuration.addResultMap(rowMap);
+
+			List<ResultMapping> mappings = new ArrayList<>(2);
+			mappings.add(new ResultMapping.Builder(configuration, null, SqlConstant.PAGE_WINDOW_TOTAL, Long.class)
+					.flags(Collections.singletonList(ResultFlag.CONSTRUCTOR)).build());
+			// row 标记为 id，行的唯一标识只由 row 的构造参数映射计算，映射为空时 mybatis 不缓存行对象，否则会按总条数合并所有行
+			mappings.add(new ResultMapping.Builder(configuration, "row").javaType(resultCls).nestedResultMapId(rowMap.getId())
+					.flags(Collections.singletonList(ResultFlag.ID)).build());
+			ResultMap windowMap = new ResultMap.Builder(configuration, statement + "-result", WindowRow.class, mappings, false).build();
+			configuration.addResultMap(windowMap);
+
+			configuration.addMappedStatement(new MappedStatement.Builder(configuration, statement, page.getSqlSource(), page.getSqlCommandType())
+					.resource(page.getResource())
+					.statementType(page.getStatementType())
+					.resultSetType(page.getResultSetType())
+					.fetchSize(page.getFetchSize())
+					.timeout(page.getTimeout())
+					.databaseId(page.getDatabaseId())
+					.lang(page.getLang())
+					.resultMaps(Collections.singletonList(windowMap))
+					.build());
+		}
+		return statement;
+	}
+
+	/**
+	 * 窗口函数分页的一行数据
+	 * @param <M>
+	 */
+	static final class WindowRow<M> {
+
+		private final long total;
+		private M row;
+
+		WindowRow(Long total) {
+			this.total = total == null ? 0 : total;
+		}
+
+		long getTotal() {
+			return total;
+		}
+
+		M getRow() {
+			return row;
+		}
+	}
+}
@@ -1,14 +1,16 @@
 package com.obatis.core.constant;
 
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.mapper.BaseBeanSessionMapper;
 import com.obatis.core.mapper.BaseResultSessionMapper;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 缓存静态属性，主要用于存放实体信息、数据库表相关信息
+ * 全部使用 ConcurrentHashMap，读取无锁，写入按 key 进行，不同实体可同时初始化
  * @author HuangLongPu
  */
 public class CacheInfoConstant {
@@ -18,26 +20,34 @@ public class CacheInfoConstant {
 	/**
 	 * 存放表名
 	 */
-	public static final Map<String, String> TABLE_CACHE = new HashMap<>();
+	public static final Map<String, String> TABLE_CACHE = new ConcurrentHashMap<>();
 	/**
-	 * 存放实体中通过 @Column 注解的属性
+	 * 存放实体元数据，key 为表名
 	 */
-	public static final Map<String, Map<String, String>> COLUMN_CACHE = new HashMap<>();
+	public static final Map<String, EntityMeta> ENTITY_CACHE = new ConcurrentHashMap<>();
 	/**
-	 * 存放实体属性
+	 * 存放实体属性名与字段名的映射，key 为表名，只读视图，数据来源于 ENTITY_CACHE
+	 * @deprecated 使用 BeanCacheConvert.getEntityMeta 获取 EntityMeta.getColumnMap，下一版本移除
 	 */
-	public static final Map<String, Map<String, String>> FIELD_CACHE = new HashMap<>();
+	@Deprecated
+	public static final Map<String, Map<String, String>> COLUMN_CACHE = new EntityMetaMapView(ENTITY_CACHE, EntityMeta::getColumnMap);
+	/**
+	 * 存放实体中通过 @Column 注解的字段名与属性名的映射，key 为表名，只读视图，数据来源于 ENTITY_CACHE
+	 * @deprecated 使用 BeanCacheConvert.getEntityMeta 获取 EntityMeta.getFieldMap，下一版本移除
+	 */
+	@Deprecated
+	public static final Map<String, Map<String, String>> FIELD_CACHE = new EntityMetaMapView(ENTITY_CACHE, EntityMeta::getFieldMap);
 	/**
 	 * 存放 ResultInfoOutput 的子类的属性
 	 */
-	public static final Map<String, List<String[]>> RESULT_CACHE = new HashMap<>();
+	public static final Map<String, List<String[]>> RESULT_CACHE = new ConcurrentHashMap<>();
 
 	/**
 	 * 存放实体的 sessionMapper
 	 */
-	public static final Map<String, BaseBeanSessionMapper<?>> BEAN_SESSION_MAPPER = new HashMap<>();
+	public static final Map<String, BaseBeanSessionMapper<?>> BEAN_SESSION_MAPPER = new ConcurrentHashMap<>();
 	/**
 	 * 存放 ResultInfoOutput 的子类的 sessionMapper
 	 */
-	public static final Map<String, BaseResultSessionMapper<?>> RESULT_SESSION_MAPPER = new HashMap<>();
+	public static final Map<String, BaseResultSessionMapper<?>> RESULT_SESSION_MAPPER = new ConcurrentHashMap<>();
 }
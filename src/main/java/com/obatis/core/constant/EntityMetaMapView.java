@@ -0,0 +1,68 @@
+package com.obatis.core.constant;
+
+import com.obatis.core.convert.EntityMeta;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 按表名读取实体元数据中属性与字段映射的只读视图，兼容原 COLUMN_CACHE、FIELD_CACHE 的读取方式，数据来源于 ENTITY_CACHE
+ * @author HuangLongPu
+ */
+final class EntityMetaMapView extends AbstractMap<String, Map<String, String>> {
+
+	private final Map<String, EntityMeta> entityCache;
+	private final Function<EntityMeta, Map<String, String>> mapper;
+
+	EntityMetaMapView(Map<String, EntityMeta> entityCache, Function<EntityMeta, Map<String, String>> mapper) {
+		this.entityCache = entityCache;
+		this.mapper = mapper;
+	}
+
+	@Override
+	public Map<String, String> get(Object key) {
+		EntityMeta entityMeta = entityCache.get(key);
+		return entityMeta == null ? null : mapper.apply(entityMeta);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return entityCache.containsKey(key);
+	}
+
+	@Override
+	public int size() {
+		return entityCache.size();
+	}
+
+	@Override
+	public Set<Entry<String, Map<String, String>>> entrySet() {
+		return new AbstractSet<Entry<String, Map<String, String>>>() {
+			@Override
+			public Iterator<Entry<String, Map<String, String>>> iterator() {
+				Iterator<Entry<String, EntityMeta>> iterator = entityCache.entrySet().iterator();
+				return new Iterator<Entry<String, Map<String, String>>>() {
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Entry<String, Map<String, String>> next() {
+						Entry<String, EntityMeta> entry = iterator.next();
+						return new SimpleImmutableEntry<>(entry.getKey(), mapper.apply(entry.getValue()));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return entityCache.size();
+			}
+		};
+	}
+}
@@ -26,8 +26,81 @@ public class SqlConstant {
 	 * 查询 sql
 	 */
 	public static final String PROVIDER_QUERY_SQL = "query_sql";
+	/**
+	 * 游标分页时游标字段在查询结果中的属性名
+	 */
+	public static final String PROVIDER_SEEK_FIELD = "seek_fields";
+	/**
+	 * 游标分页的游标值，与条件值分开存放，统计总条数的缓存 key 不包含游标值
+	 */
+	public static final String PROVIDER_SEEK_VALUE = "seek_value";
+	/**
+	 * 延迟关联分页生效的最小偏移量，QueryProvider 未设置时使用
+	 */
+	public static final String PROVIDER_DEFERRED_JOIN_OFFSET = "deferred_join_offset";
+	/**
+	 * 窗口函数分页的查询 sql，同时查询数据和总条数
+	 */
+	public static final String PROVIDER_WINDOW_SQL = "window_sql";
+	/**
+	 * 窗口函数分页时总条数的字段别名
+	 */
+	public static final String PAGE_WINDOW_TOTAL = "page_window_total";
 	/**
 	 * 默认起始值
 	 */
 	public static final int DEFAULT_INIT = 0;
+	/**
+	 * sql 结构缓存的最大数量
+	 */
+	public static final int SHAPE_SQL_CACHE_SIZE = 1024;
+	/**
+	 * 占位符替换缓存的最大数量
+	 */
+	public static final int REPLACE_SQL_CACHE_SIZE = 512;
+	/**
+	 * 字段运算表达式解析结果缓存的最大数量
+	 */
+	public static final int EXPRESSION_CACHE_SIZE = 512;
+	/**
+	 * 延迟关联分页生效的默认最小偏移量，可通过 QueryProvider.setDeferredJoinOffset 或重写 DBHandleFactory.getDeferredJoinOffset 修改
+	 */
+	public static final int DEFERRED_JOIN_OFFSET = 10000;
+	/**
+	 * 并发分页查询线程池的队列长度，队列已满时退回顺序查询
+	 */
+	public static final int PAGE_QUERY_QUEUE_SIZE = 256;
+	/**
+	 * 分页总条数缓存的默认最大数量，可通过 PageTotalCache.setCapacity 修改
+	 */
+	public static final int PAGE_TOTAL_CACHE_SIZE = 1024;
+	/**
+	 * 分页总条数缓存的默认有效期，单位毫秒，可通过 PageTotalCache.setTtl 修改
+	 */
+	public static final long PAGE_TOTAL_CACHE_TTL = 60 * 1000L;
+	/**
+	 * 流式查询的 fetchSize，MySQL 驱动为 Integer.MIN_VALUE 时逐行读取，不在内存中缓存结果集
+	 * 结果集读取完成或关闭前，该连接不能执行其他语句
+	 */
+	public static final int STREAM_FETCH_SIZE = Integer.MIN_VALUE;
+	/**
+	 * 批量添加每批的最大参数个数，MySQL 预编译语句的占位符数量上限为 65535
+	 */
+	public static final int BATCH_MAX_PARAMS = 65535;
+	/**
+	 * 批量添加每批估算的最大字节数，需小于数据库的 max_allowed_packet
+	 */
+	public static final long BATCH_MAX_BYTES = 2 * 1024 * 1024L;
+	/**
+	 * 批量添加 sql 缓存的最大数量，按表和行数缓存
+	 */
+	public static final int BATCH_INSERT_SQL_CACHE_SIZE = 128;
+	/**
+	 * ExecutorType.BATCH 批量执行时，每累计该数量的语句执行一次 executeBatch
+	 */
+	public static final int BATCH_FLUSH_SIZE = 1000;
+	/**
+	 * 批量更新合并为 case when 语句时，每条语句最多合并的行数
+	 */
+	public static final int BATCH_UPDATE_CASE_SIZE = 500;
 }
@@ -0,0 +1,23 @@
+package com.obatis.core.constant.type;
+
+/**
+ * 分页查询方式枚举
+ * @author HuangLongPu
+ */
+public enum PageHandleEnum {
+
+	/**
+	 * 默认分页方式，直接使用 limit offset,size
+	 */
+	PAGE_DEFAULT,
+	/**
+	 * 延迟关联分页，先按条件和排序只查询主键 id 并分页，再关联主表查询完整字段，
+	 * 偏移量达到 QueryProvider.setDeferredJoinOffset 或 DBHandleFactory.getDeferredJoinOffset 的值(默认 SqlConstant.DEFERRED_JOIN_OFFSET)时生效，适用于深度分页
+	 */
+	PAGE_DEFERRED_JOIN,
+	/**
+	 * 窗口函数分页，通过 count(1) over() 在查询数据时同时得到总条数，只需一次查询，需数据库支持窗口函数，
+	 * MySQL 需通过 MysqlCommonMethod(serverVersion) 指定 8.0 及以上版本，否则仍单独查询总条数
+	 */
+	PAGE_WINDOW_COUNT
+}
@@ -3,15 +3,13 @@ package com.obatis.core.convert;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import com.obatis.core.annotation.Table;
 import com.obatis.core.annotation.Column;
 import com.obatis.core.annotation.NotColumn;
 import com.obatis.core.constant.CacheInfoConstant;
-import com.obatis.core.constant.SqlConstant;
 import com.obatis.core.exception.HandleException;
 import com.obatis.validate.ValidateTool;
 
@@ -20,9 +18,15 @@ public class BeanCacheConvert {
 	private BeanCacheConvert() {
 	}
 	
+	/**
+	 * 初始化实体元数据，初始化后通过 getEntityMeta 获取
+	 * 同一实体重复初始化(例如预热与首次使用并发执行)时不做处理，不同实体使用同一表名时抛出异常
+	 * @param cls
+	 */
 	public static final void initEntityCache(Class<?> cls) {
-		Map<String, String> columnMap = new HashMap<>();
-		Map<String, String> fieldMap = new HashMap<>();
+		List<String> fieldNames = new ArrayList<>();
+		List<String> columnNames = new ArrayList<>();
+		List<Field> fields = new ArrayList<>();
 		
 		Table table = cls.getAnnotation(Table.class);
 		String canonicalName = cls.getCanonicalName();
@@ -34,14 +38,73 @@ public class BeanCacheConvert {
 			throw new HandleException("error: " + canonicalName + " tableName is empty");
 		}
 		
-		if(CacheInfoConstant.FIELD_CACHE.containsKey(name)) {
-			throw new HandleException("error: " + canonicalName + " tableName(" + name + ") is exist");
+		EntityMeta existMeta = CacheInfoConstant.ENTITY_CACHE.get(name);
+		if(existMeta != null) {
+			checkExistEntity(canonicalName, existMeta, cls);
+			return;
+		}
+		addColumnCache(cls, fieldNames, columnNames, fields);
+		if (fields.isEmpty()) {
+			throw new HandleException("error: " + canonicalName + " column is empty");
+		}
+
+		EntityMeta entityMeta = new EntityMeta(cls, name, fieldNames.toArray(new String[fieldNames.size()]),
+				columnNames.toArray(new String[columnNames.size()]), fields.toArray(new Field[fields.size()]));
+		putEntityCache(canonicalName, entityMeta);
+	}
+
+	/**
+	 * 元数据在放入缓存前构建完成，放入时通过 putIfAbsent 保证同一表名只注册一次，无需加锁
+	 * 并发初始化同一实体时，以先放入的元数据为准
+	 * @param canonicalName
+	 * @param entityMeta
+	 */
+	private static void putEntityCache(String canonicalName, EntityMeta entityMeta) {
+		String name = entityMeta.getTableName();
+		EntityMeta existMeta = CacheInfoConstant.ENTITY_CACHE.putIfAbsent(name, entityMeta);
+		if(existMeta != null) {
+			checkExistEntity(canonicalName, existMeta, entityMeta.getEntityCls());
+			return;
 		}
 		CacheInfoConstant.TABLE_CACHE.put(canonicalName, name);
-		addColumnCache(cls, name, columnMap, fieldMap, 0);
 	}
 
-	private static final void addColumnCache(Class<?> cls, String tableName, Map<String, String> columnMap, Map<String, String> fieldMap, int index) {
+	private static void checkExistEntity(String canonicalName, EntityMeta existMeta, Class<?> cls) {
+		if(existMeta.getEntityCls() != cls) {
+			throw new HandleException("error: " + canonicalName + " tableName(" + existMeta.getTableName() + ") is exist");
+		}
+		// 先放入的线程可能还未写入 TABLE_CACHE，这里同样写入，保证返回后可通过 getEntityMeta 获取
+		CacheInfoConstant.TABLE_CACHE.put(canonicalName, existMeta.getTableName());
+	}
+
+	/**
+	 * 根据实体 class 获取实体元数据，未初始化时返回 null
+	 * @param cls
+	 * @return
+	 */
+	public static EntityMeta getEntityMeta(Class<?> cls) {
+		String tableName = CacheInfoConstant.TABLE_CACHE.get(cls.getCanonicalName());
+		if (tableName == null) {
+			return null;
+		}
+		return CacheInfoConstant.ENTITY_CACHE.get(tableName);
+	}
+
+	/**
+	 * 根据表名获取实体元数据，主要用于 left join 的连接表
+	 * @param tableName
+	 * @return
+	 * @throws HandleException
+	 */
+	public static EntityMeta getEntityMeta(String tableName) throws HandleException {
+		EntityMeta entityMeta = CacheInfoConstant.ENTITY_CACHE.get(tableName);
+		if (entityMeta == null) {
+			throw new HandleException("error: tableName(" + tableName + ") is not init");
+		}
+		return entityMeta;
+	}
+
+	private static final void addColumnCache(Class<?> cls, List<String> fieldNames, List<String> columnNames, List<Field> fieldList) {
 		Field[] fields = cls.getDeclaredFields();
 
 		for (Field field : fields) {
@@ -54,58 +117,45 @@ public class BeanCacheConvert {
 				continue;
 			}
 			String fieldName = field.getName();
+			String columnName = fieldName;
 			Column column = field.getAnnotation(Column.class);
 			if (column != null) {
-				String name = column.name();
-				if (ValidateTool.isEmpty(name)) {
+				columnName = column.name();
+				if (ValidateTool.isEmpty(columnName)) {
 					throw new HandleException("error: column annotaton name is null");
 				}
-				columnMap.put(fieldName, name);
-				/**
-				 * 将有注解的属性，统一放进缓存方便取值
-				 */
-				if (!name.equals(fieldName)) {
-					fieldMap.put(name, fieldName);
-				}
-			} else {
-				columnMap.put(fieldName, fieldName);
 			}
+			field.setAccessible(true);
+			int index = fieldNames.indexOf(fieldName);
+			if (index >= 0) {
+				// 子类中已存在同名属性，以父类的属性和字段为准，位置保持子类声明的顺序
+				columnNames.set(index, columnName);
+				fieldList.set(index, field);
+				continue;
+			}
+			columnNames.add(columnName);
+			fieldNames.add(fieldName);
+			fieldList.add(field);
 		}
 
 		Class<?> supCls = cls.getSuperclass();
 		if (supCls != null) {
-			addColumnCache(supCls, tableName, columnMap, fieldMap, index + 1);
-		}
-
-		if (index == SqlConstant.DEFAULT_INIT) {
-			int len = columnMap.size();
-			if (len > 0) {
-				CacheInfoConstant.FIELD_CACHE.put(tableName, fieldMap);
-				CacheInfoConstant.COLUMN_CACHE.put(tableName, columnMap);
-			}
+			addColumnCache(supCls, fieldNames, columnNames, fieldList);
 		}
 	}
 
 	public static List<String[]> getResultFields(Class<?> cls) {
-		String clsName = cls.getCanonicalName();
-		if(CacheInfoConstant.RESULT_CACHE.containsKey(clsName)) {
-			return CacheInfoConstant.RESULT_CACHE.get(clsName);
-		} else {
-			return getResultFields(cls, clsName);
+		List<String[]> resultList = CacheInfoConstant.RESULT_CACHE.get(cls.getCanonicalName());
+		if (resultList != null) {
+			return resultList;
 		}
+		return CacheInfoConstant.RESULT_CACHE.computeIfAbsent(cls.getCanonicalName(), clsName -> {
+			List<String[]> list = new ArrayList<>();
+			getResultFields(cls, list);
+			return Collections.unmodifiableList(list);
+		});
     }
 	
-	private static synchronized List<String[]> getResultFields(Class<?> cls, String clsName) {
-		if(CacheInfoConstant.RESULT_CACHE.containsKey(clsName)) {
-			return CacheInfoConstant.RESULT_CACHE.get(clsName);
-		}
-		
-		List<String[]> resultList = new ArrayList<>();
-		getResultFields(cls, resultList);
-		CacheInfoConstant.RESULT_CACHE.put(clsName, resultList);
-		return resultList;
-	}
-	
 	private static void getResultFields(Class<?> cls, List<String[]> resultList) {
 		Field[] fields = cls.getDeclaredFields();
 		for (Field field : fields) {
@@ -0,0 +1,165 @@
+package com.obatis.core.convert;
+
+import com.obatis.core.CommonField;
+import com.obatis.core.sql.TableNameConvert;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 实体元数据，由 BeanCacheConvert.initEntityCache 构建，构建完成后不可修改
+ * 按属性声明顺序(子类在前，父类在后)存放字段信息，sql 构建时直接使用，无需再查询缓存或反射扫描
+ * @author HuangLongPu
+ */
+public final class EntityMeta {
+
+	/**
+	 * 未找到对应位置时的下标值
+	 */
+	public static final int NOT_FOUND = -1;
+
+	private final Class<?> entityCls;
+	private final String tableName;
+	private final String tableAliasName;
+	/**
+	 * 实体属性名，与 columnNames、fields 下标一一对应
+	 */
+	private final String[] fieldNames;
+	/**
+	 * 数据库字段名
+	 */
+	private final String[] columnNames;
+	/**
+	 * 已设置访问权限的属性
+	 */
+	private final Field[] fields;
+	/**
+	 * 属性访问器，插入等操作通过访问器取值和赋值，避免反射调用
+	 */
+	private final FieldAccessor[] accessors;
+	private final int idIndex;
+	private final int createTimeIndex;
+	/**
+	 * 属性名 -> 字段名
+	 */
+	private final Map<String, String> columnMap;
+	/**
+	 * 字段名 -> 属性名，只存放通过 @Column 注解且与属性名不一致的字段
+	 */
+	private final Map<String, String> fieldMap;
+	/**
+	 * 预先拼装的查询全部字段语句，例如：t.id,t.create_time as createTime
+	 */
+	private final String selectColumns;
+
+	EntityMeta(Class<?> entityCls, String tableName, String[] fieldNames, String[] columnNames, Field[] fields) {
+		this.entityCls = entityCls;
+		this.tableName = tableName;
+		this.tableAliasName = TableNameConvert.getTableAsName(tableName);
+		this.fieldNames = fieldNames;
+		this.columnNames = columnNames;
+		this.fields = fields;
+		this.accessors = new FieldAccessor[fields.length];
+
+		Map<String, String> columnMap = new HashMap<>();
+		Map<String, String> fieldMap = new HashMap<>();
+		StringBuilder selectColumns = new StringBuilder();
+		int idIndex = NOT_FOUND;
+		int createTimeIndex = NOT_FOUND;
+		for (int i = 0; i < fieldNames.length; i++) {
+			String fieldName = fieldNames[i];
+			String columnName = columnNames[i];
+			this.accessors[i] = FieldAccessorFactory.getAccessor(fields[i]);
+			columnMap.put(fieldName, columnName);
+			if (!columnName.equals(fieldName)) {
+				fieldMap.put(columnName, fieldName);
+			}
+
+			if (CommonField.FIELD_ID.equals(columnName)) {
+				idIndex = i;
+			} else if (CommonField.FIELD_CREATE_TIME.equals(columnName)) {
+				createTimeIndex = i;
+			}
+
+			if (i > 0) {
+				selectColumns.append(",");
+			}
+			selectColumns.append(this.tableAliasName).append(".").append(columnName);
+			if (!columnName.equals(fieldName)) {
+				selectColumns.append(" as ").append(fieldName);
+			}
+		}
+
+		this.idIndex = idIndex;
+		this.createTimeIndex = createTimeIndex;
+		this.columnMap = Collections.unmodifiableMap(columnMap);
+		this.fieldMap = Collections.unmodifiableMap(fieldMap);
+		this.selectColumns = selectColumns.toString();
+	}
+
+	public Class<?> getEntityCls() {
+		return entityCls;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public String getTableAliasName() {
+		return tableAliasName;
+	}
+
+	/**
+	 * 字段数量
+	 * @return
+	 */
+	public int size() {
+		return fieldNames.length;
+	}
+
+	public String getFieldName(int index) {
+		return fieldNames[index];
+	}
+
+	public String getColumnName(int index) {
+		return columnNames[index];
+	}
+
+	public Field getField(int index) {
+		return fields[index];
+	}
+
+	public FieldAccessor getAccessor(int index) {
+		return accessors[index];
+	}
+
+	/**
+	 * 主键 id 所在下标，不存在时返回 NOT_FOUND
+	 * @return
+	 */
+	public int getIdIndex() {
+		return idIndex;
+	}
+
+	/**
+	 * 创建时间 create_time 所在下标，不存在时返回 NOT_FOUND
+	 * @return
+	 */
+	public int getCreateTimeIndex() {
+		return createTimeIndex;
+	}
+
+	public Map<String, String> getColumnMap() {
+		return columnMap;
+	}
+
+	public Map<String, String> getFieldMap() {
+		return fieldMap;
+	}
+
+	public String getSelectColumns() {
+		return selectColumns;
+	}
+}
@@ -0,0 +1,22 @@
+package com.obatis.core.convert;
+
+/**
+ * 属性访问器，用于替代 Field.get/Field.set 的反射调用，由 FieldAccessorFactory 创建
+ * @author HuangLongPu
+ */
+public interface FieldAccessor {
+
+	/**
+	 * 获取对象属性值
+	 * @param bean
+	 * @return
+	 */
+	Object get(Object bean);
+
+	/**
+	 * 设置对象属性值
+	 * @param bean
+	 * @param value
+	 */
+	void set(Object bean, Object value);
+}
@@ -0,0 +1,131 @@
+package com.obatis.core.convert;
+
+import com.obatis.core.exception.HandleException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 属性访问器工厂
+ * 访问器通过 MethodHandle 直接读写属性，与 Field.get/Field.set 的行为一致，不调用实体的 get/set 方法。
+ * 访问器通过 ClassValue 按属性声明的 class 缓存，不持有 class 的强引用，实体 class 可随类加载器卸载。
+ * @author HuangLongPu
+ */
+public class FieldAccessorFactory {
+
+	private static final ClassValue<Map<String, FieldAccessor>> ACCESSOR_CACHE = new ClassValue<Map<String, FieldAccessor>>() {
+		@Override
+		protected Map<String, FieldAccessor> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private FieldAccessorFactory() {
+	}
+
+	/**
+	 * 获取属性的访问器，优先从缓存中获取
+	 * @param field
+	 * @return
+	 * @throws HandleException
+	 */
+	public static FieldAccessor getAccessor(Field field) throws HandleException {
+		Map<String, FieldAccessor> accessorMap = ACCESSOR_CACHE.get(field.getDeclaringClass());
+		FieldAccessor accessor = accessorMap.get(field.getName());
+		if (accessor != null) {
+			return accessor;
+		}
+		// 在 computeIfAbsent 外创建，并发时可能重复创建，只保留先放入的访问器
+		accessor = createAccessor(field);
+		FieldAccessor exist = accessorMap.putIfAbsent(field.getName(), accessor);
+		return exist != null ? exist : accessor;
+	}
+
+	/**
+	 * 根据 class 和属性名获取访问器，会向父类查找属性
+	 * @param cls
+	 * @param fieldName
+	 * @return
+	 * @throws HandleException
+	 */
+	public static FieldAccessor getAccessor(Class<?> cls, String fieldName) throws HandleException {
+		Class<?> current = cls;
+		while (current != null) {
+			try {
+				return getAccessor(current.getDeclaredField(fieldName));
+			} catch (NoSuchFieldException e) {
+				current = current.getSuperclass();
+			}
+		}
+		throw new HandleException("error: " + cls.getCanonicalName() + " field(" + fieldName + ") is not exist");
+	}
+
+	private static FieldAccessor createAccessor(Field field) {
+		MethodHandle getHandle;
+		MethodHandle setHandle;
+		try {
+			field.setAccessible(true);
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			getHandle = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+			setHandle = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+		} catch (IllegalAccessException | RuntimeException e) {
+			throw newHandleException("error: " + field.getName() + " accessor create fail", e);
+		}
+		return new HandleFieldAccessor(field.getName(), field.getType().isPrimitive(), getHandle, setHandle);
+	}
+
+	private static HandleException newHandleException(String message, Throwable cause) {
+		HandleException exception = new HandleException(message);
+		exception.initCause(cause);
+		return exception;
+	}
+
+	/**
+	 * 通过 MethodHandle 访问属性的访问器
+	 */
+	private static final class HandleFieldAccessor implements FieldAccessor {
+
+		private final String fieldName;
+		private final boolean primitive;
+		private final MethodHandle getter;
+		private final MethodHandle setter;
+
+		private HandleFieldAccessor(String fieldName, boolean primitive, MethodHandle getter, MethodHandle setter) {
+			this.fieldName = fieldName;
+			this.primitive = primitive;
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public Object get(Object bean) {
+			try {
+				return (Object) getter.invokeExact(bean);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw newHandleException("error: get field(" + fieldName + ") value fail", e);
+			}
+		}
+
+		@Override
+		public void set(Object bean, Object value) {
+			if (value == null && primitive) {
+				throw new HandleException("error: field(" + fieldName + ") is primitive, value can not be null");
+			}
+			try {
+				setter.invokeExact(bean, value);
+			} catch (ClassCastException e) {
+				throw newHandleException("error: set field(" + fieldName + ") value type is invalid", e);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw newHandleException("error: set field(" + fieldName + ") value fail", e);
+			}
+		}
+	}
+}
@@ -1,8 +1,11 @@
 package com.obatis.core.mapper;
 
 import com.obatis.core.CommonModel;
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.sql.SqlProvider;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.math.BigInteger;
 import java.util.List;
@@ -14,34 +17,43 @@ import java.util.Map;
 public interface BaseBeanSessionMapper<T extends CommonModel> {
 	
 	@InsertProvider(type = SqlProvider.class, method = "insert")
-	int insert(@Param("request") T t, String tableName, Class<T> cls);
+	int insert(@Param("request") T t, EntityMeta entityMeta);
+	
+	@InsertProvider(type = SqlProvider.class, method = "insertAll")
+	int insertAll(@Param("request") T t, EntityMeta entityMeta);
 	
 	@InsertProvider(type = SqlProvider.class, method = "batchInsert")
-	int insertBatch(@Param("request") List<T> list, String tableName, Class<T> cls);
+	int insertBatch(@Param("request") List<T> list, EntityMeta entityMeta);
+	
+	@InsertProvider(type = SqlProvider.class, method = "batchUpsert")
+	int upsertBatch(@Param("request") List<T> list, @Param("updateFields") String[] updateFields, EntityMeta entityMeta);
 	
 	@UpdateProvider(type = SqlProvider.class, method = "update")
-	int update(@Param("request") Map<String, Object> params, String tableName);
+	int update(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
 	
 	@UpdateProvider(type = SqlProvider.class, method = "batchUpdate")
-	int updateBatch(@Param("request") Map<String, Object> params, String tableName);
+	int updateBatch(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
+	
+	@UpdateProvider(type = SqlProvider.class, method = "updateCase")
+	int updateCase(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
 	
 	@DeleteProvider(type = SqlProvider.class, method = "deleteById")
-	int deleteById(@Param("id") BigInteger id, String tableName);
+	int deleteById(@Param("id") BigInteger id, EntityMeta entityMeta);
 	
 	@DeleteProvider(type = SqlProvider.class, method = "delete")
-	int delete(@Param("request") Map<String, Object> param, String tableName);
+	int delete(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	T find(@Param("request") Map<String, Object> param, String tableName);
+	T find(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "validate")
-	int validate(@Param("request") Map<String, Object> param, String tableName);
+	int validate(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	Map<String, Object> findToMap(@Param("request") Map<String, Object> params, String tableName);
+	Map<String, Object> findToMap(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	Object findObject(@Param("request") Map<String, Object> param, String tableName);
+	Object findObject(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "replaceSql")
 	Object findObjectBySql(String sql, @Param("request") List<Object> list);
@@ -53,10 +65,10 @@ public interface BaseBeanSessionMapper<T extends CommonModel> {
 	Map<String, Object> findMapBySql(String sql, @Param("request") List<Object> list);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	List<T> list(@Param("request") Map<String, Object> params, String tableName);
+	List<T> list(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	List<Map<String, Object>> query(@Param("request") Map<String, Object> params, String tableName);
+	List<Map<String, Object>> query(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "replaceSql")
 	List<T> listBySql(String sql, @Param("request") List<Object> list);
@@ -72,4 +84,19 @@ public interface BaseBeanSessionMapper<T extends CommonModel> {
 	
 	@SelectProvider(type = SqlProvider.class, method = "pageSql")
 	List<T> page(String sql, @Param("request") Map<String, Object> params);
+	
+	@SelectProvider(type = SqlProvider.class, method = "pageSql")
+	List<Map<String, Object>> pageMap(String sql, @Param("request") Map<String, Object> params);
+	
+	/**
+	 * cursor、cursorMap 为流式查询，读取完成前连接被结果集占用，同一连接(例如同一事务)上的其他查询会抛出
+	 * streaming result set is still active 异常
+	 */
+	@SelectProvider(type = SqlProvider.class, method = "find")
+	@Options(fetchSize = SqlConstant.STREAM_FETCH_SIZE)
+	Cursor<T> cursor(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
+	
+	@SelectProvider(type = SqlProvider.class, method = "find")
+	@Options(fetchSize = SqlConstant.STREAM_FETCH_SIZE)
+	Cursor<Map<String, Object>> cursorMap(@Param("request") Map<String, Object> params, EntityMeta entityMeta);
 }
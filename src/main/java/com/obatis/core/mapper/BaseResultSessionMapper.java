@@ -1,8 +1,12 @@
 package com.obatis.core.mapper;
 
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.sql.SqlProvider;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 import java.util.Map;
@@ -10,10 +14,10 @@ import java.util.Map;
 public interface BaseResultSessionMapper<R> {
 
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	R findR(@Param("request") Map<String, Object> param, String tableName);
+	R findR(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "find")
-	List<R> listR(@Param("request") Map<String, Object> param, String tableName);
+	List<R> listR(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 	
 	@SelectProvider(type = SqlProvider.class, method = "replaceSql")
 	R findBySqlR(String sql, @Param("request") List<Object> list);
@@ -26,4 +30,8 @@ public interface BaseResultSessionMapper<R> {
 	
 	@SelectProvider(type = SqlProvider.class, method = "pageSql")
 	List<R> pageR(String sql, @Param("request") Map<String, Object> params);
+	
+	@SelectProvider(type = SqlProvider.class, method = "find")
+	@Options(fetchSize = SqlConstant.STREAM_FETCH_SIZE)
+	Cursor<R> cursorR(@Param("request") Map<String, Object> param, EntityMeta entityMeta);
 }
@@ -3,45 +3,51 @@ package com.obatis.core.mapper.factory;
 import com.obatis.core.exception.HandleException;
 import com.obatis.core.mapper.BaseBeanSessionMapper;
 import com.obatis.core.constant.CacheInfoConstant;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 public class BeanSessionMapperFactory {
 	
+	private static final SessionMapperRegistry<BaseBeanSessionMapper<?>> REGISTRY = new SessionMapperRegistry<>(CacheInfoConstant.BEAN_SESSION_MAPPER);
+	
 	private BeanSessionMapperFactory() {}
 
-	public static BaseBeanSessionMapper<?> getSessionMapper(SqlSession sqlSession, String canonicalName) {
-		
-		if(CacheInfoConstant.BEAN_SESSION_MAPPER.containsKey(canonicalName)) {
-			return CacheInfoConstant.BEAN_SESSION_MAPPER.get(canonicalName);
-		}
+	public static BaseBeanSessionMapper<?> getSessionMapper(SqlSession sqlSession, Class<?> cls) {
 		
-		return compileMapper(sqlSession, canonicalName);
+		String canonicalName = cls.getCanonicalName();
+		// 按 key 编译注册，编译不占用 map 的锁，不同实体之间互不阻塞，同一实体只编译一次
+		return REGISTRY.get(canonicalName, () -> compileMapper(sqlSession, cls, canonicalName));
 	}
 	
-	private static synchronized BaseBeanSessionMapper<?> compileMapper(SqlSession sqlSession, String canonicalName) {
-		
-		if(CacheInfoConstant.BEAN_SESSION_MAPPER.containsKey(canonicalName)) {
-			return CacheInfoConstant.BEAN_SESSION_MAPPER.get(canonicalName);
-		}
+	private static BaseBeanSessionMapper<?> compileMapper(SqlSession sqlSession, Class<?> cls, String canonicalName) {
 		
-		Class<?> mapperCls = null;
-		try {
-			mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseBeanSessionMapper.class);
-		} catch (Exception e) {
-			e.printStackTrace();
-			throw new HandleException("error: compilerMapper is fail");
+		// 优先使用编译期生成的 mapper，不存在时进行运行时编译
+		Class<?> mapperCls = SessionMapperCompilerTemplet.loadMapper(cls, BaseBeanSessionMapper.class);
+		if(mapperCls == null) {
+			try {
+				mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseBeanSessionMapper.class);
+			} catch (Exception e) {
+				e.printStackTrace();
+				throw new HandleException("error: compilerMapper is fail");
+			}
 		}
 		
 		if(mapperCls == null) {
 			throw new HandleException("error: compilerMapper is fail");
 		}
 
-		sqlSession.getConfiguration().addMapper(mapperCls);
-		BaseBeanSessionMapper<?> mapper = (BaseBeanSessionMapper<?>) sqlSession.getConfiguration().getMapper(mapperCls, sqlSession);
+		BaseBeanSessionMapper<?> mapper;
+		Configuration configuration = sqlSession.getConfiguration();
+		// mybatis 的 mapper 注册表非线程安全，注册操作在 configuration 上串行执行
+		synchronized (configuration) {
+			if(!configuration.hasMapper(mapperCls)) {
+				configuration.addMapper(mapperCls);
+			}
+			mapper = (BaseBeanSessionMapper<?>) configuration.getMapper(mapperCls, sqlSession);
+		}
 		if(mapper == null) {
 			throw new HandleException("error: compilerMapper is fail");
 		}
-		CacheInfoConstant.BEAN_SESSION_MAPPER.put(canonicalName, mapper);
 		return mapper; 
 	}
 }
@@ -3,45 +3,51 @@ package com.obatis.core.mapper.factory;
 import com.obatis.core.exception.HandleException;
 import com.obatis.core.mapper.BaseResultSessionMapper;
 import com.obatis.core.constant.CacheInfoConstant;
+import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSession;
 
 public class ResultSessionMapperFactory {
 	
+	private static final SessionMapperRegistry<BaseResultSessionMapper<?>> REGISTRY = new SessionMapperRegistry<>(CacheInfoConstant.RESULT_SESSION_MAPPER);
+	
 	private ResultSessionMapperFactory() {}
 
-	public static BaseResultSessionMapper<?> getSessionMapper(SqlSession sqlSession, String canonicalName) {
-		
-		if(CacheInfoConstant.RESULT_SESSION_MAPPER.containsKey(canonicalName)) {
-			return CacheInfoConstant.RESULT_SESSION_MAPPER.get(canonicalName);
-		}
+	public static BaseResultSessionMapper<?> getSessionMapper(SqlSession sqlSession, Class<?> cls) {
 		
-		return compileMapper(sqlSession, canonicalName);
+		String canonicalName = cls.getCanonicalName();
+		// 按 key 编译注册，编译不占用 map 的锁，不同实体之间互不阻塞，同一实体只编译一次
+		return REGISTRY.get(canonicalName, () -> compileMapper(sqlSession, cls, canonicalName));
 	}
 	
-	private static synchronized BaseResultSessionMapper<?> compileMapper(SqlSession sqlSession, String canonicalName) {
+	private static BaseResultSessionMapper<?> compileMapper(SqlSession sqlSession, Class<?> cls, String canonicalName) {
 		
-		if(CacheInfoConstant.RESULT_SESSION_MAPPER.containsKey(canonicalName)) {
-			return CacheInfoConstant.RESULT_SESSION_MAPPER.get(canonicalName);
-		}
-
-		Class<?> mapperCls = null;
-		try {
-			mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseResultSessionMapper.class);
-		} catch (Exception e) {
-			e.printStackTrace();
-			throw new HandleException("error: compilerMapper is fail");
+		// 优先使用编译期生成的 mapper，不存在时进行运行时编译
+		Class<?> mapperCls = SessionMapperCompilerTemplet.loadMapper(cls, BaseResultSessionMapper.class);
+		if(mapperCls == null) {
+			try {
+				mapperCls = SessionMapperCompilerTemplet.compilerMapper(canonicalName, BaseResultSessionMapper.class);
+			} catch (Exception e) {
+				e.printStackTrace();
+				throw new HandleException("error: compilerMapper is fail");
+			}
 		}
 		
 		if(mapperCls == null) {
 			throw new HandleException("error: compilerMapper is fail");
 		}
-		
-		sqlSession.getConfiguration().addMapper(mapperCls);
-		BaseResultSessionMapper<?> resultMapper = (BaseResultSessionMapper<?>) sqlSession.getConfiguration().getMapper(mapperCls, sqlSession);
+
+		BaseResultSessionMapper<?> resultMapper;
+		Configuration configuration = sqlSession.getConfiguration();
+		// mybatis 的 mapper 注册表非线程安全，注册操作在 configuration 上串行执行
+		synchronized (configuration) {
+			if(!configuration.hasMapper(mapperCls)) {
+				configuration.addMapper(mapperCls);
+			}
+			resultMapper = (BaseResultSessionMapper<?>) configuration.getMapper(mapperCls, sqlSession);
+		}
 		if(resultMapper == null) {
 			throw new HandleException("error: compilerMapper is fail");
 		}
-		CacheInfoConstant.RESULT_SESSION_MAPPER.put(canonicalName, resultMapper);
 		return resultMapper; 
 	}
 }
@@ -2,6 +2,8 @@ package com.obatis.core.mapper.factory;
 
 import com.obatis.core.compile.JavaCompilerFactory;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.net.URISyntaxException;
 
 /**
@@ -10,8 +12,74 @@ import java.net.URISyntaxException;
  */
 public class SessionMapperCompilerTemplet {
 
+    /**
+     * 编译期生成(obatis-core-processor)的 sessionMappper 接口类名后缀，与 SessionMapperProcessor 保持一致
+     */
+    public static final String GENERATED_MAPPER_SUFFIX = "_SessionMapper";
+
     private SessionMapperCompilerTemplet() {}
 
+    /**
+     * 获取运行时编译的 sessionMappper 接口类的全类名
+     * 例如 com.demo.entity.UserEntity 对应 com.demo.mapper.UserMapper，与原类名相同时追加 Mapper 后缀
+     * @author HuangLongPu
+     * @param canonicalName
+     * @return
+     */
+    public static String getMapperName(String canonicalName) {
+        int index = canonicalName.lastIndexOf(".");
+        String packageName = canonicalName.substring(0, index).replace(".entity", ".mapper");
+        String javaName = canonicalName.substring(index + 1).replace("Entity", "Mapper");
+        String mapperName = packageName + "." + javaName;
+        if (mapperName.equals(canonicalName)) {
+            mapperName += "Mapper";
+        }
+        return mapperName;
+    }
+
+    /**
+     * 获取编译期生成的 sessionMappper 接口类的全类名，与实体在同一包下，类名追加 GENERATED_MAPPER_SUFFIX
+     * 例如 com.demo.entity.UserEntity 对应 com.demo.entity.UserEntity_SessionMapper，不与项目自定义的 mapper 重名
+     * @author HuangLongPu
+     * @param canonicalName
+     * @return
+     */
+    public static String getGeneratedMapperName(String canonicalName) {
+        return canonicalName + GENERATED_MAPPER_SUFFIX;
+    }
+
+    /**
+     * 获取编译期已生成的 sessionMappper 接口类，不存在，或者不是直接继承 mapperCls 且泛型参数为 cls 的接口时返回 null
+     * @author HuangLongPu
+     * @param cls
+     * @param mapperCls
+     * @return
+     */
+    public static Class<?> loadMapper(Class<?> cls, Class<?> mapperCls) {
+        try {
+            Class<?> generateCls = Class.forName(getGeneratedMapperName(cls.getCanonicalName()), false, cls.getClassLoader());
+            if (generateCls.isInterface() && isMapperOf(generateCls, cls, mapperCls)) {
+                return generateCls;
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // 未生成时，返回 null 由调用方进行运行时编译
+        }
+        return null;
+    }
+
+    private static boolean isMapperOf(Class<?> generateCls, Class<?> cls, Class<?> mapperCls) {
+        for (Type type : generateCls.getGenericInterfaces()) {
+            if (type instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = (ParameterizedType) type;
+                Type[] arguments = parameterizedType.getActualTypeArguments();
+                if (parameterizedType.getRawType() == mapperCls && arguments.length == 1 && arguments[0] == cls) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * 构建 sessionMappper 接口类
      * @author HuangLongPu
@@ -22,12 +90,11 @@ public class SessionMapperCompilerTemplet {
      * @throws ClassNotFoundException
      */
     public static Class<?> compilerMapper(String canonicalName, Class<?> mapperCls) throws URISyntaxException, ClassNotFoundException {
-        String packageName = canonicalName.substring(0, canonicalName.lastIndexOf(".")).replace(".entity", ".mapper");
-        String entityName = canonicalName.substring(canonicalName.lastIndexOf(".") + 1);
-        String javaName = entityName.replace("Entity", "Mapper");
+        String mapperName = getMapperName(canonicalName);
+        String packageName = mapperName.substring(0, mapperName.lastIndexOf("."));
+        String javaName = mapperName.substring(mapperName.lastIndexOf(".") + 1);
         String javaSource = "package " + packageName + ";"
-                + "import " + canonicalName + ";"
-                + "public interface " + javaName + " extends " + mapperCls.getCanonicalName() + "<" + entityName + "> "
+                + "public interface " + javaName + " extends " + mapperCls.getCanonicalName() + "<" + canonicalName + "> "
                 + "{}";
 
         return JavaCompilerFactory.compiler(packageName, javaName, javaSource);
@@ -0,0 +1,89 @@
+package com.obatis.core.mapper.factory;
+
+import com.obatis.core.exception.HandleException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * sessionMapper 注册表，已注册的 mapper 无锁读取
+ * 首次获取时按 key 放入 FutureTask 占位，编译在 ConcurrentHashMap 的映射函数之外执行，
+ * 同一 key 的其他线程等待该 FutureTask，不同 key 之间互不阻塞
+ * @author HuangLongPu
+ * @param <M>
+ */
+final class SessionMapperRegistry<M> {
+
+	private final Map<String, M> mappers;
+	private final Map<String, FutureTask<M>> compiling = new ConcurrentHashMap<>();
+
+	SessionMapperRegistry(Map<String, M> mappers) {
+		this.mappers = mappers;
+	}
+
+	/**
+	 * 获取 mapper，不存在时通过 compiler 编译注册，同一 key 只编译一次，编译失败时下次获取重新编译
+	 * @param name
+	 * @param compiler
+	 * @return
+	 */
+	M get(String name, Supplier<M> compiler) {
+		M mapper = mappers.get(name);
+		if (mapper != null) {
+			return mapper;
+		}
+
+		FutureTask<M> task = new FutureTask<>(compiler::get);
+		FutureTask<M> running = compiling.putIfAbsent(name, task);
+		if (running == null) {
+			// 放入占位前可能已有线程完成注册并移除了占位
+			mapper = mappers.get(name);
+			if (mapper != null) {
+				compiling.remove(name, task);
+				return mapper;
+			}
+			running = task;
+			try {
+				task.run();
+				mapper = getResult(task);
+				mappers.put(name, mapper);
+				return mapper;
+			} finally {
+				compiling.remove(name, task);
+			}
+		}
+		return getResult(running);
+	}
+
+	private static <M> M getResult(FutureTask<M> task) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return task.get();
+				} catch (InterruptedException e) {
+					// 等待编译完成后再恢复中断状态，避免同一实体重复编译
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			HandleException exception = new HandleException("error: compilerMapper is fail");
+			exception.initCause(cause);
+			throw exception;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
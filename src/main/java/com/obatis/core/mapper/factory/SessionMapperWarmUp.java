@@ -0,0 +1,170 @@
+package com.obatis.core.mapper.factory;
+
+import com.obatis.core.annotation.Table;
+import com.obatis.core.convert.BeanCacheConvert;
+import com.obatis.core.exception.HandleException;
+import com.obatis.core.result.ResultInfoOutput;
+import org.apache.ibatis.session.SqlSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 启动预热，在容器所有单例初始化完成后(应用就绪前)扫描指定包下的 @Table 实体和 ResultInfoOutput 子类，
+ * 并行初始化实体缓存并编译注册对应的 sessionMapper，避免首次请求时编译带来的延迟。
+ * 使用时注册为 spring bean 即可，例如：new SessionMapperWarmUp(sqlSession, "com.obatis.demo")
+ * @author HuangLongPu
+ */
+public class SessionMapperWarmUp implements SmartInitializingSingleton {
+
+	private static final Logger log = LoggerFactory.getLogger(SessionMapperWarmUp.class);
+
+	private final SqlSession sqlSession;
+	private final String[] basePackages;
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	public SessionMapperWarmUp(SqlSession sqlSession, String... basePackages) {
+		if (sqlSession == null) {
+			throw new HandleException("error: warm up sqlSession is null");
+		}
+		if (basePackages == null || basePackages.length == 0) {
+			throw new HandleException("error: warm up basePackages is empty");
+		}
+		this.sqlSession = sqlSession;
+		this.basePackages = basePackages;
+	}
+
+	/**
+	 * 设置预热的并行线程数，默认为 cpu 核数
+	 * @param threads
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new HandleException("error: warm up threads must be greater than 0");
+		}
+		this.threads = threads;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		this.warmUp();
+	}
+
+	/**
+	 * 执行预热，任一实体失败时抛出异常，阻止应用启动
+	 * @throws HandleException
+	 */
+	public void warmUp() throws HandleException {
+		long begin = System.currentTimeMillis();
+		Set<Class<?>> entityClsSet = this.scan(new AnnotationTypeFilter(Table.class));
+		Set<Class<?>> resultClsSet = this.scan(new AssignableTypeFilter(ResultInfoOutput.class));
+
+		List<WarmUpTask> tasks = new ArrayList<>();
+		for (Class<?> entityCls : entityClsSet) {
+			tasks.add(new WarmUpTask(entityCls, true));
+		}
+		for (Class<?> resultCls : resultClsSet) {
+			tasks.add(new WarmUpTask(resultCls, false));
+		}
+		if (tasks.isEmpty()) {
+			log.warn(">>>>> warm up: no entity found in " + String.join(",", basePackages));
+			return;
+		}
+
+		AtomicInteger index = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), r -> {
+			Thread thread = new Thread(r, "obatis-warm-up-" + index.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (WarmUpTask task : tasks) {
+				futures.add(executor.submit(task));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new HandleException("error: warm up is interrupted");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof HandleException) {
+				throw (HandleException) cause;
+			}
+			throw new HandleException("error: warm up fail, " + cause.getMessage());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		log.info(">>>>> warm up " + entityClsSet.size() + " entity and " + resultClsSet.size() + " result class in "
+				+ (System.currentTimeMillis() - begin) + " ms");
+	}
+
+	private Set<Class<?>> scan(TypeFilter filter) {
+		ClassPathScanningCandidateComponentProvider provider = new ClassPathScanningCandidateComponentProvider(false);
+		provider.addIncludeFilter(filter);
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		Set<Class<?>> clsSet = new LinkedHashSet<>();
+		for (String basePackage : basePackages) {
+			for (BeanDefinition definition : provider.findCandidateComponents(basePackage)) {
+				try {
+					clsSet.add(ClassUtils.forName(definition.getBeanClassName(), classLoader));
+				} catch (ClassNotFoundException e) {
+					throw new HandleException("error: warm up load class(" + definition.getBeanClassName() + ") fail");
+				}
+			}
+		}
+		return clsSet;
+	}
+
+	/**
+	 * 单个实体或 ResultInfoOutput 子类的预热任务
+	 */
+	private class WarmUpTask implements Callable<Void> {
+
+		private final Class<?> cls;
+		private final boolean entity;
+
+		private WarmUpTask(Class<?> cls, boolean entity) {
+			this.cls = cls;
+			this.entity = entity;
+		}
+
+		@Override
+		public Void call() {
+			long begin = System.currentTimeMillis();
+			String canonicalName = cls.getCanonicalName();
+			if (entity) {
+				if (BeanCacheConvert.getEntityMeta(cls) == null) {
+					// 与首次使用并发初始化时，initEntityCache 不重复注册
+					BeanCacheConvert.initEntityCache(cls);
+				}
+				BeanSessionMapperFactory.getSessionMapper(sqlSession, cls);
+			} else {
+				BeanCacheConvert.getResultFields(cls);
+				ResultSessionMapperFactory.getSessionMapper(sqlSession, cls);
+			}
+			log.info(">>>>> warm up " + canonicalName + " in " + (System.currentTimeMillis() - begin) + " ms");
+			return null;
+		}
+	}
+}
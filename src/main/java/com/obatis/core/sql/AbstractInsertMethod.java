@@ -1,108 +1,116 @@
 package com.obatis.core.sql;
 
 import com.obatis.convert.date.DateCommonConvert;
-import com.obatis.core.CommonField;
-import com.obatis.core.annotation.NotColumn;
-import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.convert.FieldAccessor;
 import com.obatis.core.exception.HandleException;
 import com.obatis.core.generator.NumberGenerator;
-import com.obatis.core.constant.CacheInfoConstant;
 import com.obatis.validate.ValidateTool;
-import org.apache.ibatis.jdbc.SQL;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractInsertMethod {
 
-	protected String getInsertSql(Object object, Class<?> clsName, String tableName) throws HandleException {
+	private static final Map<EntityMeta, String> INSERT_ALL_SQL_CACHE = new ConcurrentHashMap<>();
 
-        SQL sql = new SQL();
-        sql.INSERT_INTO(tableName);
-        Map<String, String> res = this.getInsertFields(object, clsName, tableName);
-        if (res == null) {
-            throw new HandleException("error：object is null");
-        }
+	protected String getInsertSql(Object object, EntityMeta entityMeta) throws HandleException {
 
-        sql.INTO_COLUMNS(res.get(SqlConstant.BEAN_FIELD));
-        sql.INTO_VALUES(res.get(SqlConstant.BEAN_VALUE));
-        return sql.toString();
-    }
-	
-	private Map<String, String> getInsertFields(Object object, Class<?> clsName, String tableName) throws HandleException {
-		List<String> fields = new ArrayList<>();
-		List<String> values = new ArrayList<>();
-
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		getInsertFieldVaule(clsName, columnMap, object, fields, values);
-
-		if (fields.size() > 0) {
-			Map<String, String> res = new HashMap<>();
-			res.put(SqlConstant.BEAN_FIELD, String.join(",", fields));
-			res.put(SqlConstant.BEAN_VALUE, String.join(",", values));
-			return res;
-		} else {
-			return null;
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.insertInto(entityMeta.getTableName()).append(" (");
+			StringBuilder values = new StringBuilder();
+			if (!this.appendInsertFieldValue(entityMeta, object, sql, values)) {
+				throw new HandleException("error：object is null");
+			}
+			return sql.append(") values (").append(values).append(')').render();
 		}
 	}
-	
-	private void getInsertFieldVaule(Class<?> clsName, Map<String, String> columnMap, Object obj, List<String> fields, List<String> values)
-			throws HandleException {
 
-		Field[] fieldArr = clsName.getDeclaredFields();
-		for (Field field : fieldArr) {
+	private boolean appendInsertFieldValue(EntityMeta entityMeta, Object obj, SqlRenderer fields, StringBuilder values) throws HandleException {
 
-			boolean isStatic = Modifier.isStatic(field.getModifiers());
-			if (isStatic) {
-				continue;
-			}
-			NotColumn ts = field.getAnnotation(NotColumn.class);
-			if (ts != null) {
-				continue;
+		boolean hasField = false;
+		for (int i = 0, j = entityMeta.size(); i < j; i++) {
+			FieldAccessor accessor = entityMeta.getAccessor(i);
+			Object value = accessor.get(obj);
+			boolean addFlag = false;
+			if (ValidateTool.isEmpty(value)) {
+				if (i == entityMeta.getIdIndex()) {
+					accessor.set(obj, NumberGenerator.getNumber());
+					addFlag = true;
+				} else if (i == entityMeta.getCreateTimeIndex()) {
+					accessor.set(obj, DateCommonConvert.getCurDate());
+					addFlag = true;
+				}
+			} else {
+				// 说明值不为空
+				addFlag = true;
 			}
 
-			String fieldName = field.getName();
-			if (!columnMap.containsKey(fieldName)) {
-				continue;
+			if (addFlag) {
+				if (hasField) {
+					fields.append(',');
+					values.append(',');
+				}
+				fields.append(entityMeta.getColumnName(i));
+				values.append("#{request.").append(entityMeta.getFieldName(i)).append('}');
+				hasField = true;
 			}
-			String columnName = columnMap.get(fieldName);
-
-			try {
-				field.setAccessible(true);
-				Object value = field.get(obj);
-				boolean addFlag = false;
-				if (ValidateTool.isEmpty(value)) {
-					if (CommonField.FIELD_ID.equals(columnName)) {
-						field.set(obj, NumberGenerator.getNumber());
-						addFlag = true;
-					} else if (CommonField.FIELD_CREATE_TIME.equals(columnName)) {
-						field.set(obj, DateCommonConvert.getCurDate());
-						addFlag = true;
+		}
+		return hasField;
+	}
+	
+	/**
+	 * 获取包含所有字段的 insert 语句，语句只与表有关，按实体缓存，用于 ExecutorType.BATCH 批量执行时复用同一预编译语句
+	 * 值为空的字段同样添加，数据库字段默认值不生效
+	 * @param object
+	 * @param entityMeta
+	 * @return
+	 * @throws HandleException
+	 */
+	protected String getInsertAllSql(Object object, EntityMeta entityMeta) throws HandleException {
+		if (entityMeta.size() == 0) {
+			throw new HandleException("error：object is empty");
+		}
+		this.setDefaultValue(object, entityMeta);
+		return INSERT_ALL_SQL_CACHE.computeIfAbsent(entityMeta, meta -> {
+			try (SqlRenderer sql = SqlRenderer.get()) {
+				sql.insertInto(meta.getTableName()).append(" (");
+				StringBuilder values = new StringBuilder();
+				for (int i = 0, j = meta.size(); i < j; i++) {
+					if (i > 0) {
+						sql.append(',');
+						values.append(',');
 					}
-				} else {
-					// 说明值不为空
-					addFlag = true;
+					sql.append(meta.getColumnName(i));
+					values.append("#{request.").append(meta.getFieldName(i)).append('}');
 				}
+				return sql.append(") values (").append(values).append(')').render();
+			}
+		});
+	}
 
-				if (addFlag) {
-					fields.add(columnName);
-					values.add("#{request." + fieldName + "}");
-				}
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new HandleException("error: load class fields fail");
+	/**
+	 * id 和创建时间为空时设置默认值
+	 * @param obj
+	 * @param entityMeta
+	 */
+	protected void setDefaultValue(Object obj, EntityMeta entityMeta) {
+		int idIndex = entityMeta.getIdIndex();
+		if (idIndex != EntityMeta.NOT_FOUND) {
+			FieldAccessor accessor = entityMeta.getAccessor(idIndex);
+			if (ValidateTool.isEmpty(accessor.get(obj))) {
+				accessor.set(obj, NumberGenerator.getNumber());
 			}
 		}
-
-		Class<?> supCls = clsName.getSuperclass();
-		if (supCls != null) {
-			getInsertFieldVaule(supCls, columnMap, obj, fields, values);
+		int createTimeIndex = entityMeta.getCreateTimeIndex();
+		if (createTimeIndex != EntityMeta.NOT_FOUND) {
+			FieldAccessor accessor = entityMeta.getAccessor(createTimeIndex);
+			if (ValidateTool.isEmpty(accessor.get(obj))) {
+				accessor.set(obj, DateCommonConvert.getCurDate());
+			}
 		}
 	}
 	
-	protected abstract String handleBatchInsertSql(List<?> list, Class<?> cls, String tableName);
+	protected abstract String handleBatchInsertSql(List<?> list, EntityMeta entityMeta);
 }
@@ -3,11 +3,13 @@ package com.obatis.core.sql;
 import com.obatis.core.CommonField;
 import com.obatis.core.constant.SqlConstant;
 import com.obatis.core.constant.type.FilterEnum;
+import com.obatis.core.constant.type.OrderEnum;
+import com.obatis.core.constant.type.PageHandleEnum;
 import com.obatis.core.constant.type.SqlHandleEnum;
 import com.obatis.core.exception.HandleException;
-import com.obatis.core.constant.CacheInfoConstant;
+import com.obatis.core.convert.BeanCacheConvert;
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.validate.ValidateTool;
-import org.apache.ibatis.jdbc.SQL;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,59 +29,235 @@ public abstract class AbstractSqlHandleMethod {
 	private final static int DEFAULT_FIND = 0;
 	private final static int NOT_FIND = 1;
 
+	private final static String SHAPE_SELECT = "select";
+	private final static String SHAPE_VALIDATE = "validate";
+	private final static String SHAPE_PAGE = "page";
+	private final static String SHAPE_SEEK = "seek";
+	/**
+	 * 游标值的 key 前缀
+	 */
+	private final static String SEEK_FILTER_KEY = "seek_";
+	/**
+	 * 延迟关联分页时主键子查询的别名
+	 */
+	private final static String DEFERRED_JOIN_ALIAS = "deferred_page";
+	/**
+	 * 按 QueryProvider 结构指纹缓存生成的 sql，结构相同时只绑定条件值
+	 */
+	private static final LruCache<QueryShape, String[]> SHAPE_SQL_CACHE = new LruCache<>(SqlConstant.SHAPE_SQL_CACHE_SIZE);
+	/**
+	 * 直接传入 sql 查询时，占位符替换后的 sql，key 为原 sql
+	 */
+	private static final LruCache<String, String> REPLACE_SQL_CACHE = new LruCache<>(SqlConstant.REPLACE_SQL_CACHE_SIZE);
+
+	private final static String FIELD_EXPRESSION_PREFIX = "#{request." + SqlConstant.PROVIDER_FIELD + ".";
+	private final static String FILTER_EXPRESSION_PREFIX = "#{request." + SqlConstant.PROVIDER_FILTER + ".";
+	private final static String SEEK_EXPRESSION_PREFIX = "#{request." + SqlConstant.PROVIDER_SEEK_VALUE + ".";
+	private final static String ID_FILTER = CommonField.FIELD_ID + "=#{" + CommonField.FIELD_ID + "}";
+	private final static String COUNT_COLUMN = "count(1)";
+
+	/**
+	 * 按条件类型预先生成的条件运算符，下标为 FilterEnum 的 ordinal
+	 */
+	private final String[] filterTypeSql;
+
 	protected AbstractSqlHandleMethod() {
+		FilterEnum[] filterTypes = FilterEnum.values();
+		this.filterTypeSql = new String[filterTypes.length];
+		for (FilterEnum filterType : filterTypes) {
+			this.filterTypeSql[filterType.ordinal()] = this.getFilterType(filterType);
+		}
+	}
 
+	/**
+	 * 获取 sql 结构缓存，可用于查看命中与未命中次数
+	 * @return
+	 */
+	public static LruCache<?, String[]> getShapeSqlCache() {
+		return SHAPE_SQL_CACHE;
 	}
 
-	public String getUpdateSql(Map<String, Object> providers, String tableName) throws HandleException {
-		QueryProvider queryProvider = (QueryProvider) providers.get(SqlConstant.PROVIDER_OBJ);
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
+	/**
+	 * 获取占位符替换缓存，可用于查看命中与未命中次数
+	 * @return
+	 */
+	public static LruCache<String, String> getReplaceSqlCache() {
+		return REPLACE_SQL_CACHE;
+	}
 
+	public String getUpdateSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		QueryProvider queryProvider = (QueryProvider) providers.get(SqlConstant.PROVIDER_OBJ);
 		Map<String, Object> fieldValue = new HashMap<>();
 		Map<String, Object> filterValue = new HashMap<>();
 		providers.put(SqlConstant.PROVIDER_FIELD, fieldValue);
 		providers.put(SqlConstant.PROVIDER_FILTER, filterValue);
-		return this.getUpdateSql(queryProvider, tableName, INDEX_DEFAULT, columnMap, fieldMap, fieldValue, filterValue);
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			this.appendUpdateSql(sql, queryProvider, entityMeta, INDEX_DEFAULT, fieldValue, filterValue);
+			return sql.render();
+		}
 	}
 
-	public String getUpdateBatchSql(Map<String, Object> providers, String tableName) throws HandleException {
+	public String getUpdateBatchSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
 		List<QueryProvider> list = (List<QueryProvider>) providers.get(SqlConstant.PROVIDER_OBJ);
-		StringBuffer s = new StringBuffer();
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
 
 		Map<String, Object> fieldValue = new HashMap<>();
 		Map<String, Object> filterValue = new HashMap<>();
 
-		for (int i = 0, j = list.size(); i < j; i++) {
-			QueryProvider queryProvider = list.get(i);
-			s.append(this.getUpdateSql(queryProvider, tableName, i + "", columnMap, fieldMap, fieldValue, filterValue) + ";");
+		String batchSql;
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			for (int i = 0, j = list.size(); i < j; i++) {
+				QueryProvider queryProvider = list.get(i);
+				this.appendUpdateSql(sql, queryProvider, entityMeta, String.valueOf(i), fieldValue, filterValue);
+				sql.append(';');
+			}
+			batchSql = sql.render();
 		}
 
 		providers.put(SqlConstant.PROVIDER_FIELD, fieldValue);
 		providers.put(SqlConstant.PROVIDER_FILTER, filterValue);
-		return getBatchUpdateDbSql(s.toString());
+		return getBatchUpdateDbSql(batchSql);
+	}
+
+	/**
+	 * 多条按 id 更新相同字段的 QueryProvider 合并为一条 update 语句，例如
+	 * update tableName set c = case id when ? then ? when ? then ? else c end where id in (?, ?)
+	 * 调用方需保证每个 QueryProvider 的更新字段及类型相同，条件只有 id 等于，且 id 不重复
+	 * @param providers
+	 * @param entityMeta
+	 * @return
+	 * @throws HandleException
+	 */
+	public String getUpdateCaseSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		List<QueryProvider> list = (List<QueryProvider>) providers.get(SqlConstant.PROVIDER_OBJ);
+		Map<String, Object> fieldValue = new HashMap<>();
+		Map<String, Object> filterValue = new HashMap<>();
+		providers.put(SqlConstant.PROVIDER_FIELD, fieldValue);
+		providers.put(SqlConstant.PROVIDER_FILTER, filterValue);
+
+		int size = list.size();
+		String[] idExpressions = new String[size];
+		for (int i = 0; i < size; i++) {
+			String key = SqlConstant.PROVIDER_FILTER + "_v" + i;
+			idExpressions[i] = getFilterExpression(key);
+			filterValue.put(key, list.get(i).getFilters().get(0)[2]);
+		}
+
+		List<Object[]> fields = list.get(0).getFields();
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		Map<String, String> fieldMap = entityMeta.getFieldMap();
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.update(entityMeta.getTableName());
+			for (int i = 0, j = fields.size(); i < j; i++) {
+				Object[] field = fields.get(i);
+				String fieldName = field[0].toString();
+				String columnName = columnMap.get(fieldName);
+				if (ValidateTool.isEmpty(columnName) && fieldMap.containsKey(fieldName)) {
+					columnName = fieldName;
+				}
+				if (ValidateTool.isEmpty(columnName)) {
+					throw new HandleException("error：fieldName is invalid");
+				}
+				if (i > 0) {
+					sql.append(", ");
+				}
+				sql.append(columnName).append("= case ").append(CommonField.FIELD_ID);
+				SqlHandleEnum fieldType = (SqlHandleEnum) field[1];
+				for (int k = 0; k < size; k++) {
+					String key = SqlConstant.PROVIDER_FIELD + "_v" + k + "_" + i;
+					sql.append(" when ").append(idExpressions[k]).append(" then ");
+					if (SqlHandleEnum.HANDLE_UP.equals(fieldType)) {
+						sql.append(columnName).append(" + ");
+					} else if (SqlHandleEnum.HANDLE_REDUCE.equals(fieldType)) {
+						sql.append(columnName).append(" - ");
+					}
+					sql.append(FIELD_EXPRESSION_PREFIX).append(key).append('}');
+					fieldValue.put(key, list.get(k).getFields().get(i)[2]);
+				}
+				sql.append(" else ").append(columnName).append(" end");
+			}
+
+			StringBuilder filterSql = new StringBuilder(CommonField.FIELD_ID).append(" in (");
+			for (int i = 0; i < size; i++) {
+				if (i > 0) {
+					filterSql.append(", ");
+				}
+				filterSql.append(idExpressions[i]);
+			}
+			return sql.where(filterSql.append(')')).render();
+		}
+	}
+
+	/**
+	 * 在批量添加语句后拼接冲突时的更新语句，updateFields 为空时更新 id 和 create_time 之外的所有字段
+	 * @param insertSql
+	 * @param entityMeta
+	 * @param updateFields  冲突时更新的属性名或字段名
+	 * @return
+	 * @throws HandleException
+	 */
+	public String getBatchUpsertSql(String insertSql, EntityMeta entityMeta, String... updateFields) throws HandleException {
+		List<String> columnNames = new ArrayList<>();
+		if (updateFields == null || updateFields.length == 0) {
+			for (int i = 0, j = entityMeta.size(); i < j; i++) {
+				if (i != entityMeta.getIdIndex() && i != entityMeta.getCreateTimeIndex()) {
+					columnNames.add(entityMeta.getColumnName(i));
+				}
+			}
+		} else {
+			Map<String, String> columnMap = entityMeta.getColumnMap();
+			Map<String, String> fieldMap = entityMeta.getFieldMap();
+			for (String fieldName : updateFields) {
+				String columnName = columnMap.get(fieldName);
+				if (ValidateTool.isEmpty(columnName) && fieldMap.containsKey(fieldName)) {
+					columnName = fieldName;
+				}
+				if (ValidateTool.isEmpty(columnName)) {
+					throw new HandleException("error：fieldName is invalid");
+				}
+				columnNames.add(columnName);
+			}
+		}
+		if (columnNames.isEmpty()) {
+			throw new HandleException("error: upsert update fields is empty");
+		}
+		return this.appendUpsertSql(insertSql, columnNames);
+	}
+
+	/**
+	 * 拼接数据库对应的冲突更新语法，数据库不支持时抛出异常
+	 * @param insertSql
+	 * @param columnNames
+	 * @return
+	 */
+	protected String appendUpsertSql(String insertSql, List<String> columnNames) {
+		throw new HandleException("error: upsert is not supported");
 	}
 
 	protected abstract String getBatchUpdateDbSql(String sql);
 
-	private String getUpdateSql(QueryProvider queryProvider, String tableName, String index, Map<String, String> columnMap,
-			Map<String, String> fieldMap, Map<String, Object> fieldValue, Map<String, Object> filterValue) {
-		SQL sql = new SQL();
-		sql.UPDATE(tableName);
-		sql.SET(getUpdateField(queryProvider.getFields(), columnMap, fieldMap, index, fieldValue));
+	/**
+	 * 获取窗口函数统计总条数的查询字段，例如 count(1) over()，数据库不支持窗口函数时返回 null
+	 * @return
+	 */
+	protected String getWindowTotalColumn() {
+		return null;
+	}
+
+	private void appendUpdateSql(SqlRenderer sql, QueryProvider queryProvider, EntityMeta entityMeta, String index, Map<String, Object> fieldValue,
+			Map<String, Object> filterValue) {
 		List<Object[]> filters = queryProvider.getFilters();
-		if (filters != null && !filters.isEmpty()) {
-			sql.WHERE(getFilterSql(queryProvider.getLeftJoinProviders(), null, null, "", filters, queryProvider.getOrProviders(), filterValue, index, columnMap,
-					fieldMap, NOT_FIND));
-		} else {
+		if (filters == null || filters.isEmpty()) {
 			throw new HandleException("error：filters is empty");
 		}
-		return sql.toString();
+		sql.update(entityMeta.getTableName());
+		this.appendUpdateField(sql, queryProvider.getFields(), entityMeta.getColumnMap(), entityMeta.getFieldMap(), index, fieldValue);
+		StringBuilder filterSql = new StringBuilder();
+		this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), null, null, filters, queryProvider.getOrProviders(), filterValue, index,
+				entityMeta, NOT_FIND);
+		sql.where(filterSql);
 	}
 
-	private String[] getUpdateField(List<Object[]> fields, Map<String, String> columnMap, Map<String, String> fieldMap,
+	private void appendUpdateField(SqlRenderer sql, List<Object[]> fields, Map<String, String> columnMap, Map<String, String> fieldMap,
 			String index, Map<String, Object> fieldValue) throws HandleException {
 
 		if (fields == null) {
@@ -90,13 +268,10 @@ public abstract class AbstractSqlHandleMethod {
 			throw new HandleException("error：fields is null");
 		}
 
-		String[] setColumn = new String[fieldsLen];
-
 		for (int i = 0; i < fieldsLen; i++) {
 			Object[] obj = fields.get(i);
 			String key = SqlConstant.PROVIDER_FIELD + "_v" + index + "_" + i;
 			SqlHandleEnum fieldType = (SqlHandleEnum) obj[1];
-			String fieldTypeValue = "";
 			String fieldName = obj[0].toString();
 			String columnName = columnMap.get(fieldName);
 			if (ValidateTool.isEmpty(columnName) && fieldMap.containsKey(fieldName)) {
@@ -105,58 +280,59 @@ public abstract class AbstractSqlHandleMethod {
 			if (ValidateTool.isEmpty(columnName)) {
 				throw new HandleException("error：fieldName is invalid");
 			}
-			String name = columnName;
+			if (i > 0) {
+				sql.append(", ");
+			}
+			sql.append(columnName).append("= ");
 			if (SqlHandleEnum.HANDLE_UP.equals(fieldType)) {
-				fieldTypeValue = name + " + ";
+				sql.append(columnName).append(" + ");
 			} else if (SqlHandleEnum.HANDLE_REDUCE.equals(fieldType)) {
-				fieldTypeValue = name + " - ";
+				sql.append(columnName).append(" - ");
 			}
-			setColumn[i] = name + "= " + fieldTypeValue + "#{request." + SqlConstant.PROVIDER_FIELD + "." + key + "}";
+			sql.append(FIELD_EXPRESSION_PREFIX).append(key).append('}');
 			fieldValue.put(key, obj[2]);
 		}
-
-		return setColumn;
 	}
 
-	public String getDeleteByIdSql(String tableName) throws HandleException {
+	public String getDeleteByIdSql(EntityMeta entityMeta) throws HandleException {
 
-		SQL sql = new SQL();
-		sql.DELETE_FROM(tableName);
-		sql.WHERE(CommonField.FIELD_ID + "=#{" + CommonField.FIELD_ID + "}");
-		return sql.toString();
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			return sql.deleteFrom(entityMeta.getTableName()).where(ID_FILTER).render();
+		}
 	}
 
-	public String getDeleteSql(Map<String, Object> param, String tableName) throws HandleException {
+	public String getDeleteSql(Map<String, Object> param, EntityMeta entityMeta) throws HandleException {
 
-		SQL sql = new SQL();
-		sql.DELETE_FROM(tableName);
 		QueryProvider queryProvider = (QueryProvider) param.get(SqlConstant.PROVIDER_OBJ);
 		List<Object[]> filters = queryProvider.getFilters();
-		if (filters != null && !filters.isEmpty()) {
-			Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-			Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
-			Map<String, Object> value = new HashMap<>();
-			sql.WHERE(getFilterSql(queryProvider.getLeftJoinProviders(), null, null, "", filters, queryProvider.getOrProviders(), value, INDEX_DEFAULT, columnMap,
-					fieldMap, NOT_FIND));
-			// 放入值到map
-			param.put(SqlConstant.PROVIDER_FILTER, value);
-		} else {
+		if (filters == null || filters.isEmpty()) {
 			throw new HandleException("error：filters is empty");
 		}
-		return sql.toString();
+		Map<String, Object> value = new HashMap<>();
+		StringBuilder filterSql = new StringBuilder();
+		this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), null, null, filters, queryProvider.getOrProviders(), value, INDEX_DEFAULT,
+				entityMeta, NOT_FIND);
+		// 放入值到map
+		param.put(SqlConstant.PROVIDER_FILTER, value);
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			return sql.deleteFrom(entityMeta.getTableName()).where(filterSql).render();
+		}
 	}
 
 	/**
-	 * 根据传入的filter，获取条件filter的数组
+	 * 根据传入的filter，拼接条件语句到 filterSql
 	 * @author HuangLongPu
+	 * @param filterSql
 	 * @param leftJoinProviders
 	 * @param filters
-	 * @return
+	 * @param entityMeta  条件字段所属实体的元数据
 	 * @throws HandleException
 	 */
-	private String getFilterSql(List<Object[]> leftJoinProviders, List<String> groups, List<String> orders, String tableAliasName, List<Object[]> filters,
-			List<QueryProvider> orProviders, Map<String, Object> value, String index, Map<String, String> columnMap, Map<String, String> fieldMap,
+	private void appendFilterSql(StringBuilder filterSql, List<Object[]> leftJoinProviders, List<String> groups, List<String> orders,
+			List<Object[]> filters, List<QueryProvider> orProviders, Map<String, Object> value, String index, EntityMeta entityMeta,
 			int findType) throws HandleException {
+		int begin = filterSql.length();
+		Map<String, String> columnMap = entityMeta.getColumnMap();
 		int filtersLen = 0;
 		if (filters != null && !filters.isEmpty()) {
 			filtersLen = filters.size();
@@ -164,9 +340,8 @@ public abstract class AbstractSqlHandleMethod {
 
 		String tableAliasNamePrefix = " ";
 		if (DEFAULT_FIND == findType) {
-			tableAliasNamePrefix = " " + tableAliasName + ".";
+			tableAliasNamePrefix = " " + entityMeta.getTableAliasName() + ".";
 		}
-		StringBuffer filterSql = new StringBuffer();
 
 		for (int i = 0; i < filtersLen; i++) {
 			Object[] obj = filters.get(i);
@@ -182,86 +357,86 @@ public abstract class AbstractSqlHandleMethod {
 				field = filterName;
 			}
 
-			String sql;
-			String expression = "#{request." + SqlConstant.PROVIDER_FILTER + "." + key + "}";
+			if (i > 0) {
+				/**
+				 * 第一个条件直接拼接，不用区分是 and 还是 or
+				 */
+				filterSql.append(obj[3]);
+			}
+
 			Object vue = obj[2];
 			switch (filterType) {
 			case LIKE:
-				sql = tableAliasNamePrefix + field + getFilterType(filterType);
-				sql += getLikeSql(expression);
+				filterSql.append(tableAliasNamePrefix).append(field).append(filterTypeSql[filterType.ordinal()]).append(getLikeSql(getFilterExpression(key)));
 				value.put(key, vue);
 				break;
 			case LEFT_LIKE:
-				sql = tableAliasNamePrefix + field + getFilterType(filterType);
-				sql += getLeftLikeSql(expression);
+				filterSql.append(tableAliasNamePrefix).append(field).append(filterTypeSql[filterType.ordinal()]).append(getLeftLikeSql(getFilterExpression(key)));
 				value.put(key, vue);
 				break;
 			case RIGHT_LIKE:
-				sql = tableAliasNamePrefix + field + getFilterType(filterType);
-				sql += getRightLikeSql(expression);
+				filterSql.append(tableAliasNamePrefix).append(field).append(filterTypeSql[filterType.ordinal()]).append(getRightLikeSql(getFilterExpression(key)));
 				value.put(key, vue);
 				break;
 			case IN:
 			case NOT_IN:
-				sql = tableAliasNamePrefix + field + getFilterType(filterType);
-				sql += "(" + modifyInFilter(vue, key, value) + ")";
+				filterSql.append(tableAliasNamePrefix).append(field).append(filterTypeSql[filterType.ordinal()]).append('(');
+				this.appendInFilter(filterSql, vue, key, value);
+				filterSql.append(')');
 				break;
 			case UP_GREATE_THAN:
-				sql = getAgFunction(tableAliasNamePrefix, field) + " + " + expression + ">0";
+				filterSql.append(getAgFunction(tableAliasNamePrefix, field, entityMeta)).append(" + ");
+				this.appendFilterExpression(filterSql, key).append(">0");
 				value.put(key, vue);
 				break;
 			case UP_GREATE_EQUAL:
-				sql = getAgFunction(tableAliasNamePrefix, field) + " + " + expression + ">=0";
+				filterSql.append(getAgFunction(tableAliasNamePrefix, field, entityMeta)).append(" + ");
+				this.appendFilterExpression(filterSql, key).append(">=0");
 				value.put(key, vue);
 				break;
 			case REDUCE_GREATE_THAN:
-				sql = getAgFunction(tableAliasNamePrefix, field) + " - " + expression + ">0";
+				filterSql.append(getAgFunction(tableAliasNamePrefix, field, entityMeta)).append(" - ");
+				this.appendFilterExpression(filterSql, key).append(">0");
 				value.put(key, vue);
 				break;
 			case REDUCE_GREATE_EQUAL:
-				sql = getAgFunction(tableAliasNamePrefix, field) + " - " + expression + ">=0";
+				filterSql.append(getAgFunction(tableAliasNamePrefix, field, entityMeta)).append(" - ");
+				this.appendFilterExpression(filterSql, key).append(">=0");
 				value.put(key, vue);
 				break;
 			case IS_NULL:
 			case IS_NOT_NULL:
-				sql = getAgFunction(tableAliasNamePrefix, field) + getFilterType(filterType);
+				filterSql.append(getAgFunction(tableAliasNamePrefix, field, entityMeta)).append(filterTypeSql[filterType.ordinal()]);
 				break;
 			case GREATE_THAN:
 			case GREATE_EQUAL:
 			case LESS_THAN:
 			case LESS_EQUAL:
-				sql = getAgFunction(tableAliasNamePrefix, field) + getFilterType(filterType);
-				sql += expression;
+				filterSql.append(getAgFunction(tableAliasNamePrefix, field, entityMeta)).append(filterTypeSql[filterType.ordinal()]);
+				this.appendFilterExpression(filterSql, key);
 				value.put(key, vue);
 				break;
 			default:
-				sql = tableAliasNamePrefix + field + getFilterType(filterType);
-				sql += expression;
+				filterSql.append(tableAliasNamePrefix).append(field).append(filterTypeSql[filterType.ordinal()]);
+				this.appendFilterExpression(filterSql, key);
 				value.put(key, vue);
 				break;
 			}
-
-			if (i == 0) {
-                /**
-                 * 第一个条件直接拼接，不用区分是 and 还是 or
-                 */
-				filterSql.append(sql);
-			} else {
-				filterSql.append(obj[3] + sql);
-			}
 		}
 
 		if (orProviders != null && !orProviders.isEmpty()) {
 			for (int j = 0, l = orProviders.size(); j < l; j++) {
 				QueryProvider queryProvider = orProviders.get(j);
-				String orItemSql = getFilterSql(queryProvider.getLeftJoinProviders(), groups, orders, tableAliasName, queryProvider.getFilters(), queryProvider.getOrProviders(), value, index
-						+ "_" + j, columnMap, fieldMap, findType);
-				if (!ValidateTool.isEmpty(orItemSql)) {
-					if (ValidateTool.isEmpty(filterSql.toString())) {
-						filterSql.append("(" + orItemSql + ")");
-					} else {
-						filterSql.append(" and (" + orItemSql + ")");
-					}
+				int mark = filterSql.length();
+				filterSql.append(mark == begin ? "(" : " and (");
+				int itemBegin = filterSql.length();
+				this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), groups, orders, queryProvider.getFilters(),
+						queryProvider.getOrProviders(), value, index + "_" + j, entityMeta, findType);
+				if (filterSql.length() == itemBegin) {
+					// 未产生条件时，撤销已拼接的连接符
+					filterSql.setLength(mark);
+				} else {
+					filterSql.append(')');
 				}
 			}
 		}
@@ -270,35 +445,143 @@ public abstract class AbstractSqlHandleMethod {
 			for (int j = 0, k = leftJoinProviders.size(); j < k; j++) {
 				Object[] obj = leftJoinProviders.get(j);
 				QueryProvider leftJoinProvider = (QueryProvider) obj[2];
-				String childTableAsName = TableNameConvert.getTableAsName(leftJoinProvider.getJoinTableName());
-				Map<String, String> childFieldMap = CacheInfoConstant.FIELD_CACHE.get(leftJoinProvider.getJoinTableName());
-				Map<String, String> childColumnMap = CacheInfoConstant.COLUMN_CACHE.get(leftJoinProvider.getJoinTableName());
+				EntityMeta childEntityMeta = BeanCacheConvert.getEntityMeta(leftJoinProvider.getJoinTableName());
+				String childTableAsName = childEntityMeta.getTableAliasName();
+				Map<String, String> childColumnMap = childEntityMeta.getColumnMap();
 				this.addGroupBy(groups, childTableAsName, childColumnMap, leftJoinProvider);
 				this.addOrder(orders, childTableAsName, childColumnMap, leftJoinProvider);
-				String leftJoinFilterSql = getFilterSql(leftJoinProvider.getLeftJoinProviders(), groups, orders, childTableAsName, leftJoinProvider.getFilters(),
-						leftJoinProvider.getOrProviders(), value, index + "_l_" + j, childColumnMap, childFieldMap, findType);
-				if (!ValidateTool.isEmpty(leftJoinFilterSql)) {
-					if (ValidateTool.isEmpty(filterSql.toString())) {
-						filterSql.append(leftJoinFilterSql);
-					} else {
-						filterSql.append(" and " + leftJoinFilterSql);
-					}
+				int mark = filterSql.length();
+				if (mark != begin) {
+					filterSql.append(" and ");
+				}
+				int itemBegin = filterSql.length();
+				this.appendFilterSql(filterSql, leftJoinProvider.getLeftJoinProviders(), groups, orders, leftJoinProvider.getFilters(),
+						leftJoinProvider.getOrProviders(), value, index + "_l_" + j, childEntityMeta, findType);
+				if (filterSql.length() == itemBegin) {
+					filterSql.setLength(mark);
 				}
 			}
+		}
+	}
+
+	private String getFilterExpression(String key) {
+		return FILTER_EXPRESSION_PREFIX + key + "}";
+	}
 
+	private StringBuilder appendFilterExpression(StringBuilder sql, String key) {
+		return sql.append(FILTER_EXPRESSION_PREFIX).append(key).append('}');
+	}
+
+	/**
+	 * 命中 sql 结构缓存时，只绑定条件值，遍历顺序和参数 key 与 appendFilterSql 保持一致
+	 * @param leftJoinProviders
+	 * @param filters
+	 * @param orProviders
+	 * @param value
+	 * @param index
+	 */
+	private void bindFilterValue(List<Object[]> leftJoinProviders, List<Object[]> filters, List<QueryProvider> orProviders, Map<String, Object> value,
+			String index) {
+		if (filters != null) {
+			for (int i = 0, j = filters.size(); i < j; i++) {
+				Object[] obj = filters.get(i);
+				String key = SqlConstant.PROVIDER_FILTER + "_v" + index + "_" + i;
+				switch ((FilterEnum) obj[1]) {
+				case IN:
+				case NOT_IN:
+					this.appendInFilter(null, obj[2], key, value);
+					break;
+				case IS_NULL:
+				case IS_NOT_NULL:
+					break;
+				default:
+					value.put(key, obj[2]);
+					break;
+				}
+			}
 		}
 
-		return filterSql.toString();
+		if (orProviders != null) {
+			for (int j = 0, l = orProviders.size(); j < l; j++) {
+				QueryProvider queryProvider = orProviders.get(j);
+				bindFilterValue(queryProvider.getLeftJoinProviders(), queryProvider.getFilters(), queryProvider.getOrProviders(), value, index + "_" + j);
+			}
+		}
+
+		if (leftJoinProviders != null) {
+			for (int j = 0, k = leftJoinProviders.size(); j < k; j++) {
+				QueryProvider leftJoinProvider = (QueryProvider) leftJoinProviders.get(j)[2];
+				bindFilterValue(leftJoinProvider.getLeftJoinProviders(), leftJoinProvider.getFilters(), leftJoinProvider.getOrProviders(), value,
+						index + "_l_" + j);
+			}
+		}
+	}
+
+	/**
+	 * 命中 sql 结构缓存时绑定条件值到 providers
+	 * @param providers
+	 * @param queryProvider
+	 */
+	private void bindFilterValue(Map<String, Object> providers, QueryProvider queryProvider) {
+		List<Object[]> filters = queryProvider.getFilters();
+		if ((filters != null && !filters.isEmpty()) || (queryProvider.getLeftJoinProviders() != null && !queryProvider.getLeftJoinProviders().isEmpty())) {
+			Map<String, Object> value = new HashMap<>();
+			bindFilterValue(queryProvider.getLeftJoinProviders(), filters, queryProvider.getOrProviders(), value, INDEX_DEFAULT);
+			providers.put(SqlConstant.PROVIDER_FILTER, value);
+		}
 	}
 
+	/**
+	 * 将 sql 中的占位符 ? 按顺序替换为 #{request[index]}，单引号、双引号和反引号内的 ? 不做替换
+	 * 一次遍历完成替换，起始下标为 0 时按 sql 文本缓存替换结果
+	 * @param sql
+	 * @param index  起始下标
+	 * @return
+	 */
 	public String getReplaceSql(String sql, int index) {
-		if (!sql.contains("?")) {
+		if (sql.indexOf('?') < 0) {
 			return sql;
 		}
-		String expression = "#{request[" + index + "]}";
-		sql = sql.replaceFirst("[?]", expression);
-		index++;
-		return getReplaceSql(sql, index);
+		if (index != 0) {
+			return this.replacePlaceholder(sql, index);
+		}
+		String replaceSql = REPLACE_SQL_CACHE.get(sql);
+		if (replaceSql == null) {
+			replaceSql = this.replacePlaceholder(sql, index);
+			REPLACE_SQL_CACHE.put(sql, replaceSql);
+		}
+		return replaceSql;
+	}
+
+	private String replacePlaceholder(String sql, int index) {
+		int length = sql.length();
+		StringBuilder replaceSql = new StringBuilder(length + 16);
+		char quote = 0;
+		for (int i = 0; i < length; i++) {
+			char c = sql.charAt(i);
+			if (quote != 0) {
+				replaceSql.append(c);
+				if (c == '\\' && quote != '`' && i + 1 < length) {
+					// 转义字符，下一个字符原样输出
+					replaceSql.append(sql.charAt(++i));
+				} else if (c == quote) {
+					// 连续两个引号表示转义，仍在字符串内
+					if (i + 1 < length && sql.charAt(i + 1) == quote) {
+						replaceSql.append(sql.charAt(++i));
+					} else {
+						quote = 0;
+					}
+				}
+			} else if (c == '?') {
+				replaceSql.append("#{request[").append(index++).append("]}");
+			} else {
+				if (c == '\'' || c == '"' || c == '`') {
+					quote = c;
+				}
+				replaceSql.append(c);
+			}
+		}
+		return replaceSql.toString();
 	}
 
 	/**
@@ -310,6 +593,20 @@ public abstract class AbstractSqlHandleMethod {
 	 * @return
 	 */
 	protected String modifyInFilter(Object obj, String key, Map<String, Object> param) throws HandleException {
+		StringBuilder itemSql = new StringBuilder();
+		this.appendInFilter(itemSql, obj, key, param);
+		return itemSql.toString();
+	}
+
+	/**
+	 * in 查询参数处理，itemSql 为 null 时只绑定参数值
+	 * @param itemSql
+	 * @param obj
+	 * @param key
+	 * @param param
+	 * @throws HandleException
+	 */
+	private void appendInFilter(StringBuilder itemSql, Object obj, String key, Map<String, Object> param) throws HandleException {
 
 		if (obj == null) {
 			throw new HandleException("error: select filter is empty");
@@ -317,77 +614,75 @@ public abstract class AbstractSqlHandleMethod {
 
 		// 由于in查询能够接收多种类型的数据，需要做处理
 		if (obj.getClass().isArray()) {
-			return modifyArrInFilter(obj, key, param);
+			appendArrInFilter(itemSql, obj, key, param);
 		} else if (obj instanceof Collection<?>) {
 			// 表示为集合
-			Object vue = ((Collection<?>) obj).toArray();
-			return modifyArrInFilter(vue, key, param);
+			appendArrInFilter(itemSql, ((Collection<?>) obj).toArray(), key, param);
 		} else if (obj instanceof String) {
 			// 说明是字符串
 			String vue = obj.toString();
 			if (vue.contains(",")) {
-				return modifyArrInFilter(vue.split(","), key, param);
+				appendArrInFilter(itemSql, vue.split(","), key, param);
 			} else {
-				return modifyOneInFilter(obj, key, param);
+				appendOneInFilter(itemSql, obj, key, param);
 			}
 		} else {
 			// 其他
-			return modifyOneInFilter(obj, key, param);
+			appendOneInFilter(itemSql, obj, key, param);
 		}
-
 	}
 
-	private String modifyArrInFilter(Object obj, String key, Map<String, Object> param) {
+	private void appendArrInFilter(StringBuilder itemSql, Object obj, String key, Map<String, Object> param) {
 		// 判断是数组
-		StringBuilder itemSql = new StringBuilder();
 		int length = Array.getLength(obj);
 		for (int i = 0; i < length; i++) {
 			String itemKey = key + "_" + i;
 			param.put(itemKey, Array.get(obj, i));
-			itemSql.append("#{request." + SqlConstant.PROVIDER_FILTER + ".").append(itemKey).append("}");
-			if (i != length - 1) {
-				itemSql.append(",");
+			if (itemSql != null) {
+				if (i > 0) {
+					itemSql.append(',');
+				}
+				appendFilterExpression(itemSql, itemKey);
 			}
 		}
-		return itemSql.toString();
 	}
 
-	private String modifyOneInFilter(Object obj, String key, Map<String, Object> param) {
+	private void appendOneInFilter(StringBuilder itemSql, Object obj, String key, Map<String, Object> param) {
 		// 判断不是数组
-		StringBuilder itemSql = new StringBuilder();
 		String itemKey = key + "_" + 0;
 		param.put(itemKey, obj);
-		itemSql.append("#{request." + SqlConstant.PROVIDER_FILTER + ".").append(itemKey).append("}");
-		return itemSql.toString();
+		if (itemSql != null) {
+			appendFilterExpression(itemSql, itemKey);
+		}
 	}
 
 	public String getSelectByIdSql(String[] columns, BigInteger id, String tableName) {
 
-		SQL sql = new SQL();
-		sql.SELECT(columns);
-		sql.FROM(tableName);
-		sql.WHERE("id=#{id}");
-		return sql.toString();
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			return sql.select(String.join(", ", columns)).from(tableName).where(ID_FILTER).render();
+		}
 	}
 
 	/**
 	 * 根据map，拼接SQL
 	 *
 	 * @param param
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public String getSelectSql(Map<String, Object> param, String tableName) throws HandleException {
+	public String getSelectSql(Map<String, Object> param, EntityMeta entityMeta) throws HandleException {
 
 		QueryProvider queryProvider = (QueryProvider) param.get(SqlConstant.PROVIDER_OBJ);
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
-
-		String tableAliasName = TableNameConvert.getTableAsName(tableName);
-		SQL sql = new SQL();
-		sql.SELECT(getSelectFieldColumns(queryProvider, tableAliasName, columnMap, fieldMap));
-		sql.FROM(tableName + " " + tableAliasName + getLeftJoinTable(tableAliasName, queryProvider.getLeftJoinProviders()));
+		QueryShape shapeKey = QueryShape.getKey(SHAPE_SELECT, queryProvider, entityMeta);
+		String[] shapeSql = SHAPE_SQL_CACHE.get(shapeKey);
+		if (shapeSql != null) {
+			this.bindFilterValue(param, queryProvider);
+			return shapeSql[0];
+		}
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		String tableAliasName = entityMeta.getTableAliasName();
+		String columns = getSelectFieldColumns(queryProvider, entityMeta);
 
 		// 构建 group by 语句
 		List<String> groups = new ArrayList<>();
@@ -395,62 +690,63 @@ public abstract class AbstractSqlHandleMethod {
 		this.addGroupBy(groups, tableAliasName, columnMap, queryProvider);
 		this.addOrder(orders, tableAliasName, columnMap, queryProvider);
 
+		StringBuilder filterSql = new StringBuilder();
 		List<Object[]> filters = queryProvider.getFilters();
 		if ((filters != null && !filters.isEmpty()) || (queryProvider.getLeftJoinProviders() != null && !queryProvider.getLeftJoinProviders().isEmpty())) {
 			Map<String, Object> value = new HashMap<>();
-			String filterSql = getFilterSql(queryProvider.getLeftJoinProviders(), groups, orders, tableAliasName, filters, queryProvider.getOrProviders(), value,
-					INDEX_DEFAULT, columnMap, fieldMap, DEFAULT_FIND);
-			if (!ValidateTool.isEmpty(filterSql)) {
+			this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), groups, orders, filters, queryProvider.getOrProviders(), value,
+					INDEX_DEFAULT, entityMeta, DEFAULT_FIND);
+			if (filterSql.length() > 0) {
 				// 放入值到map
 				param.put(SqlConstant.PROVIDER_FILTER, value);
-				sql.WHERE(filterSql);
 			}
 		}
 
-		if (!groups.isEmpty()) {
-			sql.GROUP_BY(groups.toArray(new String[groups.size()]));
+		String selectSql;
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.select(columns);
+			this.appendFromTable(sql, entityMeta, queryProvider);
+			selectSql = sql.where(filterSql).groupBy(groups).orderBy(orders).render();
 		}
-
-		if (!orders.isEmpty()) {
-			sql.ORDER_BY(orders.toArray(new String[orders.size()]));
-		}
-
-//		if (PageEnum.IS_PAGE_TRUE == queryProvider.getIsPage()) {
-//			return appendPageSql(sql.toString(), queryProvider.getPageNumber(), queryProvider.getPageSize());
-//		}
-
-		return sql.toString();
+		SHAPE_SQL_CACHE.put(shapeKey, new String[] {selectSql});
+		return selectSql;
 	}
 
-	public String getValidateSql(Map<String, Object> param, String tableName) throws HandleException {
+	public String getValidateSql(Map<String, Object> param, EntityMeta entityMeta) throws HandleException {
 		QueryProvider queryProvider = (QueryProvider) param.get(SqlConstant.PROVIDER_OBJ);
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
-
-		String tableAliasName = TableNameConvert.getTableAsName(tableName);
-		SQL sql = new SQL();
-		sql.SELECT("count(1)");
-		sql.FROM(tableName + " " + tableAliasName + getLeftJoinTable(tableAliasName, queryProvider.getLeftJoinProviders()));
+		QueryShape shapeKey = QueryShape.getKey(SHAPE_VALIDATE, queryProvider, entityMeta);
+		String[] shapeSql = SHAPE_SQL_CACHE.get(shapeKey);
+		if (shapeSql != null) {
+			this.bindFilterValue(param, queryProvider);
+			return shapeSql[0];
+		}
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		String tableAliasName = entityMeta.getTableAliasName();
 
 		// 处理 group by 语句
 		List<String> groups = new ArrayList<>();
 		this.addGroupBy(groups, tableAliasName, columnMap, queryProvider);
 
+		StringBuilder filterSql = new StringBuilder();
 		List<Object[]> filters = queryProvider.getFilters();
 		if ((filters != null && !filters.isEmpty()) || (queryProvider.getLeftJoinProviders() != null && !queryProvider.getLeftJoinProviders().isEmpty())) {
 			Map<String, Object> value = new HashMap<>();
-			String filterSql = getFilterSql(queryProvider.getLeftJoinProviders(), groups, null, tableAliasName, filters, queryProvider.getOrProviders(), value,
-					INDEX_DEFAULT, columnMap, fieldMap, DEFAULT_FIND);
-			if (!ValidateTool.isEmpty(filterSql)) {
+			this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), groups, null, filters, queryProvider.getOrProviders(), value,
+					INDEX_DEFAULT, entityMeta, DEFAULT_FIND);
+			if (filterSql.length() > 0) {
 				// 放入值到map
 				param.put(SqlConstant.PROVIDER_FILTER, value);
-				sql.WHERE(filterSql);
 			}
 		}
-		if (!groups.isEmpty()) {
-			sql.GROUP_BY(groups.toArray(new String[groups.size()]));
+
+		String validateSql;
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.select(COUNT_COLUMN);
+			this.appendFromTable(sql, entityMeta, queryProvider);
+			validateSql = sql.where(filterSql).groupBy(groups).render();
 		}
-		return sql.toString();
+		SHAPE_SQL_CACHE.put(shapeKey, new String[] {validateSql});
+		return validateSql;
 	}
 
 	private void addGroupBy(List<String> groups, String tableAsName, Map<String, String> columnMap, QueryProvider queryProvider) {
@@ -485,15 +781,40 @@ public abstract class AbstractSqlHandleMethod {
 		}
 	}
 
-	private String getLeftJoinTable(String tableAliasName, List<Object[]> leftJoinProviders) {
+	/**
+	 * 拼接主表及 left join 连接表
+	 * @param sql
+	 * @param entityMeta
+	 * @param queryProvider
+	 */
+	private void appendFromTable(SqlRenderer sql, EntityMeta entityMeta, QueryProvider queryProvider) {
+		this.appendFromTable(sql, entityMeta, queryProvider, null);
+	}
+
+	/**
+	 * 拼接主表及 left join 连接表
+	 * @param sql
+	 * @param entityMeta
+	 * @param queryProvider
+	 * @param countAliases  不为 null 时表示统计计数语句，只拼接计数需要的连接表，值为主表条件中引用的表别名
+	 */
+	private void appendFromTable(SqlRenderer sql, EntityMeta entityMeta, QueryProvider queryProvider, Set<String> countAliases) {
+		String tableAliasName = entityMeta.getTableAliasName();
+		sql.from(entityMeta.getTableName()).append(' ').append(tableAliasName);
+		this.appendLeftJoinTable(sql, tableAliasName, queryProvider.getLeftJoinProviders(), countAliases);
+	}
+
+	private void appendLeftJoinTable(SqlRenderer sql, String tableAliasName, List<Object[]> leftJoinProviders, Set<String> countAliases) {
 
 		if (leftJoinProviders == null || leftJoinProviders.isEmpty()) {
-			return "";
+			return;
 		}
 
-		StringBuffer sql = new StringBuffer();
 		for (Object[] leftJoinArray : leftJoinProviders) {
 
+			if (countAliases != null && !this.isCountJoinRequired(leftJoinArray, countAliases)) {
+				continue;
+			}
 			QueryProvider childParam = (QueryProvider) leftJoinArray[2];
 			String connectTableName = childParam.getJoinTableName();
 			if (ValidateTool.isEmpty(connectTableName)) {
@@ -503,29 +824,121 @@ public abstract class AbstractSqlHandleMethod {
 			Object fieldName = leftJoinArray[0];
 			Object paramFieldName = leftJoinArray[1];
 
-			sql.append(" left join " + connectTableName + " " + connectTableAliasName + " on ");
+			sql.append(" left join ").append(connectTableName).append(' ').append(connectTableAliasName).append(" on ");
 			if (fieldName instanceof String) {
 				// 说明是单个
-				sql.append(tableAliasName + "." + leftJoinArray[0] + "=" + connectTableAliasName + "." + paramFieldName);
+				sql.append(tableAliasName).append('.').append((String) fieldName).append('=').append(connectTableAliasName).append('.').append((String) paramFieldName);
 			} else {
 				String[] fieldArr = (String[]) fieldName;
 				String[] paramFieldArr = (String[]) paramFieldName;
 				// 说明是数组
 				for (int i = 0, j = fieldArr.length; i < j; i++) {
-					sql.append(tableAliasName + "." + fieldArr[i] + "=" + connectTableAliasName + "." + paramFieldArr[i]);
-					if (i != j - 1) {
+					if (i > 0) {
 						sql.append(" and ");
 					}
+					sql.append(tableAliasName).append('.').append(fieldArr[i]).append('=').append(connectTableAliasName).append('.').append(paramFieldArr[i]);
 				}
 			}
 
 			List<Object[]> paramLeftJoinProviders = childParam.getLeftJoinProviders();
 			if (paramLeftJoinProviders != null && paramLeftJoinProviders.size() > 0) {
-				sql.append(getLeftJoinTable(connectTableAliasName, paramLeftJoinProviders));
+				this.appendLeftJoinTable(sql, connectTableAliasName, paramLeftJoinProviders, countAliases);
+			}
+		}
+	}
+
+	/**
+	 * 拼接分页的统计计数语句，不带 order by
+	 * 1、连接表的关联字段为其主键 id、且没有条件、分组及被主表条件引用时，连接不影响计数，不进行连接；
+	 * 2、只有一个分组字段时，改写为 count(distinct)，分组字段存在 null 值时 null 单独为一组，计数加 1；
+	 * 3、多个分组字段时，使用子查询计数。
+	 * @param sql
+	 * @param entityMeta
+	 * @param queryProvider
+	 * @param filterSql
+	 * @param groups
+	 */
+	private void appendCountSql(SqlRenderer sql, EntityMeta entityMeta, QueryProvider queryProvider, CharSequence filterSql, List<String> groups) {
+		Set<String> countAliases = new HashSet<>();
+		this.addFilterAliases(countAliases, queryProvider);
+		if (groups.isEmpty()) {
+			sql.select(COUNT_COLUMN);
+			this.appendFromTable(sql, entityMeta, queryProvider, countAliases);
+			sql.where(filterSql);
+		} else if (groups.size() == 1) {
+			String group = groups.get(0);
+			sql.append("select count(distinct ").append(group).append(")+(case when count(").append(group).append(")<count(1) then 1 else 0 end)");
+			this.appendFromTable(sql, entityMeta, queryProvider, countAliases);
+			sql.where(filterSql);
+		} else {
+			sql.append("select count(1) from (").select("1");
+			this.appendFromTable(sql, entityMeta, queryProvider, countAliases);
+			sql.where(filterSql).groupBy(groups).append(") s");
+		}
+	}
+
+	/**
+	 * 连接表是否影响计数
+	 * @param leftJoinArray
+	 * @param countAliases
+	 * @return
+	 */
+	private boolean isCountJoinRequired(Object[] leftJoinArray, Set<String> countAliases) {
+		QueryProvider childParam = (QueryProvider) leftJoinArray[2];
+		// 非主键连接时，一条数据可能连接出多条，影响计数
+		if (!this.isUniqueJoinField(leftJoinArray[1]) || countAliases.contains(TableNameConvert.getTableAsName(childParam.getJoinTableName()))) {
+			return true;
+		}
+		if ((childParam.getFilters() != null && !childParam.getFilters().isEmpty()) || (childParam.getOrProviders() != null && !childParam.getOrProviders().isEmpty())
+				|| (childParam.getGroups() != null && !childParam.getGroups().isEmpty())) {
+			return true;
+		}
+		List<Object[]> childLeftJoinProviders = childParam.getLeftJoinProviders();
+		if (childLeftJoinProviders != null) {
+			for (Object[] childLeftJoin : childLeftJoinProviders) {
+				if (this.isCountJoinRequired(childLeftJoin, countAliases)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 获取条件中通过 "别名.字段" 方式引用的表别名
+	 * @param aliases
+	 * @param queryProvider
+	 */
+	private void addFilterAliases(Set<String> aliases, QueryProvider queryProvider) {
+		List<Object[]> filters = queryProvider.getFilters();
+		if (filters != null) {
+			for (Object[] filter : filters) {
+				this.addNameAliases(aliases, filter[0].toString());
+			}
+		}
+		List<QueryProvider> orProviders = queryProvider.getOrProviders();
+		if (orProviders != null) {
+			for (QueryProvider orProvider : orProviders) {
+				this.addFilterAliases(aliases, orProvider);
 			}
 		}
+	}
 
-		return sql.toString();
+	/**
+	 * 获取 "别名.字段" 中的表别名，可以是表达式，例如 a.price*b.num
+	 * @param aliases
+	 * @param name
+	 */
+	private void addNameAliases(Set<String> aliases, String name) {
+		for (int index = name.indexOf('.'); index > 0; index = name.indexOf('.', index + 1)) {
+			int begin = index;
+			while (begin > 0 && Character.isJavaIdentifierPart(name.charAt(begin - 1))) {
+				begin--;
+			}
+			if (begin < index) {
+				aliases.add(name.substring(begin, index));
+			}
+		}
 	}
 
 	/**
@@ -535,15 +948,13 @@ public abstract class AbstractSqlHandleMethod {
 	 * @return
 	 * @throws HandleException
 	 */
-	private String getSelectFieldColumns(QueryProvider queryProvider, String tableAliasName, Map<String, String> columnMap, Map<String, String> fieldMap)
-			throws HandleException {
+	private String getSelectFieldColumns(QueryProvider queryProvider, EntityMeta entityMeta) throws HandleException {
 		List<Object[]> fields = null;
 		boolean allFlag = true;
 		if ((fields = queryProvider.getFields()) != null && fields.size() > 0) {
 			allFlag = false;
 		}
 
-		tableAliasName += ".";
 		List<String> column = new ArrayList<>();
 		Map<String, String> notFields = queryProvider.getNotFields();
 		if (allFlag) {
@@ -552,22 +963,14 @@ public abstract class AbstractSqlHandleMethod {
              * 为提升查询效率，不建议 sql 查询所有字段，打印一条日志进行提醒开发人员
              */
             log.warn("*********** WARN : no suggest use sql >>>>>>>>>  select * from XXXXXX ********");
-			for (Map.Entry<String, String> entry : columnMap.entrySet()) {
-				String name = entry.getValue();
-				String key = entry.getKey();
-				if (notFields != null && (notFields.containsKey(name) || notFields.containsKey(key))) {
-					continue;
-				}
-				String columnName = tableAliasName + name;
-				if (name.equals(key)) {
-					column.add(columnName);
-				} else {
-					column.add(columnName + " as " + key);
-				}
+			List<Object[]> leftJoinParams = queryProvider.getLeftJoinProviders();
+			if (notFields == null && (leftJoinParams == null || leftJoinParams.isEmpty())) {
+				// 无过滤字段和连接查询时，直接使用预先拼装的字段
+				return entityMeta.getSelectColumns();
 			}
+			addAllSelectColumn(entityMeta, column, notFields);
 
 			// 获取left join
-			List<Object[]> leftJoinParams = queryProvider.getLeftJoinProviders();
 			if (leftJoinParams != null && !leftJoinParams.isEmpty()) {
 				getLeftJoinSelectColumn(leftJoinParams, column);
 			}
@@ -579,7 +982,7 @@ public abstract class AbstractSqlHandleMethod {
 		}
 
 		// 获取列
-		getSelectColumn(tableAliasName, column, fields, fieldMap, columnMap, notFields);
+		getSelectColumn(entityMeta, column, fields, notFields);
 
 		// 获取left join
 		List<Object[]> leftJoinParams = queryProvider.getLeftJoinProviders();
@@ -604,13 +1007,11 @@ public abstract class AbstractSqlHandleMethod {
 
 		for (Object[] obj : leftJoinProviders) {
 			QueryProvider queryProvider = (QueryProvider) obj[2];
-			String tableAliasName = TableNameConvert.getTableAsName(queryProvider.getJoinTableName());
-			Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(queryProvider.getJoinTableName());
-			Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(queryProvider.getJoinTableName());
+			EntityMeta entityMeta = BeanCacheConvert.getEntityMeta(queryProvider.getJoinTableName());
 			
 			List<Object[]> fields = null;
 			if ((fields = queryProvider.getFields()) != null && !fields.isEmpty()) {
-				getSelectColumn(tableAliasName, column, queryProvider.getFields(), fieldMap, columnMap, queryProvider.getNotFields());
+				getSelectColumn(entityMeta, column, queryProvider.getFields(), queryProvider.getNotFields());
 			} else {
 				Map<String, String> notFields = queryProvider.getNotFields();
 				/**
@@ -618,18 +1019,10 @@ public abstract class AbstractSqlHandleMethod {
 				 * 为提升查询效率，不建议 sql 查询所有字段，打印一条日志进行提醒开发人员
 				 */
 				log.warn("*********** WARN : no suggest use sql >>>>>>>>>  select * from XXXXXX ********");
-				for (Map.Entry<String, String> entry : columnMap.entrySet()) {
-					String name = entry.getValue();
-					String key = entry.getKey();
-					if (notFields != null && (notFields.containsKey(name) || notFields.containsKey(key))) {
-						continue;
-					}
-					String columnName = tableAliasName + "." + name;
-					if (name.equals(key)) {
-						column.add(columnName);
-					} else {
-						column.add(columnName + " as " + key);
-					}
+				if (notFields == null) {
+					column.add(entityMeta.getSelectColumns());
+				} else {
+					addAllSelectColumn(entityMeta, column, notFields);
 				}
 			}
 			
@@ -641,22 +1034,42 @@ public abstract class AbstractSqlHandleMethod {
 		}
 	}
 
+	/**
+	 * 按实体元数据的字段顺序添加全部查询字段，并过滤 notFields 中的字段
+	 * @param entityMeta
+	 * @param column
+	 * @param notFields
+	 */
+	private void addAllSelectColumn(EntityMeta entityMeta, List<String> column, Map<String, String> notFields) {
+		String tableAliasName = entityMeta.getTableAliasName() + ".";
+		for (int i = 0, j = entityMeta.size(); i < j; i++) {
+			String name = entityMeta.getColumnName(i);
+			String key = entityMeta.getFieldName(i);
+			if (notFields != null && (notFields.containsKey(name) || notFields.containsKey(key))) {
+				continue;
+			}
+			String columnName = tableAliasName + name;
+			if (name.equals(key)) {
+				column.add(columnName);
+			} else {
+				column.add(columnName + " as " + key);
+			}
+		}
+	}
+
 	/**
 	 * 获取需要查询的字段
 	 * @author HuangLongPu
-	 * @param tableAliasName
+	 * @param entityMeta
 	 * @param column
 	 * @param fields
-	 * @param fieldMap
-	 * @param columnMap
 	 * @param notFields
 	 */
-	private void getSelectColumn(String tableAliasName, List<String> column, List<Object[]> fields, Map<String, String> fieldMap,
-			Map<String, String> columnMap, Map<String, String> notFields) {
+	private void getSelectColumn(EntityMeta entityMeta, List<String> column, List<Object[]> fields, Map<String, String> notFields) {
+		Map<String, String> fieldMap = entityMeta.getFieldMap();
+		Map<String, String> columnMap = entityMeta.getColumnMap();
 		// 别名加点
-		if (!ValidateTool.isEmpty(tableAliasName) && !tableAliasName.contains(".")) {
-			tableAliasName += ".";
-		}
+		String tableAliasName = entityMeta.getTableAliasName() + ".";
 		for (Object[] obj : fields) {
 			String fieldName = obj[0].toString();
 			Object value = obj[2];
@@ -688,23 +1101,23 @@ public abstract class AbstractSqlHandleMethod {
 				}
 				break;
 			case HANDLE_SUM:
-				columnName = "sum(" + getAgFunction(tableAliasName, fieldTemp) + ")";
+				columnName = "sum(" + getAgFunction(tableAliasName, fieldTemp, entityMeta) + ")";
 				column.add(columnName + fieldAsTemp);
 				break;
 			case HANDLE_MAX:
-				columnName = "max(" + getAgFunction(tableAliasName, fieldTemp) + ")";
+				columnName = "max(" + getAgFunction(tableAliasName, fieldTemp, entityMeta) + ")";
 				column.add(columnName + fieldAsTemp);
 				break;
 			case HANDLE_MIN:
-				columnName = "min(" + getAgFunction(tableAliasName, fieldTemp) + ")";
+				columnName = "min(" + getAgFunction(tableAliasName, fieldTemp, entityMeta) + ")";
 				column.add(columnName + fieldAsTemp);
 				break;
 			case HANDLE_AVG:
-				columnName = "avg(" + getAgFunction(tableAliasName, fieldTemp) + ")";
+				columnName = "avg(" + getAgFunction(tableAliasName, fieldTemp, entityMeta) + ")";
 				column.add(columnName + fieldAsTemp);
 				break;
 			case HANDLE_EXP:
-				columnName = getAgFunction(tableAliasName, fieldTemp);
+				columnName = getAgFunction(tableAliasName, fieldTemp, entityMeta);
 				column.add(columnName + fieldAsTemp);
 				break;
 			default:
@@ -720,80 +1133,15 @@ public abstract class AbstractSqlHandleMethod {
 	}
 
 	/**
-	 * 解析聚合函数，拼装SQL
+	 * 解析字段运算表达式，拼装SQL，解析结果按 (实体, 别名, 表达式) 缓存
 	 * @author HuangLongPu
 	 * @param tableAliasName
 	 * @param fieldName
+	 * @param entityMeta
 	 * @return
 	 */
-	private String getAgFunction(String tableAliasName, String fieldName) {
-		boolean replaceFlag = false;
-		String fieldNameTemp = fieldName;
-		if (fieldName.contains("+")) {
-			fieldName = fieldName.replace("+", "}+{");
-			fieldNameTemp = fieldNameTemp.replace("+", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("-")) {
-			fieldName = fieldName.replace("-", "}-{");
-			fieldNameTemp = fieldNameTemp.replace("-", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("*")) {
-			fieldName = fieldName.replace("*", "}*{");
-			fieldNameTemp = fieldNameTemp.replace("*", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("/")) {
-			fieldName = fieldName.replace("/", "}/{");
-			fieldNameTemp = fieldNameTemp.replace("/", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains("(")) {
-			fieldName = fieldName.replace("(", "}({");
-			fieldNameTemp = fieldNameTemp.replace("(", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-		if (fieldName.contains(")")) {
-			fieldName = fieldName.replace(")", "}){");
-			fieldNameTemp = fieldNameTemp.replace(")", ",");
-			if (!replaceFlag) {
-				replaceFlag = true;
-			}
-		}
-
-		if (replaceFlag) {
-			fieldName = fieldName.replaceAll(" ", "");
-			fieldNameTemp = fieldNameTemp.replaceAll(" ", "");
-			fieldName = "{" + fieldName + "}";
-			String[] fieldNameTempArr = fieldNameTemp.split(",");
-			Map<String, String> fieldNameTempMap = new HashMap<>();
-			for (String name : fieldNameTempArr) {
-				if (ValidateTool.isEmpty(name)) {
-					continue;
-				}
-				fieldNameTempMap.put(name, name);
-			}
-
-			for (Map.Entry<String, String> map : fieldNameTempMap.entrySet()) {
-				String field = map.getValue();
-				fieldName = fieldName.replace("{" + field + "}", tableAliasName + field);
-			}
-
-			return fieldName.replaceAll("[{}]", "");
-		} else {
-			return tableAliasName + fieldName;
-		}
+	private String getAgFunction(String tableAliasName, String fieldName, EntityMeta entityMeta) {
+		return ArithmeticExpression.render(tableAliasName, fieldName, entityMeta);
 	}
 
 	/**
@@ -856,22 +1204,23 @@ public abstract class AbstractSqlHandleMethod {
 	 * 获取分页查询 sql 语句
 	 * @author HuangLongPu
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
 	 */
-	public void getQueryPageSql(Map<String, Object> providers, String tableName) {
+	public void getQueryPageSql(Map<String, Object> providers, EntityMeta entityMeta) {
 
-		SQL sql = new SQL();
 		QueryProvider queryProvider = (QueryProvider) providers.get(SqlConstant.PROVIDER_OBJ);
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		Map<String, String> fieldMap = CacheInfoConstant.FIELD_CACHE.get(tableName);
-		String tableAliasName = TableNameConvert.getTableAsName(tableName);
-		sql.SELECT(getSelectFieldColumns(queryProvider, tableAliasName, columnMap, fieldMap));
-		String table = tableName + " " + tableAliasName + getLeftJoinTable(tableAliasName, queryProvider.getLeftJoinProviders());
-		sql.FROM(table);
-		// 分页的语句
-		SQL countSql = new SQL();
-		countSql.SELECT("count(1)");
-		countSql.FROM(table);
+		QueryShape shapeKey = QueryShape.getKey(SHAPE_PAGE, queryProvider, entityMeta);
+		String[] shapeSql = SHAPE_SQL_CACHE.get(shapeKey);
+		if (shapeSql != null) {
+			this.bindFilterValue(providers, queryProvider);
+			providers.put(SqlConstant.PROVIDER_COUNT_SQL, shapeSql[1]);
+			this.putPageQuerySql(providers, shapeSql, queryProvider);
+			return;
+		}
+
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		String tableAliasName = entityMeta.getTableAliasName();
+		String columns = getSelectFieldColumns(queryProvider, entityMeta);
 
 		// 构造 group by 语句
 		List<String> groups = new ArrayList<>();
@@ -880,37 +1229,317 @@ public abstract class AbstractSqlHandleMethod {
 		this.addGroupBy(groups, tableAliasName, columnMap, queryProvider);
 		this.addOrder(orders, tableAliasName, columnMap, queryProvider);
 
+		StringBuilder filterSql = new StringBuilder();
 		List<Object[]> filters = queryProvider.getFilters();
 		if ((filters != null && !filters.isEmpty()) || (queryProvider.getLeftJoinProviders() != null && !queryProvider.getLeftJoinProviders().isEmpty())) {
 			Map<String, Object> value = new HashMap<>();
-			String filterSql = getFilterSql(queryProvider.getLeftJoinProviders(), groups, orders, tableAliasName, filters, queryProvider.getOrProviders(), value,
-					INDEX_DEFAULT, columnMap, fieldMap, DEFAULT_FIND);
-			if (!ValidateTool.isEmpty(filterSql)) {
+			this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), groups, orders, filters, queryProvider.getOrProviders(), value,
+					INDEX_DEFAULT, entityMeta, DEFAULT_FIND);
+			if (filterSql.length() > 0) {
 				// 放入值到map
 				providers.put(SqlConstant.PROVIDER_FILTER, value);
-				sql.WHERE(filterSql);
-				countSql.WHERE(filterSql);
 			}
 		}
 
-		if (!groups.isEmpty()) {
-			sql.GROUP_BY(groups.toArray(new String[groups.size()]));
-			countSql.GROUP_BY(groups.toArray(new String[groups.size()]));
+		String querySql;
+		String totalSql;
+		String[] deferredSql = new String[2];
+		String windowSql = null;
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.select(columns);
+			this.appendFromTable(sql, entityMeta, queryProvider);
+			querySql = sql.where(filterSql).groupBy(groups).orderBy(orders).render();
+
+			// 分页的语句
+			sql.setLength(0);
+			this.appendCountSql(sql, entityMeta, queryProvider, filterSql, groups);
+			totalSql = sql.render();
+
+			if (PageHandleEnum.PAGE_DEFERRED_JOIN.equals(queryProvider.getPageHandle())) {
+				deferredSql = this.getDeferredJoinSql(sql, entityMeta, queryProvider, columns, filterSql, groups, orders);
+			} else if (PageHandleEnum.PAGE_WINDOW_COUNT.equals(queryProvider.getPageHandle()) && this.getWindowTotalColumn() != null) {
+				// 窗口函数在 group by 之后计算，存在分组时统计的是分组数
+				sql.setLength(0);
+				sql.select(columns).append(',').append(this.getWindowTotalColumn()).append(" as ").append(SqlConstant.PAGE_WINDOW_TOTAL);
+				this.appendFromTable(sql, entityMeta, queryProvider);
+				windowSql = sql.where(filterSql).groupBy(groups).orderBy(orders).render();
+			}
 		}
 
-		if (!orders.isEmpty()) {
-			sql.ORDER_BY(orders.toArray(new String[orders.size()]));
+		shapeSql = new String[] {querySql, totalSql, deferredSql[0], deferredSql[1], windowSql};
+		SHAPE_SQL_CACHE.put(shapeKey, shapeSql);
+		providers.put(SqlConstant.PROVIDER_COUNT_SQL, totalSql);
+		this.putPageQuerySql(providers, shapeSql, queryProvider);
+	}
+
+	/**
+	 * 放入拼接分页信息后的查询语句，支持窗口函数分页时同时放入窗口函数分页语句
+	 * @param providers
+	 * @param shapeSql  依次为查询语句、统计计数语句、延迟关联分页语句的前半部分和后半部分、窗口函数分页语句
+	 * @param queryProvider
+	 */
+	private void putPageQuerySql(Map<String, Object> providers, String[] shapeSql, QueryProvider queryProvider) {
+		providers.put(SqlConstant.PROVIDER_QUERY_SQL, this.getPageQuerySql(shapeSql, queryProvider, providers));
+		// sql 结构缓存为全局缓存，窗口函数分页语句只在当前方言支持窗口函数时使用
+		if (shapeSql[4] != null && this.getWindowTotalColumn() != null) {
+			providers.put(SqlConstant.PROVIDER_WINDOW_SQL, this.appendPageSql(shapeSql[4], queryProvider.getPageNumber(), queryProvider.getPageSize()));
 		}
+	}
 
-//		if (PageEnum.IS_PAGE_TRUE.equals(queryProvider.getIsPage())) {
-			if (groups != null && !groups.isEmpty()) {
-				providers.put(SqlConstant.PROVIDER_COUNT_SQL, "select count(1) from (" + countSql.toString() + ") s");
+	/**
+	 * 拼接分页信息，延迟关联分页语句存在且偏移量达到最小偏移量时，使用延迟关联分页语句
+	 * 最小偏移量优先取 QueryProvider 的设置，其次为 providers 中传入的值，默认为 SqlConstant.DEFERRED_JOIN_OFFSET
+	 * @param shapeSql
+	 * @param queryProvider
+	 * @param providers
+	 * @return
+	 */
+	private String getPageQuerySql(String[] shapeSql, QueryProvider queryProvider, Map<String, Object> providers) {
+		int pageNumber = queryProvider.getPageNumber();
+		int pageSize = queryProvider.getPageSize();
+		if (shapeSql[2] != null && this.getPageLimit(pageNumber, pageSize) >= getDeferredJoinOffset(queryProvider, providers)) {
+			return this.appendPageSql(shapeSql[2], pageNumber, pageSize) + shapeSql[3];
+		}
+		return this.appendPageSql(shapeSql[0], pageNumber, pageSize);
+	}
+
+	private static int getDeferredJoinOffset(QueryProvider queryProvider, Map<String, Object> providers) {
+		Integer offset = queryProvider.getDeferredJoinOffset();
+		if (offset == null) {
+			offset = (Integer) providers.get(SqlConstant.PROVIDER_DEFERRED_JOIN_OFFSET);
+		}
+		return offset == null ? SqlConstant.DEFERRED_JOIN_OFFSET : offset;
+	}
+
+	/**
+	 * 获取延迟关联分页语句，分页信息拼接在两部分之间，例如：
+	 * select t.a,t.b from T t inner join (select t.id from T t where ... order by ... limit x,y) deferred_page on t.id=deferred_page.id order by ...
+	 * 子查询只查询主键 id，可使用覆盖索引，只连接条件和排序需要的连接表
+	 * 存在 group by、没有主键 id 或者 left join 非主键 id 关联(可能一对多)时不支持，返回 {null, null}
+	 * @param sql
+	 * @param entityMeta
+	 * @param queryProvider
+	 * @param columns
+	 * @param filterSql
+	 * @param groups
+	 * @param orders
+	 * @return
+	 */
+	private String[] getDeferredJoinSql(SqlRenderer sql, EntityMeta entityMeta, QueryProvider queryProvider, String columns, CharSequence filterSql,
+			List<String> groups, List<String> orders) {
+		String[] deferredSql = new String[2];
+		if (!groups.isEmpty() || entityMeta.getIdIndex() == EntityMeta.NOT_FOUND || !this.isUniqueLeftJoin(queryProvider.getLeftJoinProviders())) {
+			return deferredSql;
+		}
+
+		String tableAliasName = entityMeta.getTableAliasName();
+		String idColumn = entityMeta.getColumnName(entityMeta.getIdIndex());
+		Set<String> aliases = new HashSet<>();
+		this.addFilterAliases(aliases, queryProvider);
+		for (String order : orders) {
+			this.addNameAliases(aliases, order);
+		}
+
+		sql.setLength(0);
+		sql.select(columns).from(entityMeta.getTableName()).append(' ').append(tableAliasName).append(" inner join (")
+				.select(tableAliasName + "." + idColumn);
+		this.appendFromTable(sql, entityMeta, queryProvider, aliases);
+		deferredSql[0] = sql.where(filterSql).orderBy(orders).render();
+
+		sql.setLength(0);
+		sql.append(") ").append(DEFERRED_JOIN_ALIAS).append(" on ").append(tableAliasName).append('.').append(idColumn).append('=')
+				.append(DEFERRED_JOIN_ALIAS).append('.').append(idColumn);
+		this.appendLeftJoinTable(sql, tableAliasName, queryProvider.getLeftJoinProviders(), null);
+		deferredSql[1] = sql.orderBy(orders).render();
+		return deferredSql;
+	}
+
+	/**
+	 * left join 的连接表是否都按主键 id 关联，即连接后数据条数不变
+	 * @param leftJoinProviders
+	 * @return
+	 */
+	private boolean isUniqueLeftJoin(List<Object[]> leftJoinProviders) {
+		if (leftJoinProviders == null) {
+			return true;
+		}
+		for (Object[] leftJoinArray : leftJoinProviders) {
+			if (!this.isUniqueJoinField(leftJoinArray[1]) || !this.isUniqueLeftJoin(((QueryProvider) leftJoinArray[2]).getLeftJoinProviders())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isUniqueJoinField(Object paramFieldName) {
+		if (paramFieldName instanceof String) {
+			return CommonField.FIELD_ID.equals(paramFieldName);
+		}
+		return Arrays.asList((String[]) paramFieldName).contains(CommonField.FIELD_ID);
+	}
+
+	/**
+	 * 获取游标分页(keyset)查询 sql 语句，查询语句为 where (a,b) > (?,?) order by a,b limit n+1，多查一条用于判断是否有下一页
+	 * 统计计数语句不包含游标条件，sql 存放于 map 中
+	 * @param providers
+	 * @param entityMeta
+	 */
+	public void getQuerySeekSql(Map<String, Object> providers, EntityMeta entityMeta) {
+
+		QueryProvider queryProvider = (QueryProvider) providers.get(SqlConstant.PROVIDER_OBJ);
+		List<String> seekFields = queryProvider.getSeekFields();
+		if (seekFields == null || seekFields.isEmpty()) {
+			throw new HandleException("error: seek field is null");
+		}
+		if (queryProvider.getGroups() != null && !queryProvider.getGroups().isEmpty()) {
+			throw new HandleException("error: seek page is not support group by");
+		}
+		Object[] seekValues = queryProvider.getSeekValues();
+		if (seekValues != null && seekValues.length != seekFields.size()) {
+			throw new HandleException("error: cursor is not match seek field");
+		}
+
+		QueryShape shapeKey = QueryShape.getKey(SHAPE_SEEK, queryProvider, entityMeta);
+		String[] shapeSql = SHAPE_SQL_CACHE.get(shapeKey);
+		if (shapeSql == null) {
+			shapeSql = this.buildQuerySeekSql(providers, queryProvider, entityMeta);
+			SHAPE_SQL_CACHE.put(shapeKey, shapeSql);
+		} else {
+			this.bindFilterValue(providers, queryProvider);
+		}
+
+		if (seekValues != null) {
+			Map<String, Object> value = new HashMap<>();
+			for (int i = 0; i < seekValues.length; i++) {
+				value.put(SEEK_FILTER_KEY + i, seekValues[i]);
+			}
+			providers.put(SqlConstant.PROVIDER_SEEK_VALUE, value);
+		}
+		providers.put(SqlConstant.PROVIDER_COUNT_SQL, shapeSql[1]);
+		providers.put(SqlConstant.PROVIDER_QUERY_SQL, this.appendPageSql(shapeSql[0], 1, queryProvider.getPageSize() + 1));
+		providers.put(SqlConstant.PROVIDER_SEEK_FIELD, Arrays.copyOfRange(shapeSql, 2, shapeSql.length));
+	}
+
+	private String[] buildQuerySeekSql(Map<String, Object> providers, QueryProvider queryProvider, EntityMeta entityMeta) {
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		String tableAliasName = entityMeta.getTableAliasName();
+		String columns = getSelectFieldColumns(queryProvider, entityMeta);
+
+		StringBuilder filterSql = new StringBuilder();
+		List<Object[]> filters = queryProvider.getFilters();
+		if ((filters != null && !filters.isEmpty()) || (queryProvider.getLeftJoinProviders() != null && !queryProvider.getLeftJoinProviders().isEmpty())) {
+			Map<String, Object> value = new HashMap<>();
+			List<String> groups = new ArrayList<>();
+			this.appendFilterSql(filterSql, queryProvider.getLeftJoinProviders(), groups, null, filters, queryProvider.getOrProviders(), value,
+					INDEX_DEFAULT, entityMeta, DEFAULT_FIND);
+			if (!groups.isEmpty()) {
+				throw new HandleException("error: seek page is not support group by");
+			}
+			if (filterSql.length() > 0) {
+				// 放入值到map
+				providers.put(SqlConstant.PROVIDER_FILTER, value);
+			}
+		}
+
+		// 游标字段只支持主表字段，排序只按游标字段
+		List<String> seekFields = queryProvider.getSeekFields();
+		String orderType = OrderEnum.ORDER_DESC.equals(queryProvider.getSeekOrder()) ? " desc" : " asc";
+		List<String> orders = new ArrayList<>(seekFields.size());
+		StringBuilder seekColumns = new StringBuilder();
+		StringBuilder seekParams = new StringBuilder();
+		// 前两个为查询语句和统计语句，之后为游标字段在查询结果中的属性名
+		String[] shapeSql = new String[seekFields.size() + 2];
+		for (int i = 0, j = seekFields.size(); i < j; i++) {
+			String seekField = seekFields.get(i);
+			String column = columnMap.get(seekField);
+			if (column == null && entityMeta.getFieldMap().containsKey(seekField)) {
+				// 传入的是字段名
+				column = seekField;
+			}
+			if (column == null) {
+				throw new HandleException("error: seek field(" + seekField + ") is invalid");
+			}
+			shapeSql[i + 2] = this.getSeekResultName(queryProvider, entityMeta, seekField, column);
+			if (i > 0) {
+				seekColumns.append(',');
+				seekParams.append(',');
+			}
+			String seekColumn = tableAliasName + "." + column;
+			orders.add(seekColumn + orderType);
+			seekColumns.append(seekColumn);
+			seekParams.append(SEEK_EXPRESSION_PREFIX).append(SEEK_FILTER_KEY).append(i).append('}');
+		}
+
+		StringBuilder seekFilterSql = new StringBuilder(filterSql);
+		if (queryProvider.getSeekValues() != null) {
+			if (seekFilterSql.length() > 0) {
+				seekFilterSql.append(") and (");
+			}
+			String operator = OrderEnum.ORDER_DESC.equals(queryProvider.getSeekOrder()) ? "<" : ">";
+			if (seekFields.size() == 1) {
+				seekFilterSql.append(seekColumns).append(operator).append(seekParams);
 			} else {
-				providers.put(SqlConstant.PROVIDER_COUNT_SQL, countSql.toString());
+				seekFilterSql.append('(').append(seekColumns).append(')').append(operator).append('(').append(seekParams).append(')');
 			}
-//		}
+		}
+
+		String querySql;
+		String totalSql;
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.select(columns);
+			this.appendFromTable(sql, entityMeta, queryProvider);
+			querySql = sql.where(seekFilterSql).orderBy(orders).render();
+
+			sql.setLength(0);
+			this.appendCountSql(sql, entityMeta, queryProvider, filterSql, Collections.emptyList());
+			totalSql = sql.render();
+		}
+		shapeSql[0] = querySql;
+		shapeSql[1] = totalSql;
+		return shapeSql;
+	}
 
-		providers.put(SqlConstant.PROVIDER_QUERY_SQL, sql.toString());
+	/**
+	 * 获取游标字段在查询结果中的属性名，游标字段未被查询时抛出异常，避免下一页游标记录为 null
+	 * 查询全部字段时为实体属性名，指定查询字段时与 getSelectColumn 的别名规则一致
+	 * @param queryProvider
+	 * @param entityMeta
+	 * @param seekField
+	 * @param column
+	 * @return
+	 */
+	private String getSeekResultName(QueryProvider queryProvider, EntityMeta entityMeta, String seekField, String column) {
+		Map<String, String> fieldMap = entityMeta.getFieldMap();
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		Map<String, String> notFields = queryProvider.getNotFields();
+		String propertyName = fieldMap.containsKey(column) ? fieldMap.get(column) : column;
+		List<Object[]> fields = queryProvider.getFields();
+		if (fields == null || fields.isEmpty()) {
+			if (notFields != null && (notFields.containsKey(column) || notFields.containsKey(propertyName))) {
+				throw new HandleException("error: seek field(" + seekField + ") is not selected");
+			}
+			return propertyName;
+		}
+
+		for (Object[] obj : fields) {
+			if (!SqlHandleEnum.HANDLE_DEFAULT.equals(obj[1])) {
+				continue;
+			}
+			String fieldName = obj[0].toString();
+			String fieldTemp = columnMap.containsKey(fieldName) ? columnMap.get(fieldName) : fieldName;
+			if (!column.equals(fieldTemp)) {
+				continue;
+			}
+			String fieldAliaName = ValidateTool.isEmpty(obj[2]) ? "" : obj[2].toString();
+			if (ValidateTool.isEmpty(fieldAliaName) || (fieldMap.containsKey(fieldTemp) && !columnMap.containsKey(fieldAliaName))) {
+				fieldAliaName = fieldMap.get(fieldTemp);
+			}
+			if (notFields != null && (notFields.containsKey(fieldAliaName) || notFields.containsKey(fieldName) || notFields.containsKey(fieldTemp))) {
+				continue;
+			}
+			return ValidateTool.isEmpty(fieldAliaName) ? fieldTemp : fieldAliaName;
+		}
+		throw new HandleException("error: seek field(" + seekField + ") is not selected");
 	}
 
 	/**
@@ -0,0 +1,457 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.exception.HandleException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 字段运算表达式，例如 stock-locked、ifnull(total,0)+10、case when stock > 0 then stock else 0 end
+ * 表达式解析为语法树后，将实体的属性名转换为字段名并拼接表别名，运算符前后添加空格，结果按 (实体, 别名, 表达式) 缓存
+ * 支持 + - * / % 及比较运算、括号、函数调用、数字、单引号字符串和空格分隔的多个片段(例如 cast(x as char)、interval 1 day)
+ * 名称必须是实体的属性名或字段名(可带当前表别名)，或 SQL_KEYWORDS 中的关键字，否则抛出 HandleException；无法解析的表达式同样抛出 HandleException
+ * @author HuangLongPu
+ */
+final class ArithmeticExpression {
+
+	/**
+	 * 表达式中允许出现的关键字，例如 count(distinct x)、cast(x as char)、interval 1 day、case when ... end
+	 */
+	private static final Set<String> SQL_KEYWORDS = new HashSet<>(Arrays.asList(
+			"distinct", "as", "case", "when", "then", "else", "end", "and", "or", "not", "is", "null", "in", "like", "between",
+			"true", "false", "interval", "microsecond", "second", "minute", "hour", "day", "week", "month", "quarter", "year",
+			"char", "signed", "unsigned", "decimal", "date", "datetime", "time", "current_date", "current_time", "current_timestamp"));
+
+	private static final LruCache<ExpressionKey, String> EXPRESSION_CACHE = new LruCache<>(SqlConstant.EXPRESSION_CACHE_SIZE);
+
+	private ArithmeticExpression() {
+	}
+
+	/**
+	 * 获取拼接表别名后的表达式
+	 * @param tableAliasName  表别名前缀，例如 "t." 或 " t."，以空格开头时只在表达式前保留一个空格
+	 * @param expression
+	 * @param entityMeta
+	 * @return
+	 * @throws HandleException 表达式无法解析或包含非实体属性的名称时抛出
+	 */
+	static String render(String tableAliasName, String expression, EntityMeta entityMeta) throws HandleException {
+		ExpressionKey key = new ExpressionKey(entityMeta, tableAliasName, expression);
+		String sql = EXPRESSION_CACHE.get(key);
+		if (sql == null) {
+			sql = renderExpression(tableAliasName, expression, entityMeta);
+			EXPRESSION_CACHE.put(key, sql);
+		}
+		return sql;
+	}
+
+	private static String renderExpression(String tableAliasName, String expression, EntityMeta entityMeta) {
+		boolean leadingSpace = !tableAliasName.isEmpty() && tableAliasName.charAt(0) == ' ';
+		String alias = leadingSpace ? tableAliasName.trim() : tableAliasName;
+		StringBuilder builder = new StringBuilder(expression.length() + 16);
+		if (leadingSpace) {
+			builder.append(' ');
+		}
+		new Parser(expression).parse().render(builder, alias, entityMeta);
+		return builder.toString();
+	}
+
+	/**
+	 * 表达式缓存的 key，实体元数据按实例比较
+	 */
+	private static final class ExpressionKey {
+
+		private final EntityMeta entityMeta;
+		private final String tableAliasName;
+		private final String expression;
+		private final int hash;
+
+		private ExpressionKey(EntityMeta entityMeta, String tableAliasName, String expression) {
+			this.entityMeta = entityMeta;
+			this.tableAliasName = tableAliasName;
+			this.expression = expression;
+			this.hash = (System.identityHashCode(entityMeta) * 31 + tableAliasName.hashCode()) * 31 + expression.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ExpressionKey)) {
+				return false;
+			}
+			ExpressionKey other = (ExpressionKey) obj;
+			return entityMeta == other.entityMeta && tableAliasName.equals(other.tableAliasName) && expression.equals(other.expression);
+		}
+	}
+
+	/**
+	 * 语法树节点
+	 */
+	private interface Node {
+		void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta);
+	}
+
+	/**
+	 * 名称节点，实体的属性名或字段名转换为字段名并拼接表别名，关键字原样输出，其他名称抛出 HandleException
+	 */
+	private static final class NameNode implements Node {
+
+		private final String name;
+
+		private NameNode(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			String fieldName = name;
+			int dot = name.lastIndexOf('.');
+			if (dot >= 0) {
+				// 只允许带当前表别名
+				if (tableAliasName.length() != dot + 1 || !name.startsWith(tableAliasName)) {
+					throw new HandleException("error: fieldName('" + name + "') is invalid");
+				}
+				fieldName = name.substring(dot + 1);
+			}
+			String column;
+			if (entityMeta.getFieldMap().containsKey(fieldName)) {
+				// 已经是字段名
+				column = fieldName;
+			} else {
+				column = entityMeta.getColumnMap().get(fieldName);
+			}
+			if (column != null) {
+				sql.append(tableAliasName).append(column);
+			} else if (dot < 0 && SQL_KEYWORDS.contains(name.toLowerCase(Locale.ROOT))) {
+				sql.append(name);
+			} else {
+				throw new HandleException("error: fieldName('" + name + "') is invalid");
+			}
+		}
+	}
+
+	private static final class LiteralNode implements Node {
+
+		private final String value;
+
+		private LiteralNode(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			sql.append(value);
+		}
+	}
+
+	private static final class FunctionNode implements Node {
+
+		private final String name;
+		private final List<Node> args;
+
+		private FunctionNode(String name, List<Node> args) {
+			this.name = name;
+			this.args = args;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			sql.append(name).append('(');
+			for (int i = 0, j = args.size(); i < j; i++) {
+				if (i > 0) {
+					sql.append(',');
+				}
+				args.get(i).render(sql, tableAliasName, entityMeta);
+			}
+			sql.append(')');
+		}
+	}
+
+	private static final class GroupNode implements Node {
+
+		private final Node node;
+
+		private GroupNode(Node node) {
+			this.node = node;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			sql.append('(');
+			node.render(sql, tableAliasName, entityMeta);
+			sql.append(')');
+		}
+	}
+
+	private static final class UnaryNode implements Node {
+
+		private final Node node;
+
+		private UnaryNode(Node node) {
+			this.node = node;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			sql.append('-');
+			node.render(sql, tableAliasName, entityMeta);
+		}
+	}
+
+	private static final class BinaryNode implements Node {
+
+		private final String operator;
+		private final Node left;
+		private final Node right;
+
+		private BinaryNode(String operator, Node left, Node right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			left.render(sql, tableAliasName, entityMeta);
+			// 运算符前后添加空格，避免 a - -1 拼接为注释符号 --
+			sql.append(' ').append(operator).append(' ');
+			right.render(sql, tableAliasName, entityMeta);
+		}
+	}
+
+	/**
+	 * 空格分隔的多个片段，例如 x as char、interval 1 day、case when ... end
+	 */
+	private static final class SequenceNode implements Node {
+
+		private final List<Node> nodes;
+
+		private SequenceNode(List<Node> nodes) {
+			this.nodes = nodes;
+		}
+
+		@Override
+		public void render(StringBuilder sql, String tableAliasName, EntityMeta entityMeta) {
+			for (int i = 0, j = nodes.size(); i < j; i++) {
+				if (i > 0) {
+					sql.append(' ');
+				}
+				nodes.get(i).render(sql, tableAliasName, entityMeta);
+			}
+		}
+	}
+
+	/**
+	 * 递归下降解析
+	 * sequence   := comparison (comparison)*
+	 * comparison := expression (('=' | '<>' | '!=' | '<' | '<=' | '>' | '>=') expression)*
+	 * expression := term (('+' | '-') term)*
+	 * term       := factor (('*' | '/' | '%') factor)*
+	 * factor     := '-' factor | '*' | number | string | name | name '(' [sequence (',' sequence)*] ')' | '(' sequence ')'
+	 */
+	static final class Parser {
+
+		private final String expression;
+		private int position;
+
+		Parser(String expression) {
+			this.expression = expression;
+		}
+
+		private Node parse() {
+			Node node = this.parseSequence();
+			this.skipSpace();
+			if (position != expression.length()) {
+				throw this.error();
+			}
+			return node;
+		}
+
+		private Node parseSequence() {
+			Node node = this.parseComparison();
+			List<Node> nodes = null;
+			while (true) {
+				char c = this.peek();
+				if (c == 0 || c == ')' || c == ',') {
+					break;
+				}
+				if (nodes == null) {
+					nodes = new ArrayList<>();
+					nodes.add(node);
+				}
+				nodes.add(this.parseComparison());
+			}
+			return nodes == null ? node : new SequenceNode(nodes);
+		}
+
+		private Node parseComparison() {
+			Node node = this.parseExpression();
+			while (true) {
+				String operator = this.readComparison();
+				if (operator == null) {
+					return node;
+				}
+				node = new BinaryNode(operator, node, this.parseExpression());
+			}
+		}
+
+		private Node parseExpression() {
+			Node node = this.parseTerm();
+			while (true) {
+				char c = this.peek();
+				if (c != '+' && c != '-') {
+					return node;
+				}
+				position++;
+				node = new BinaryNode(String.valueOf(c), node, this.parseTerm());
+			}
+		}
+
+		private Node parseTerm() {
+			Node node = this.parseFactor();
+			while (true) {
+				char c = this.peek();
+				if (c != '*' && c != '/' && c != '%') {
+					return node;
+				}
+				position++;
+				node = new BinaryNode(String.valueOf(c), node, this.parseFactor());
+			}
+		}
+
+		private Node parseFactor() {
+			char c = this.peek();
+			if (c == '-') {
+				position++;
+				return new UnaryNode(this.parseFactor());
+			}
+			if (c == '*') {
+				// count(*)
+				position++;
+				return new LiteralNode("*");
+			}
+			if (c == '(') {
+				position++;
+				Node node = this.parseSequence();
+				this.expect(')');
+				return new GroupNode(node);
+			}
+			if (c == '\'') {
+				return new LiteralNode(this.readString());
+			}
+			if (Character.isDigit(c)) {
+				return new LiteralNode(this.readWhile(true));
+			}
+			if (Character.isJavaIdentifierStart(c)) {
+				String name = this.readWhile(false);
+				if (position >= expression.length() || expression.charAt(position) != '(') {
+					return new NameNode(name);
+				}
+				position++;
+				List<Node> args = new ArrayList<>();
+				if (this.peek() != ')') {
+					args.add(this.parseSequence());
+					while (this.peek() == ',') {
+						position++;
+						args.add(this.parseSequence());
+					}
+				}
+				this.expect(')');
+				return new FunctionNode(name, args);
+			}
+			throw this.error();
+		}
+
+		/**
+		 * 读取比较运算符，不存在时返回 null
+		 * @return
+		 */
+		private String readComparison() {
+			char c = this.peek();
+			char next = position + 1 < expression.length() ? expression.charAt(position + 1) : 0;
+			if (c == '=') {
+				position++;
+				return "=";
+			}
+			if (c == '<' || c == '>' || c == '!') {
+				if (next == '=' || (c == '<' && next == '>')) {
+					position += 2;
+					return String.valueOf(c) + next;
+				}
+				if (c == '!') {
+					throw this.error();
+				}
+				position++;
+				return String.valueOf(c);
+			}
+			return null;
+		}
+
+		private String readWhile(boolean number) {
+			int begin = position;
+			while (position < expression.length()) {
+				char c = expression.charAt(position);
+				if (number ? (Character.isDigit(c) || c == '.') : (Character.isJavaIdentifierPart(c) || c == '.')) {
+					position++;
+				} else {
+					break;
+				}
+			}
+			return expression.substring(begin, position);
+		}
+
+		private String readString() {
+			int begin = position++;
+			while (position < expression.length()) {
+				char c = expression.charAt(position++);
+				if (c == '\'') {
+					if (position < expression.length() && expression.charAt(position) == '\'') {
+						position++;
+					} else {
+						return expression.substring(begin, position);
+					}
+				}
+			}
+			throw this.error();
+		}
+
+		private void expect(char c) {
+			if (this.peek() != c) {
+				throw this.error();
+			}
+			position++;
+		}
+
+		/**
+		 * 跳过空白后返回当前字符，已结束时返回 0
+		 * @return
+		 */
+		private char peek() {
+			this.skipSpace();
+			return position < expression.length() ? expression.charAt(position) : 0;
+		}
+
+		private void skipSpace() {
+			while (position < expression.length() && Character.isWhitespace(expression.charAt(position))) {
+				position++;
+			}
+		}
+
+		private HandleException error() {
+			return new HandleException("error: expression(" + expression + ") is invalid at " + position);
+		}
+	}
+}
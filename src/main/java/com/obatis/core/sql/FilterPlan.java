@@ -0,0 +1,111 @@
+package com.obatis.core.sql;
+
+import com.obatis.convert.date.DateCommonConvert;
+import com.obatis.core.annotation.request.QueryFilter;
+import com.obatis.core.constant.type.DateHandleEnum;
+import com.obatis.core.constant.type.FilterEnum;
+import com.obatis.core.convert.FieldAccessor;
+import com.obatis.core.convert.FieldAccessorFactory;
+import com.obatis.validate.ValidateTool;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求对象的 @QueryFilter 条件执行计划，按 class 构建一次后缓存
+ * 构建时完成属性扫描、注解解析和访问器生成，设置条件时只需读取属性值
+ * @author HuangLongPu
+ */
+final class FilterPlan {
+
+	private static final Map<Class<?>, FilterPlan> PLAN_CACHE = new ConcurrentHashMap<>();
+
+	private final FilterItem[] items;
+
+	private FilterPlan(FilterItem[] items) {
+		this.items = items;
+	}
+
+	/**
+	 * 获取请求对象 class 对应的执行计划，不存在时构建
+	 * @param cls
+	 * @return
+	 */
+	static FilterPlan getPlan(Class<?> cls) {
+		FilterPlan plan = PLAN_CACHE.get(cls);
+		if (plan == null) {
+			plan = PLAN_CACHE.computeIfAbsent(cls, FilterPlan::build);
+		}
+		return plan;
+	}
+
+	private static FilterPlan build(Class<?> cls) {
+		List<FilterItem> items = new ArrayList<>();
+		// 与原有处理顺序一致，子类属性在前，父类属性在后
+		Class<?> current = cls;
+		while (current != null) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				QueryFilter filter = field.getAnnotation(QueryFilter.class);
+				if (filter == null) {
+					continue;
+				}
+				String filterName = !ValidateTool.isEmpty(filter.name()) ? filter.name() : field.getName();
+				items.add(new FilterItem(filterName, FieldAccessorFactory.getAccessor(field), filter.type(), filter.datetype(), filter.isnull()));
+			}
+			current = current.getSuperclass();
+		}
+		return new FilterPlan(items.toArray(new FilterItem[0]));
+	}
+
+	/**
+	 * 读取请求对象的属性值，添加到 queryProvider 的 and 查询条件中
+	 * @param object
+	 * @param queryProvider
+	 */
+	void apply(Object object, QueryProvider queryProvider) {
+		for (FilterItem item : items) {
+			Object value = item.accessor.get(object);
+			if (!item.isnull && ValidateTool.isEmpty(value)) {
+				continue;
+			}
+
+			if (value instanceof Date) {
+				if (DateHandleEnum.BEGIN_HANDLE.equals(item.dateType)) {
+					value = DateCommonConvert.formatBeginDateTime((Date) value);
+				} else if (DateHandleEnum.END_HANDLE.equals(item.dateType)) {
+					value = DateCommonConvert.formatEndDateTime((Date) value);
+				}
+			}
+
+			if (FilterEnum.IS_NULL.equals(item.filterType) || FilterEnum.IS_NOT_NULL.equals(item.filterType)) {
+				value = null;
+			}
+			queryProvider.andFilter(item.filterName, item.filterType, value);
+		}
+	}
+
+	private static final class FilterItem {
+
+		private final String filterName;
+		private final FieldAccessor accessor;
+		private final FilterEnum filterType;
+		private final DateHandleEnum dateType;
+		private final boolean isnull;
+
+		private FilterItem(String filterName, FieldAccessor accessor, FilterEnum filterType, DateHandleEnum dateType, boolean isnull) {
+			this.filterName = filterName;
+			this.accessor = accessor;
+			this.filterType = filterType;
+			this.dateType = dateType;
+			this.isnull = isnull;
+		}
+	}
+}
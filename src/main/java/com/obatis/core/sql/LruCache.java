@@ -0,0 +1,151 @@
+package com.obatis.core.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 限定容量的近似 LRU 缓存，并记录命中与未命中次数
+ * 数据存放在 ConcurrentHashMap 中，读取不加锁，命中时只在访问序号变化时更新一次；
+ * 写入后超出容量时，由一个线程批量移除访问序号最小的数据，其他线程不等待，容量可能短暂超出
+ * @author HuangLongPu
+ * @param <K>
+ * @param <V>
+ */
+public class LruCache<K, V> {
+
+	/**
+	 * 每次清理移除的数据比例，清理后留出空位，避免每次写入都触发清理
+	 */
+	private static final int EVICT_RATE = 10;
+
+	private final int capacity;
+	private final Map<K, Node<V>> cache;
+	/**
+	 * 访问序号，只在写入时递增，同一序号内的读取不重复写入节点
+	 */
+	private final AtomicLong clock = new AtomicLong();
+	private final ReentrantLock evictLock = new ReentrantLock();
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	public LruCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("error: cache capacity must be greater than 0");
+		}
+		this.capacity = capacity;
+		this.cache = new ConcurrentHashMap<>(Math.min(capacity, 1024) * 4 / 3 + 1);
+	}
+
+	/**
+	 * 获取缓存值，不存在时返回 null
+	 * @param key
+	 * @return
+	 */
+	public V get(K key) {
+		Node<V> node = cache.get(key);
+		if (node == null) {
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		long now = clock.get();
+		if (node.access != now) {
+			node.access = now;
+		}
+		return node.value;
+	}
+
+	public void put(K key, V value) {
+		cache.put(key, new Node<>(value, clock.incrementAndGet()));
+		if (cache.size() > capacity) {
+			this.evict();
+		}
+	}
+
+	public void remove(K key) {
+		cache.remove(key);
+	}
+
+	public void clear() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * 命中次数
+	 * @return
+	 */
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	/**
+	 * 未命中次数
+	 * @return
+	 */
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	/**
+	 * 移除访问序号最小的数据，使数量降到容量的 (100 - EVICT_RATE)% 以下
+	 */
+	private void evict() {
+		if (!evictLock.tryLock()) {
+			return;
+		}
+		try {
+			int removeSize = cache.size() - capacity + Math.max(1, capacity / EVICT_RATE);
+			if (removeSize <= 0) {
+				return;
+			}
+			List<Map.Entry<K, Node<V>>> entries = new ArrayList<>(cache.entrySet());
+			if (removeSize >= entries.size()) {
+				cache.clear();
+				return;
+			}
+			long[] accesses = new long[entries.size()];
+			for (int i = 0; i < accesses.length; i++) {
+				accesses[i] = entries.get(i).getValue().access;
+			}
+			long[] sorted = accesses.clone();
+			Arrays.sort(sorted);
+			long threshold = sorted[removeSize - 1];
+			int removed = 0;
+			for (int i = 0; i < accesses.length && removed < removeSize; i++) {
+				if (accesses[i] <= threshold) {
+					Map.Entry<K, Node<V>> entry = entries.get(i);
+					if (cache.remove(entry.getKey(), entry.getValue())) {
+						removed++;
+					}
+				}
+			}
+		} finally {
+			evictLock.unlock();
+		}
+	}
+
+	private static final class Node<V> {
+
+		private final V value;
+		private volatile long access;
+
+		private Node(V value, long access) {
+			this.value = value;
+			this.access = access;
+		}
+	}
+}
@@ -1,183 +1,40 @@
 package com.obatis.core.sql;
 
-import com.obatis.convert.date.DateCommonConvert;
-import com.obatis.core.annotation.request.QueryFilter;
-import com.obatis.core.annotation.request.UpdateField;
-import com.obatis.core.constant.type.DateHandleEnum;
-import com.obatis.core.constant.type.FilterEnum;
-import com.obatis.core.constant.type.SqlHandleEnum;
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.exception.HandleException;
-import com.obatis.validate.ValidateTool;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.Date;
 
 public class QueryHandle {
 
 	private QueryHandle() {
 	}
 
+	/**
+	 * 根据请求对象的 @QueryFilter 注解设置查询条件，注解解析结果按 class 缓存
+	 * @param object
+	 * @param queryProvider
+	 */
 	public static final void getFilters(Object object, QueryProvider queryProvider) {
-		getFilters(object, object.getClass(), queryProvider);
-	}
-	
-	private static final void getFilters(Object object, Class<?> cls, QueryProvider queryProvider) {
-		Field[] fields = cls.getDeclaredFields();
-		
-		for (Field field : fields) {
-			boolean isStatic = Modifier.isStatic(field.getModifiers());
-			if (isStatic) {
-				continue;
-			}
-			
-			QueryFilter filter = field.getAnnotation(QueryFilter.class);
-			if (filter == null) {
-				continue;
-			}
-			
-			String fieldName = !ValidateTool.isEmpty(filter.name()) ? filter.name() : field.getName();
-			field.setAccessible(true);
-			Object value = null;
-			try {
-				value = field.get(object);
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-			
-			if(!filter.isnull() && ValidateTool.isEmpty(value)) {
-				continue;
-			}
-			
-			DateHandleEnum dateType = filter.datetype();
-			if(value instanceof Date) {
-				if(DateHandleEnum.BEGIN_HANDLE.equals(dateType)) {
-					value = DateCommonConvert.formatBeginDateTime((Date) value);
-				} else if (DateHandleEnum.END_HANDLE.equals(dateType)) {
-					value = DateCommonConvert.formatEndDateTime((Date) value);
-				}
-			}
-			
-			
-			FilterEnum type = filter.type();
-			switch (type) {
-			case EQUAL:
-				queryProvider.equals(fieldName, value);
-				break;
-			case GREATE_THAN:
-				queryProvider.greateThan(fieldName, value);
-				break;
-			case GREATE_EQUAL:
-				queryProvider.greateEqual(fieldName, value);
-				break;
-			case LESS_THAN:
-				queryProvider.leftLike(fieldName, value);
-				break;
-			case LESS_EQUAL:
-				queryProvider.lessEqual(fieldName, value);
-				break;
-			case NOT_EQUAL:
-				queryProvider.notEqual(fieldName, value);
-				break;
-			case IN:
-				queryProvider.in(fieldName, value);
-				break;
-			case NOT_IN:
-				queryProvider.notIn(fieldName, value);
-				break;
-			case IS_NULL:
-				queryProvider.isNull(fieldName);
-				break;
-			case IS_NOT_NULL:
-				queryProvider.isNotNull(fieldName);
-				break;
-			case UP_GREATE_THAN:
-				queryProvider.upGreateThanZero(fieldName, value);
-				break;
-			case REDUCE_GREATE_THAN:
-				queryProvider.reduceGreateThanZero(fieldName, value);
-				break;
-			case REDUCE_GREATE_EQUAL:
-				queryProvider.reduceGreateEqualZero(fieldName, value);
-				break;
-			case LEFT_LIKE:
-				queryProvider.leftLike(fieldName, value);
-				break;
-			case RIGHT_LIKE:
-				queryProvider.rightLike(fieldName, value);
-				break;
-			default:
-				throw new HandleException("error: filter annotation invalid");
-			}
-			
-		}
-		
-		Class<?> supCls = cls.getSuperclass();
-		if(supCls != null) {
-			getFilters(object, supCls, queryProvider);
-		}
+		FilterPlan.getPlan(object.getClass()).apply(object, queryProvider);
 	}
 	
+	/**
+	 * 根据请求对象的 @UpdateField 注解设置修改字段，注解解析结果按 class 缓存
+	 * @param object
+	 * @param queryProvider
+	 */
 	public static final void getUpdateField(Object object, QueryProvider queryProvider) {
-		getUpdateField(object, object.getClass(), queryProvider);
+		UpdatePlan.getPlan(object.getClass()).apply(object, queryProvider);
 	}
-	
-	private static void getUpdateField(Object object, Class<?> cls, QueryProvider queryProvider) {
-		Field[] fields = cls.getDeclaredFields();
-		
-		for (Field field : fields) {
-			boolean isStatic = Modifier.isStatic(field.getModifiers());
-			if (isStatic) {
-				continue;
-			}
-			
-			UpdateField uField = field.getAnnotation(UpdateField.class);
-			if (uField == null) {
-				continue;
-			}
-			
-			String fieldName = !ValidateTool.isEmpty(uField.name()) ? uField.name() : field.getName();
-			field.setAccessible(true);
-			Object value = null;
-			try {
-				value = field.get(object);
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-			
-			if(!uField.isnull() && ValidateTool.isEmpty(value)) {
-				continue;
-			}
-			
-			SqlHandleEnum type = uField.type();
-			switch (type) {
-			case HANDLE_DEFAULT:
-				/**
-				 * 常规类型操作
-				 */
-				queryProvider.add(fieldName, value);
-				break;
-			case HANDLE_UP:
-				/**
-				 * 累加
-				 */
-				queryProvider.addUp(fieldName, value);
-				break;
-			case HANDLE_REDUCE:
-				/**
-				 * 累加
-				 */
-				queryProvider.addReduce(fieldName, value);
-				break;
-			default:
-				throw new HandleException("error: update annotation invalid");
-			}
-		}
-		
-		Class<?> supClas = cls.getSuperclass();
-		if(supClas != null) {
-			getUpdateField(object, supClas, queryProvider);
-		}
+
+	/**
+	 * 根据请求对象的 @UpdateField 注解设置修改字段，字段名按目标实体元数据校验，校验结果按 class 缓存
+	 * @param object
+	 * @param entityMeta
+	 * @param queryProvider
+	 * @throws HandleException
+	 */
+	public static final void getUpdateField(Object object, EntityMeta entityMeta, QueryProvider queryProvider) throws HandleException {
+		UpdatePlan.getPlan(object.getClass(), entityMeta).apply(object, queryProvider);
 	}
 	
 }
@@ -5,10 +5,12 @@ import com.obatis.config.request.RequestConstant;
 import com.obatis.config.request.RequestParam;
 import com.obatis.core.constant.type.FilterEnum;
 import com.obatis.core.constant.type.OrderEnum;
+import com.obatis.core.constant.type.PageHandleEnum;
 import com.obatis.core.constant.type.SqlHandleEnum;
 import com.obatis.core.exception.HandleException;
 import com.obatis.core.result.ResultInfoOutput;
 import com.obatis.core.convert.BeanCacheConvert;
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.validate.ValidateTool;
 
 import java.util.ArrayList;
@@ -37,6 +39,10 @@ public class QueryProvider {
 
 	private int pageNumber = RequestConstant.DEFAULT_PAGE;
 	private int pageSize = RequestConstant.DEFAULT_ROWS;
+	private PageHandleEnum pageHandle = PageHandleEnum.PAGE_DEFAULT;
+	private boolean pageConcurrent;
+	private boolean totalCache;
+	private Integer deferredJoinOffset;
 
 	private List<Object[]> fields;
 	private List<Object[]> filters;
@@ -46,6 +52,10 @@ public class QueryProvider {
 	private Map<String, String> notFields;
 	private List<Object[]> leftJoinProviders;
 	private String joinTableName;
+	private List<String> seekFields;
+	private OrderEnum seekOrder = OrderEnum.ORDER_ASC;
+	private Object[] seekValues;
+	private boolean seekTotal;
 
 	public int getPageNumber() {
 		return pageNumber;
@@ -63,6 +73,63 @@ public class QueryProvider {
 		this.pageSize = pageSize;
 	}
 
+	public PageHandleEnum getPageHandle() {
+		return pageHandle;
+	}
+
+	/**
+	 * 设置分页查询方式，默认为 PageHandleEnum.PAGE_DEFAULT
+	 * 设置为 PageHandleEnum.PAGE_DEFERRED_JOIN 时，偏移量较大的分页先只查询主键 id，再关联查询完整字段，
+	 * 存在 group by 或者非主键 id 关联的 left join 时，仍使用默认分页方式
+	 * 设置为 PageHandleEnum.PAGE_WINDOW_COUNT 时，通过窗口函数一次查询得到数据和总条数，数据库方言不支持时仍使用默认分页方式
+	 * @param pageHandle
+	 */
+	public void setPageHandle(PageHandleEnum pageHandle) {
+		this.pageHandle = pageHandle == null ? PageHandleEnum.PAGE_DEFAULT : pageHandle;
+	}
+
+	public Integer getDeferredJoinOffset() {
+		return deferredJoinOffset;
+	}
+
+	/**
+	 * 设置延迟关联分页生效的最小偏移量，只在 PageHandleEnum.PAGE_DEFERRED_JOIN 时使用
+	 * 未设置时使用 DBHandleFactory.getDeferredJoinOffset，默认为 SqlConstant.DEFERRED_JOIN_OFFSET
+	 * @param deferredJoinOffset
+	 */
+	public void setDeferredJoinOffset(int deferredJoinOffset) {
+		if (deferredJoinOffset < 0) {
+			throw new HandleException("error: deferredJoinOffset is less than 0");
+		}
+		this.deferredJoinOffset = deferredJoinOffset;
+	}
+
+	public boolean isPageConcurrent() {
+		return pageConcurrent;
+	}
+
+	/**
+	 * 设置分页查询时是否同时查询总条数和数据，默认顺序查询
+	 * 两条查询使用不同的连接并发执行，当前存在事务或 DBHandleFactory 的 sqlSession 不是 SqlSessionTemplate 时仍顺序查询
+	 * @param pageConcurrent
+	 */
+	public void setPageConcurrent(boolean pageConcurrent) {
+		this.pageConcurrent = pageConcurrent;
+	}
+
+	public boolean isTotalCache() {
+		return totalCache;
+	}
+
+	/**
+	 * 设置分页查询时是否缓存总条数，默认不缓存
+	 * 缓存按统计计数 sql 和条件值区分，有效期默认为 SqlConstant.PAGE_TOTAL_CACHE_TTL(PageTotalCache.setTtl 修改)，通过 DBHandleFactory 变更主表或连接表数据时失效
+	 * @param totalCache
+	 */
+	public void setTotalCache(boolean totalCache) {
+		this.totalCache = totalCache;
+	}
+
 	public void setPage(PageParam pageParam) {
 		this.setPageNumber(pageParam.getPage());
 		this.setPageSize(pageParam.getRows());
@@ -101,7 +168,23 @@ public class QueryProvider {
 		return leftJoinProviders;
 	}
 
-	protected String getJoinTableName() {
+	public List<String> getSeekFields() {
+		return seekFields;
+	}
+
+	public OrderEnum getSeekOrder() {
+		return seekOrder;
+	}
+
+	public Object[] getSeekValues() {
+		return seekValues;
+	}
+
+	public boolean isSeekTotal() {
+		return seekTotal;
+	}
+
+	public String getJoinTableName() {
 		return joinTableName;
 	}
 
@@ -285,7 +368,7 @@ public class QueryProvider {
 	 * @param fieldType
 	 * @param value
 	 */
-	private void addValue(String fieldName, SqlHandleEnum fieldType, Object value) {
+	void addValue(String fieldName, SqlHandleEnum fieldType, Object value) {
 		if (ValidateTool.isEmpty(fieldName) && !SqlHandleEnum.HANDLE_COUNT.equals(fieldType)) {
 			throw new HandleException("error: field is null");
 		}
@@ -318,7 +401,7 @@ public class QueryProvider {
 	 * @param filterType
 	 * @param value
 	 */
-	private void andFilter(String filterName, FilterEnum filterType, Object value) {
+	void andFilter(String filterName, FilterEnum filterType, Object value) {
 		this.addFilter(filterName, filterType, value, JOIN_AND_EXPRESS);
 	}
 
@@ -763,6 +846,77 @@ public class QueryProvider {
 		abstractOrder.addOrder(orders, orderName, orderType);
 	}
 
+	/**
+	 * 设置游标分页(keyset)的排序字段，用于 DBHandleFactory.pageAfter，查询性能与页码深度无关
+	 * 按字段组合排序，从游标记录的上一页最后一条数据之后开始查询，例如 setSeek(OrderEnum.ORDER_ASC, "createTime", "id")
+	 * 字段组合需唯一且值不为 null，建议最后一个字段为主键 id，所有字段使用同一排序方式
+	 * 字段可传入属性名或字段名，需为主表字段且包含在查询字段中，pageAfter 拼装 sql 时校验，不满足时抛出异常
+	 * @param orderType
+	 * @param fieldNames
+	 */
+	public void setSeek(OrderEnum orderType, String... fieldNames) {
+		if (fieldNames == null || fieldNames.length == 0) {
+			throw new HandleException("error: seek field is null");
+		}
+		List<String> fields = new ArrayList<>(fieldNames.length);
+		for (String fieldName : fieldNames) {
+			if (ValidateTool.isEmpty(fieldName)) {
+				throw new HandleException("error: seek field is null");
+			}
+			fields.add(fieldName);
+		}
+		this.seekFields = fields;
+		this.seekOrder = orderType == null ? OrderEnum.ORDER_ASC : orderType;
+	}
+
+	/**
+	 * 设置游标，值为上一次 pageAfter 返回的 nextCursor，为空时从第一页开始查询
+	 * @param cursor
+	 */
+	public void setCursor(String cursor) {
+		if (ValidateTool.isEmpty(cursor)) {
+			this.seekValues = null;
+			return;
+		}
+		this.seekValues = SeekCursor.decode(cursor);
+	}
+
+	/**
+	 * 游标分页时是否同时查询总条数，默认不查询
+	 * @param seekTotal
+	 */
+	public void setSeekTotal(boolean seekTotal) {
+		this.seekTotal = seekTotal;
+	}
+
+	/**
+	 * 复制当前对象，字段、条件、排序等集合复制为新的集合，集合中的元素(例如 or 条件、连接查询的 QueryProvider)与当前对象共用，
+	 * 用于在不修改调用方对象的情况下调整分页、游标等设置
+	 * @return
+	 */
+	public QueryProvider copy() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.pageNumber = pageNumber;
+		queryProvider.pageSize = pageSize;
+		queryProvider.pageHandle = pageHandle;
+		queryProvider.pageConcurrent = pageConcurrent;
+		queryProvider.totalCache = totalCache;
+		queryProvider.deferredJoinOffset = deferredJoinOffset;
+		queryProvider.fields = fields == null ? null : new ArrayList<>(fields);
+		queryProvider.filters = filters == null ? null : new ArrayList<>(filters);
+		queryProvider.orders = orders == null ? null : new ArrayList<>(orders);
+		queryProvider.groups = groups == null ? null : new ArrayList<>(groups);
+		queryProvider.orProviders = orProviders == null ? null : new ArrayList<>(orProviders);
+		queryProvider.notFields = notFields == null ? null : new HashMap<>(notFields);
+		queryProvider.leftJoinProviders = leftJoinProviders == null ? null : new ArrayList<>(leftJoinProviders);
+		queryProvider.joinTableName = joinTableName;
+		queryProvider.seekFields = seekFields == null ? null : new ArrayList<>(seekFields);
+		queryProvider.seekOrder = seekOrder;
+		queryProvider.seekValues = seekValues;
+		queryProvider.seekTotal = seekTotal;
+		return queryProvider;
+	}
+
 	/**
 	 * 增加分组，根据字段名称进行分组
 	 * @param groupName
@@ -807,6 +961,26 @@ public class QueryProvider {
 		}
 		QueryHandle.getUpdateField(obj, this);
 	}
+
+	/**
+	 * 根据前端传入的 command 实体，获取修改属性的 @UpdateField 注解值
+	 * 修改字段按 entityCls 的元数据校验，不存在的字段直接抛出异常，校验结果按 command 实体缓存
+	 * @param obj
+	 * @param entityCls
+	 */
+	public void setUpdate(Object obj, Class<?> entityCls) {
+		if (!(obj instanceof RequestParam)) {
+			throw new HandleException("error: the update is not instanceof RequestQueryParam");
+		}
+		if (entityCls == null) {
+			throw new HandleException("error: the update entityCls is null");
+		}
+		EntityMeta entityMeta = BeanCacheConvert.getEntityMeta(entityCls);
+		if (entityMeta == null) {
+			throw new HandleException("error: " + entityCls.getCanonicalName() + " entity cache is not init");
+		}
+		QueryHandle.getUpdateField(obj, entityMeta, this);
+	}
 	
 	/**
 	 * 传入 ResultInfoOutput 的子类进行自动转换。
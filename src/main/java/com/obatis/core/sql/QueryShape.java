@@ -0,0 +1,226 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.constant.type.FilterEnum;
+import com.obatis.core.constant.type.PageHandleEnum;
+import com.obatis.core.convert.EntityMeta;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * QueryProvider 的结构指纹，只包含影响 sql 文本的信息，不包含条件值
+ * 包括查询字段、排除字段、条件字段名及类型、连接方式、in 查询的参数个数、or 条件、left join、group by、分页方式、游标分页字段和 order by
+ * 指纹相同的 QueryProvider 生成的 sql 文本相同，只需重新绑定条件值
+ * 指纹按顺序保存结构信息的引用(属性名、枚举下标等)，不拼接字符串，生成时计算 hash，比较时逐项 equals
+ * @author HuangLongPu
+ */
+final class QueryShape {
+
+	/**
+	 * 结构分隔标记，使用枚举避免与属性名相同
+	 */
+	private enum Mark {
+		FIELDS, NOT_FIELDS, FILTERS, OR_PROVIDERS, LEFT_JOINS, GROUPS, PAGE_HANDLE, SEEK, ORDERS, END
+	}
+
+	private Object[] tokens;
+	private int size;
+	private int hash = 1;
+
+	private QueryShape() {
+		this.tokens = new Object[32];
+	}
+
+	/**
+	 * 获取结构指纹
+	 * @param type          sql 类型，区分 select、count 等不同语句
+	 * @param queryProvider
+	 * @param entityMeta
+	 * @return
+	 */
+	static QueryShape getKey(String type, QueryProvider queryProvider, EntityMeta entityMeta) {
+		QueryShape shape = new QueryShape();
+		shape.add(type);
+		shape.add(entityMeta.getTableName());
+		shape.addProvider(queryProvider);
+		return shape;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof QueryShape)) {
+			return false;
+		}
+		QueryShape other = (QueryShape) obj;
+		if (hash != other.hash || size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (!Objects.equals(tokens[i], other.tokens[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(Arrays.copyOf(tokens, size));
+	}
+
+	private void add(Object token) {
+		if (size == tokens.length) {
+			tokens = Arrays.copyOf(tokens, size << 1);
+		}
+		tokens[size++] = token;
+		hash = 31 * hash + (token == null ? 0 : token.hashCode());
+	}
+
+	private void add(int token) {
+		this.add(Integer.valueOf(token));
+	}
+
+	private void addProvider(QueryProvider queryProvider) {
+		List<Object[]> fields = queryProvider.getFields();
+		if (fields != null) {
+			this.add(Mark.FIELDS);
+			for (Object[] field : fields) {
+				this.add(field[0]);
+				this.add(((Enum<?>) field[1]).ordinal());
+				this.add(field[2] == null || field[2] instanceof String ? field[2] : String.valueOf(field[2]));
+			}
+			this.add(Mark.END);
+		}
+
+		Map<String, String> notFields = queryProvider.getNotFields();
+		if (notFields != null) {
+			this.add(Mark.NOT_FIELDS);
+			String[] names = notFields.keySet().toArray(new String[0]);
+			Arrays.sort(names);
+			for (String name : names) {
+				this.add(name);
+			}
+			this.add(Mark.END);
+		}
+
+		List<Object[]> filters = queryProvider.getFilters();
+		if (filters != null) {
+			this.add(Mark.FILTERS);
+			for (Object[] filter : filters) {
+				this.add(filter[0]);
+				this.add(((Enum<?>) filter[1]).ordinal());
+				this.add(filter[3]);
+				switch ((FilterEnum) filter[1]) {
+				case IN:
+				case NOT_IN:
+					this.add(getInArity(filter[2]));
+					break;
+				default:
+					break;
+				}
+			}
+			this.add(Mark.END);
+		}
+
+		List<QueryProvider> orProviders = queryProvider.getOrProviders();
+		if (orProviders != null) {
+			this.add(Mark.OR_PROVIDERS);
+			for (QueryProvider orProvider : orProviders) {
+				this.addProvider(orProvider);
+				this.add(Mark.END);
+			}
+			this.add(Mark.END);
+		}
+
+		List<Object[]> leftJoinProviders = queryProvider.getLeftJoinProviders();
+		if (leftJoinProviders != null) {
+			this.add(Mark.LEFT_JOINS);
+			for (Object[] leftJoin : leftJoinProviders) {
+				QueryProvider leftJoinProvider = (QueryProvider) leftJoin[2];
+				this.add(leftJoinProvider.getJoinTableName());
+				this.addJoinField(leftJoin[0]);
+				this.addJoinField(leftJoin[1]);
+				this.addProvider(leftJoinProvider);
+				this.add(Mark.END);
+			}
+			this.add(Mark.END);
+		}
+
+		List<String> groups = queryProvider.getGroups();
+		if (groups != null) {
+			this.add(Mark.GROUPS);
+			for (String group : groups) {
+				this.add(group);
+			}
+			this.add(Mark.END);
+		}
+
+		if (queryProvider.getPageHandle() != PageHandleEnum.PAGE_DEFAULT) {
+			this.add(Mark.PAGE_HANDLE);
+			this.add(queryProvider.getPageHandle().ordinal());
+		}
+
+		List<String> seekFields = queryProvider.getSeekFields();
+		if (seekFields != null) {
+			this.add(Mark.SEEK);
+			for (String seekField : seekFields) {
+				this.add(seekField);
+			}
+			this.add(queryProvider.getSeekOrder().ordinal());
+			this.add(queryProvider.getSeekValues() != null);
+			this.add(Mark.END);
+		}
+
+		List<String[]> orders = queryProvider.getOrders();
+		if (orders != null) {
+			this.add(Mark.ORDERS);
+			for (String[] order : orders) {
+				this.add(order[0]);
+				this.add(order[1]);
+			}
+			this.add(Mark.END);
+		}
+	}
+
+	private void addJoinField(Object field) {
+		if (field instanceof String[]) {
+			String[] joinFields = (String[]) field;
+			this.add(joinFields.length);
+			for (String joinField : joinFields) {
+				this.add(joinField);
+			}
+		} else {
+			this.add(field);
+		}
+	}
+
+	/**
+	 * in 查询的参数个数，与 AbstractSqlHandleMethod.modifyInFilter 的处理方式保持一致
+	 * @param value
+	 * @return
+	 */
+	static int getInArity(Object value) {
+		if (value == null) {
+			return -1;
+		} else if (value.getClass().isArray()) {
+			return Array.getLength(value);
+		} else if (value instanceof Collection<?>) {
+			return ((Collection<?>) value).size();
+		} else if (value instanceof String && value.toString().contains(",")) {
+			return value.toString().split(",").length;
+		}
+		return 1;
+	}
+}
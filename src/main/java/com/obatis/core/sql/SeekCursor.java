@@ -0,0 +1,148 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.exception.HandleException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标分页(keyset)的游标编码，游标内容为上一页最后一条数据的排序字段值
+ * 每个值按类型标识加字符串的格式写入，再进行 Base64(url safe) 编码，对调用方不透明
+ * @author HuangLongPu
+ */
+public final class SeekCursor {
+
+	private static final byte TYPE_NULL = 'N';
+	private static final byte TYPE_STRING = 'S';
+	private static final byte TYPE_INTEGER = 'I';
+	private static final byte TYPE_LONG = 'L';
+	private static final byte TYPE_DOUBLE = 'F';
+	private static final byte TYPE_DECIMAL = 'D';
+	private static final byte TYPE_BIG_INTEGER = 'B';
+	private static final byte TYPE_BOOLEAN = 'Z';
+	private static final byte TYPE_DATE = 'T';
+	private static final byte TYPE_LOCAL_DATE = 'Y';
+	private static final byte TYPE_LOCAL_DATE_TIME = 'X';
+
+	private SeekCursor() {
+	}
+
+	/**
+	 * 将排序字段值编码为游标
+	 * @param values
+	 * @return
+	 * @throws HandleException
+	 */
+	public static String encode(Object[] values) throws HandleException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(values.length);
+			for (Object value : values) {
+				writeValue(out, value);
+			}
+		} catch (IOException e) {
+			throw new HandleException("error: cursor encode fail");
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+	}
+
+	/**
+	 * 将游标解码为排序字段值
+	 * @param cursor
+	 * @return
+	 * @throws HandleException
+	 */
+	public static Object[] decode(String cursor) throws HandleException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+			Object[] values = new Object[in.readUnsignedByte()];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = readValue(in);
+			}
+			if (in.available() > 0) {
+				throw new HandleException("error: cursor(" + cursor + ") is invalid");
+			}
+			return values;
+		} catch (IOException | IllegalArgumentException | DateTimeParseException e) {
+			throw new HandleException("error: cursor(" + cursor + ") is invalid");
+		}
+	}
+
+	private static void writeValue(DataOutputStream out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(TYPE_NULL);
+			return;
+		}
+
+		byte type;
+		String text = value.toString();
+		if (value instanceof String) {
+			type = TYPE_STRING;
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			type = TYPE_INTEGER;
+		} else if (value instanceof Long) {
+			type = TYPE_LONG;
+		} else if (value instanceof Double || value instanceof Float) {
+			type = TYPE_DOUBLE;
+		} else if (value instanceof BigDecimal) {
+			type = TYPE_DECIMAL;
+		} else if (value instanceof BigInteger) {
+			type = TYPE_BIG_INTEGER;
+		} else if (value instanceof Boolean) {
+			type = TYPE_BOOLEAN;
+		} else if (value instanceof Date) {
+			type = TYPE_DATE;
+			text = String.valueOf(((Date) value).getTime());
+		} else if (value instanceof LocalDate) {
+			type = TYPE_LOCAL_DATE;
+		} else if (value instanceof LocalDateTime) {
+			type = TYPE_LOCAL_DATE_TIME;
+		} else {
+			throw new HandleException("error: cursor value type(" + value.getClass().getCanonicalName() + ") is not support");
+		}
+		out.writeByte(type);
+		out.writeUTF(text);
+	}
+
+	private static Object readValue(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		if (type == TYPE_NULL) {
+			return null;
+		}
+
+		String text = in.readUTF();
+		switch (type) {
+		case TYPE_STRING:
+			return text;
+		case TYPE_INTEGER:
+			return Integer.valueOf(text);
+		case TYPE_LONG:
+			return Long.valueOf(text);
+		case TYPE_DOUBLE:
+			return Double.valueOf(text);
+		case TYPE_DECIMAL:
+			return new BigDecimal(text);
+		case TYPE_BIG_INTEGER:
+			return new BigInteger(text);
+		case TYPE_BOOLEAN:
+			return Boolean.valueOf(text);
+		case TYPE_DATE:
+			return new Date(Long.parseLong(text));
+		case TYPE_LOCAL_DATE:
+			return LocalDate.parse(text);
+		case TYPE_LOCAL_DATE_TIME:
+			return LocalDateTime.parse(text);
+		default:
+			throw new IOException("unknown cursor value type " + type);
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.obatis.core.sql;
 
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.exception.HandleException;
 
 import java.math.BigInteger;
@@ -22,68 +23,100 @@ public class SqlHandleProvider<T> {
 	/**
 	 * 获取insert sql 语句
 	 * @param obj
-	 * @param cls
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getInsertSql(Object obj, Class<?> cls, String tableName) throws HandleException {
-		return insertMethod.getInsertSql(obj, cls, tableName);
+	public static String getInsertSql(Object obj, EntityMeta entityMeta) throws HandleException {
+		return insertMethod.getInsertSql(obj, entityMeta);
+	}
+
+	/**
+	 * 获取包含所有字段的 insert sql 语句，用于 ExecutorType.BATCH 批量执行
+	 * @param obj
+	 * @param entityMeta
+	 * @return
+	 * @throws HandleException
+	 */
+	public static String getInsertAllSql(Object obj, EntityMeta entityMeta) throws HandleException {
+		return insertMethod.getInsertAllSql(obj, entityMeta);
 	}
 
 	/**
 	 * 获取批量添加 insert sql 语句
 	 * @param obj
-	 * @param cls
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getBatchInsertSql(List<?> obj, Class<?> cls, String tableName) throws HandleException {
-		return insertMethod.handleBatchInsertSql(obj, cls, tableName);
+	public static String getBatchInsertSql(List<?> obj, EntityMeta entityMeta) throws HandleException {
+		return insertMethod.handleBatchInsertSql(obj, entityMeta);
+	}
+
+	/**
+	 * 获取批量添加或更新 sql 语句，在批量添加语句后拼接数据库对应的冲突更新语法
+	 * @param obj
+	 * @param entityMeta
+	 * @param updateFields
+	 * @return
+	 * @throws HandleException
+	 */
+	public static String getBatchUpsertSql(List<?> obj, EntityMeta entityMeta, String[] updateFields) throws HandleException {
+		return sqlHandleMethod.getBatchUpsertSql(insertMethod.handleBatchInsertSql(obj, entityMeta), entityMeta, updateFields);
 	}
 
 	/**
 	 * 获取更新 update sql 语句
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getUpdateSql(Map<String, Object> providers, String tableName) throws HandleException {
-		return sqlHandleMethod.getUpdateSql(providers, tableName);
+	public static String getUpdateSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getUpdateSql(providers, entityMeta);
 	}
 
 	/**
 	 * 获取批量更新 update sql 语句
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getBatchUpdateSql(Map<String, Object> providers, String tableName) throws HandleException {
-		return sqlHandleMethod.getUpdateBatchSql(providers, tableName);
+	public static String getBatchUpdateSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getUpdateBatchSql(providers, entityMeta);
+	}
+
+	/**
+	 * 获取多条按 id 更新合并后的 case when update sql 语句
+	 * @param providers
+	 * @param entityMeta
+	 * @return
+	 * @throws HandleException
+	 */
+	public static String getUpdateCaseSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getUpdateCaseSql(providers, entityMeta);
 	}
 
 	/**
 	 * 获取根据 id 进行删除的 delete sql 语句，例如 delete from tableName where id = ？
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getDeleteByIdSql(String tableName) throws HandleException {
-		return sqlHandleMethod.getDeleteByIdSql(tableName);
+	public static String getDeleteByIdSql(EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getDeleteByIdSql(entityMeta);
 	}
 
 	/**
 	 * 获取常规删除的 delete sql 语句
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getDeleteSql(Map<String, Object> providers, String tableName) throws HandleException {
-		return sqlHandleMethod.getDeleteSql(providers, tableName);
+	public static String getDeleteSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getDeleteSql(providers, entityMeta);
 	}
 
 	/**
@@ -100,32 +133,41 @@ public class SqlHandleProvider<T> {
 	/**
 	 * 根据map，拼接SQL
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getSelectSql(Map<String, Object> providers, String tableName) throws HandleException {
-		return sqlHandleMethod.getSelectSql(providers, tableName);
+	public static String getSelectSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getSelectSql(providers, entityMeta);
 	}
 
 	/**
 	 * 获取校验的 sql 语句，原理为根据查询条件，得到count计数的值，映射 sql 为 select count(*) from tableName where filterName = ?
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
 	 * @return
 	 * @throws HandleException
 	 */
-	public static String getValidateSql(Map<String, Object> providers, String tableName) throws HandleException {
-		return sqlHandleMethod.getValidateSql(providers, tableName);
+	public static String getValidateSql(Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return sqlHandleMethod.getValidateSql(providers, entityMeta);
 	}
 
 	/**
 	 * 获取分页查询的 sql 语句，总共包含两条 sql 语句，一条为查询数据，一条为求总条数，sql 存放于 map 中
 	 * @param providers
-	 * @param tableName
+	 * @param entityMeta
+	 */
+	public static void getQueryPageSql(Map<String, Object> providers, EntityMeta entityMeta) {
+		sqlHandleMethod.getQueryPageSql(providers, entityMeta);
+	}
+
+	/**
+	 * 获取游标分页(keyset)查询的 sql 语句，包含一条查询数据和一条求总条数的 sql 语句，sql 存放于 map 中
+	 * @param providers
+	 * @param entityMeta
 	 */
-	public static void getQueryPageSql(Map<String, Object> providers, String tableName) {
-		sqlHandleMethod.getQueryPageSql(providers, tableName);
+	public static void getQuerySeekSql(Map<String, Object> providers, EntityMeta entityMeta) {
+		sqlHandleMethod.getQuerySeekSql(providers, entityMeta);
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package com.obatis.core.sql;
 
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.exception.HandleException;
 import com.obatis.core.constant.SqlConstant;
 import org.apache.ibatis.annotations.Param;
@@ -16,36 +17,48 @@ public class SqlProvider<T> {
 	
 	public SqlProvider() {}
 	
-	public String insert(@Param("request") T t, String tableName, Class<T> cls) throws HandleException {
-		return SqlHandleProvider.getInsertSql(t, cls, tableName);
+	public String insert(@Param("request") T t, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getInsertSql(t, entityMeta);
 	}
 	
-	public String batchInsert(@Param("request") List<T> list, String tableName, Class<T> cls) throws HandleException {
-		return SqlHandleProvider.getBatchInsertSql(list, cls, tableName);
+	public String insertAll(@Param("request") T t, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getInsertAllSql(t, entityMeta);
 	}
 	
-	public String update(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getUpdateSql(providers, tableName);
+	public String batchInsert(@Param("request") List<T> list, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getBatchInsertSql(list, entityMeta);
 	}
 	
-	public String batchUpdate(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getBatchUpdateSql(providers, tableName);
+	public String batchUpsert(@Param("request") List<T> list, @Param("updateFields") String[] updateFields, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getBatchUpsertSql(list, entityMeta, updateFields);
 	}
 	
-	public String deleteById(@Param("id") BigInteger id, String tableName) throws HandleException {
-		return SqlHandleProvider.getDeleteByIdSql(tableName);
+	public String update(@Param("request") Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getUpdateSql(providers, entityMeta);
 	}
 	
-	public String delete(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getDeleteSql(providers, tableName);
+	public String batchUpdate(@Param("request") Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getBatchUpdateSql(providers, entityMeta);
 	}
 	
-	public String find(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getSelectSql(providers, tableName);
+	public String updateCase(@Param("request") Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getUpdateCaseSql(providers, entityMeta);
 	}
 	
-	public String validate(@Param("request") Map<String, Object> providers, String tableName) throws HandleException {
-		return SqlHandleProvider.getValidateSql(providers, tableName);
+	public String deleteById(@Param("id") BigInteger id, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getDeleteByIdSql(entityMeta);
+	}
+	
+	public String delete(@Param("request") Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getDeleteSql(providers, entityMeta);
+	}
+	
+	public String find(@Param("request") Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getSelectSql(providers, entityMeta);
+	}
+	
+	public String validate(@Param("request") Map<String, Object> providers, EntityMeta entityMeta) throws HandleException {
+		return SqlHandleProvider.getValidateSql(providers, entityMeta);
 	}
 	
 	public String replaceSql(String sql, @Param("request") List<Object> params) {
@@ -0,0 +1,145 @@
+package com.obatis.core.sql;
+
+import java.util.List;
+
+/**
+ * sql 语句拼装器，替代 org.apache.ibatis.jdbc.SQL，直接写入线程内复用的 StringBuilder
+ * 使用 try-with-resources 获取和释放，嵌套使用时自动创建新的实例，例如：
+ * try (SqlRenderer sql = SqlRenderer.get()) { return sql.select(columns).from(table).render(); }
+ * @author HuangLongPu
+ */
+public final class SqlRenderer implements AutoCloseable {
+
+	/**
+	 * 复用的 StringBuilder 超出该容量时释放，避免单次超长 sql 长期占用内存
+	 */
+	private static final int MAX_REUSE_CAPACITY = 16 * 1024;
+	private static final ThreadLocal<SqlRenderer> LOCAL_RENDERER = ThreadLocal.withInitial(SqlRenderer::new);
+
+	private StringBuilder sql = new StringBuilder(256);
+	private boolean inUse;
+
+	private SqlRenderer() {
+	}
+
+	/**
+	 * 获取当前线程的拼装器，当前线程的拼装器正在使用时返回新的实例
+	 * @return
+	 */
+	public static SqlRenderer get() {
+		SqlRenderer renderer = LOCAL_RENDERER.get();
+		if (renderer.inUse) {
+			renderer = new SqlRenderer();
+		}
+		renderer.inUse = true;
+		renderer.sql.setLength(0);
+		return renderer;
+	}
+
+	public SqlRenderer select(CharSequence columns) {
+		sql.append("select ").append(columns);
+		return this;
+	}
+
+	public SqlRenderer from(CharSequence table) {
+		sql.append(" from ").append(table);
+		return this;
+	}
+
+	/**
+	 * 添加 where 条件，条件为空时不添加
+	 * @param filterSql
+	 * @return
+	 */
+	public SqlRenderer where(CharSequence filterSql) {
+		if (filterSql != null && filterSql.length() > 0) {
+			sql.append(" where (").append(filterSql).append(')');
+		}
+		return this;
+	}
+
+	public SqlRenderer groupBy(List<String> groups) {
+		return this.join(" group by ", groups);
+	}
+
+	public SqlRenderer orderBy(List<String> orders) {
+		return this.join(" order by ", orders);
+	}
+
+	public SqlRenderer update(String tableName) {
+		sql.append("update ").append(tableName).append(" set ");
+		return this;
+	}
+
+	public SqlRenderer deleteFrom(String tableName) {
+		sql.append("delete from ").append(tableName);
+		return this;
+	}
+
+	public SqlRenderer insertInto(String tableName) {
+		sql.append("insert into ").append(tableName);
+		return this;
+	}
+
+	public SqlRenderer append(CharSequence value) {
+		sql.append(value);
+		return this;
+	}
+
+	public SqlRenderer append(char value) {
+		sql.append(value);
+		return this;
+	}
+
+	public SqlRenderer append(int value) {
+		sql.append(value);
+		return this;
+	}
+
+	public int length() {
+		return sql.length();
+	}
+
+	/**
+	 * 回退到指定长度，用于撤销未产生内容的片段
+	 * @param length
+	 */
+	public void setLength(int length) {
+		sql.setLength(length);
+	}
+
+	private SqlRenderer join(String keyword, List<String> items) {
+		if (items == null || items.isEmpty()) {
+			return this;
+		}
+		sql.append(keyword);
+		for (int i = 0, j = items.size(); i < j; i++) {
+			if (i > 0) {
+				sql.append(',');
+			}
+			sql.append(items.get(i));
+		}
+		return this;
+	}
+
+	/**
+	 * 输出 sql 语句，输出后仍可继续拼装
+	 * @return
+	 */
+	public String render() {
+		return sql.toString();
+	}
+
+	@Override
+	public String toString() {
+		return sql.toString();
+	}
+
+	@Override
+	public void close() {
+		if (sql.capacity() > MAX_REUSE_CAPACITY) {
+			sql = new StringBuilder(256);
+		}
+		inUse = false;
+	}
+}
@@ -0,0 +1,142 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.annotation.request.UpdateField;
+import com.obatis.core.constant.type.SqlHandleEnum;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.convert.FieldAccessor;
+import com.obatis.core.convert.FieldAccessorFactory;
+import com.obatis.core.exception.HandleException;
+import com.obatis.validate.ValidateTool;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求对象的 @UpdateField 修改执行计划，按 class 构建一次后缓存
+ * 指定目标实体时，字段名在构建时按实体元数据校验并转换为数据库字段名，生成 sql 时不再重复校验
+ * @author HuangLongPu
+ */
+final class UpdatePlan {
+
+	private static final Map<Class<?>, UpdatePlan> PLAN_CACHE = new ConcurrentHashMap<>();
+
+	private final Class<?> cls;
+	private final UpdateItem[] items;
+	/**
+	 * 按目标实体校验后的执行计划，key 为表名
+	 */
+	private final Map<String, UpdatePlan> entityPlanMap;
+
+	private UpdatePlan(Class<?> cls, UpdateItem[] items, boolean bind) {
+		this.cls = cls;
+		this.items = items;
+		this.entityPlanMap = bind ? new ConcurrentHashMap<>() : null;
+	}
+
+	/**
+	 * 获取请求对象 class 对应的执行计划，不存在时构建
+	 * @param cls
+	 * @return
+	 */
+	static UpdatePlan getPlan(Class<?> cls) {
+		UpdatePlan plan = PLAN_CACHE.get(cls);
+		if (plan == null) {
+			plan = PLAN_CACHE.computeIfAbsent(cls, UpdatePlan::build);
+		}
+		return plan;
+	}
+
+	/**
+	 * 获取请求对象 class 针对目标实体的执行计划，字段名不属于该实体时抛出异常
+	 * @param cls
+	 * @param entityMeta
+	 * @return
+	 * @throws HandleException
+	 */
+	static UpdatePlan getPlan(Class<?> cls, EntityMeta entityMeta) throws HandleException {
+		UpdatePlan plan = getPlan(cls);
+		UpdatePlan entityPlan = plan.entityPlanMap.get(entityMeta.getTableName());
+		if (entityPlan == null) {
+			entityPlan = plan.entityPlanMap.computeIfAbsent(entityMeta.getTableName(), name -> plan.bind(entityMeta));
+		}
+		return entityPlan;
+	}
+
+	private static UpdatePlan build(Class<?> cls) {
+		List<UpdateItem> items = new ArrayList<>();
+		// 与原有处理顺序一致，子类属性在前，父类属性在后
+		Class<?> current = cls;
+		while (current != null) {
+			for (Field field : current.getDeclaredFields()) {
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+				UpdateField updateField = field.getAnnotation(UpdateField.class);
+				if (updateField == null) {
+					continue;
+				}
+				SqlHandleEnum type = updateField.type();
+				if (!SqlHandleEnum.HANDLE_DEFAULT.equals(type) && !SqlHandleEnum.HANDLE_UP.equals(type) && !SqlHandleEnum.HANDLE_REDUCE.equals(type)) {
+					throw new HandleException("error: update annotation invalid");
+				}
+				String fieldName = !ValidateTool.isEmpty(updateField.name()) ? updateField.name() : field.getName();
+				items.add(new UpdateItem(fieldName, FieldAccessorFactory.getAccessor(field), type, updateField.isnull()));
+			}
+			current = current.getSuperclass();
+		}
+		return new UpdatePlan(cls, items.toArray(new UpdateItem[0]), true);
+	}
+
+	private UpdatePlan bind(EntityMeta entityMeta) {
+		Map<String, String> columnMap = entityMeta.getColumnMap();
+		Map<String, String> fieldMap = entityMeta.getFieldMap();
+		UpdateItem[] bindItems = new UpdateItem[items.length];
+		for (int i = 0; i < items.length; i++) {
+			UpdateItem item = items[i];
+			String columnName = columnMap.get(item.fieldName);
+			if (ValidateTool.isEmpty(columnName) && fieldMap.containsKey(item.fieldName)) {
+				columnName = item.fieldName;
+			}
+			if (ValidateTool.isEmpty(columnName)) {
+				throw new HandleException("error: " + cls.getCanonicalName() + " update field(" + item.fieldName + ") is not exist in "
+						+ entityMeta.getTableName());
+			}
+			bindItems[i] = new UpdateItem(columnName, item.accessor, item.type, item.isnull);
+		}
+		return new UpdatePlan(cls, bindItems, false);
+	}
+
+	/**
+	 * 读取请求对象的属性值，添加到 queryProvider 的修改字段中
+	 * @param object
+	 * @param queryProvider
+	 */
+	void apply(Object object, QueryProvider queryProvider) {
+		for (UpdateItem item : items) {
+			Object value = item.accessor.get(object);
+			if (!item.isnull && ValidateTool.isEmpty(value)) {
+				continue;
+			}
+			queryProvider.addValue(item.fieldName, item.type, value);
+		}
+	}
+
+	private static final class UpdateItem {
+
+		private final String fieldName;
+		private final FieldAccessor accessor;
+		private final SqlHandleEnum type;
+		private final boolean isnull;
+
+		private UpdateItem(String fieldName, FieldAccessor accessor, SqlHandleEnum type, boolean isnull) {
+			this.fieldName = fieldName;
+			this.accessor = accessor;
+			this.type = type;
+			this.isnull = isnull;
+		}
+	}
+}
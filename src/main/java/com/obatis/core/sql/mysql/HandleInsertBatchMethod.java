@@ -1,22 +1,14 @@
 package com.obatis.core.sql.mysql;
 
-import com.obatis.convert.date.DateCommonConvert;
 import com.obatis.core.CommonModel;
-import com.obatis.core.CommonField;
-import com.obatis.core.annotation.NotColumn;
 import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.convert.EntityMeta;
 import com.obatis.core.exception.HandleException;
-import com.obatis.core.generator.NumberGenerator;
 import com.obatis.core.sql.AbstractInsertMethod;
-import com.obatis.core.constant.CacheInfoConstant;
-import com.obatis.validate.ValidateTool;
+import com.obatis.core.sql.LruCache;
+import com.obatis.core.sql.SqlRenderer;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * MySQL 批量添加方法实现
@@ -24,93 +16,64 @@ import java.util.Map;
  */
 public class HandleInsertBatchMethod extends AbstractInsertMethod {
 
-	@Override
-	protected String handleBatchInsertSql(List<?> list, Class<?> cls, String tableName) {
-		StringBuffer sql = new StringBuffer("insert into " + tableName + "(");
-        Map<String, String> res = this.getBatchInsertFields(list, cls, tableName);
-        if (res == null) {
-            throw new HandleException("error：object is empty");
-        }
-
-        sql.append(res.get(SqlConstant.BEAN_FIELD) + ")");
-        return sql.toString() + " values " + res.get(SqlConstant.BEAN_VALUE);
-	}
+	/**
+	 * 批量添加的 sql 只与表和行数有关，按表和行数缓存，分批添加时每个完整批次复用同一条 sql
+	 */
+	private static final LruCache<String, String> BATCH_INSERT_SQL_CACHE = new LruCache<>(SqlConstant.BATCH_INSERT_SQL_CACHE_SIZE);
 
-	protected Map<String, String> getBatchInsertFields(List<?> list, Class<?> cls, String tableName) {
-
-		List<String> fieldArr = new ArrayList<>();
-		List<String> valueArr = new ArrayList<>();
+	@Override
+	protected String handleBatchInsertSql(List<?> list, EntityMeta entityMeta) {
 
-		if (list.isEmpty() || list.size() == 0) {
+		if (list == null || list.isEmpty()) {
 			throw new HandleException("error: batch insert list is empty");
 		}
+		if (entityMeta.size() == 0) {
+			throw new HandleException("error：object is empty");
+		}
 
-		Map<String, String> columnMap = CacheInfoConstant.COLUMN_CACHE.get(tableName);
-		for (int i = 0, j = list.size(); i < j; i++) {
-			Object obj = list.get(i);
+		for (Object obj : list) {
 			if (!(obj instanceof CommonModel)) {
 				throw new HandleException("error: entity is not instanceof CommonModel");
 			}
-			List<String> colValueArr = new ArrayList<>();
-			getBatchInsertValidColumnFields(obj, cls, columnMap, i, fieldArr, colValueArr);
-			valueArr.add("(" + String.join(",", colValueArr) + ")");
+			this.setDefaultValue(obj, entityMeta);
 		}
 
-		if (fieldArr.size() > 0) {
-			Map<String, String> res = new HashMap<>();
-			res.put(SqlConstant.BEAN_FIELD, String.join(",", fieldArr));
-			res.put(SqlConstant.BEAN_VALUE, String.join(",", valueArr));
-			return res;
-		} else {
-			return null;
+		String cacheKey = entityMeta.getTableName() + ":" + list.size();
+		String batchSql = BATCH_INSERT_SQL_CACHE.get(cacheKey);
+		if (batchSql != null) {
+			return batchSql;
 		}
-	}
-
-	private void getBatchInsertValidColumnFields(Object obj, Class<?> cls, Map<String, String> columnMap, int index, List<String> fieldArr,
-												 List<String> colValueArr) {
-
-		Field[] fields = cls.getDeclaredFields();
-		for (Field field : fields) {
-
-			boolean isStatic = Modifier.isStatic(field.getModifiers());
-			if (isStatic) {
-				continue;
-			}
-			NotColumn ts = field.getAnnotation(NotColumn.class);
-			if (ts != null) {
-				continue;
-			}
-
-			String fieldName = field.getName();
-			if (!columnMap.containsKey(fieldName)) {
-				continue;
-			}
-			String columnName = columnMap.get(fieldName);
-
-			try {
-				field.setAccessible(true);
-				Object value = field.get(obj);
-				if (ValidateTool.isEmpty(value)) {
-					if (CommonField.FIELD_ID.equals(columnName)) {
-						field.set(obj, NumberGenerator.getNumber());
-					} else if (CommonField.FIELD_CREATE_TIME.equals(columnName)) {
-						field.set(obj, DateCommonConvert.getCurDate());
-					}
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.insertInto(entityMeta.getTableName()).append('(');
+			for (int i = 0, j = entityMeta.size(); i < j; i++) {
+				if (i > 0) {
+					sql.append(',');
 				}
+				sql.append(entityMeta.getColumnName(i));
+			}
+			sql.append(") values ");
 
-				if (index == 0) {
-					fieldArr.add(columnName);
+			for (int i = 0, j = list.size(); i < j; i++) {
+				if (i > 0) {
+					sql.append(',');
 				}
-				colValueArr.add("#{request[" + index + "]." + fieldName + "}");
-			} catch (Exception e) {
-				e.printStackTrace();
-				throw new HandleException("error: load class fields fail");
+				sql.append('(');
+				this.appendBatchInsertValue(sql, entityMeta, i);
+				sql.append(')');
 			}
+			batchSql = sql.render();
 		}
+		BATCH_INSERT_SQL_CACHE.put(cacheKey, batchSql);
+		return batchSql;
+	}
 
-		Class<?> supCls = cls.getSuperclass();
-		if (supCls != null) {
-			getBatchInsertValidColumnFields(obj, supCls, columnMap, index, fieldArr, colValueArr);
+	private void appendBatchInsertValue(SqlRenderer sql, EntityMeta entityMeta, int index) {
+
+		for (int i = 0, j = entityMeta.size(); i < j; i++) {
+			if (i > 0) {
+				sql.append(',');
+			}
+			sql.append("#{request[").append(index).append("].").append(entityMeta.getFieldName(i)).append('}');
 		}
 	}
 }
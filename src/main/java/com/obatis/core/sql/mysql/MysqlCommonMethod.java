@@ -1,15 +1,77 @@
 package com.obatis.core.sql.mysql;
 
 
+import com.obatis.core.exception.HandleException;
 import com.obatis.core.sql.AbstractSqlHandleMethod;
 
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
+ * MySQL 语法，窗口函数分页、冲突更新的写法根据数据库版本选择，未指定版本时按 MySQL 5.7 处理
  * @author HuangLongPu
  */
 public class MysqlCommonMethod extends AbstractSqlHandleMethod {
 
+	/**
+	 * 支持窗口函数的最低版本，8.0.0
+	 */
+	private static final int WINDOW_FUNCTION_VERSION = 80000;
+	/**
+	 * 支持 insert 行别名的最低版本，8.0.19，8.0.20 起 values(col) 写法已废弃
+	 */
+	private static final int ROW_ALIAS_VERSION = 80019;
+	/**
+	 * 冲突更新时 insert 行的别名
+	 */
+	private static final String UPSERT_ROW_ALIAS = "new";
+	private static final Pattern VERSION_PATTERN = Pattern.compile("(\\d{1,4})(?:\\.(\\d{1,4}))?(?:\\.(\\d{1,4}))?");
+
+	/**
+	 * 数据库版本，按 主版本 * 10000 + 次版本 * 100 + 修订版本 计算，未指定时为 0
+	 */
+	private final int serverVersion;
+
 	public MysqlCommonMethod() {
+		this(null);
+	}
+
+	/**
+	 * 指定数据库版本，例如 DatabaseMetaData.getDatabaseProductVersion 返回的 8.0.32、5.7.40-log
+	 * 版本为 8.0 及以上时，PageHandleEnum.PAGE_WINDOW_COUNT 分页通过 count(1) over() 一次查询得到总条数，否则仍单独查询总条数；
+	 * 版本为 8.0.19 及以上时，冲突更新使用 as new ... col = new.col 的行别名写法，否则使用 col = values(col)
+	 * @param serverVersion  为空时按 MySQL 5.7 处理
+	 * @throws HandleException
+	 */
+	public MysqlCommonMethod(String serverVersion) throws HandleException {
 		super();
+		this.serverVersion = parseVersion(serverVersion);
+	}
+
+	private static int parseVersion(String serverVersion) {
+		if (serverVersion == null || serverVersion.trim().isEmpty()) {
+			return 0;
+		}
+		Matcher matcher = VERSION_PATTERN.matcher(serverVersion.trim());
+		if (!matcher.lookingAt()) {
+			throw new HandleException("error: mysql server version(" + serverVersion + ") is invalid");
+		}
+		int version = 0;
+		for (int i = 1; i <= 3; i++) {
+			String part = matcher.group(i);
+			version = version * 100 + (part == null ? 0 : Math.min(Integer.parseInt(part), 99));
+		}
+		return version;
+	}
+
+	/**
+	 * 数据库版本是否达到指定版本
+	 * @param version  主版本 * 10000 + 次版本 * 100 + 修订版本
+	 * @return
+	 */
+	protected boolean isVersionAtLeast(int version) {
+		return serverVersion >= version;
 	}
 
 	@Override
@@ -29,13 +91,40 @@ public class MysqlCommonMethod extends AbstractSqlHandleMethod {
 
 	@Override
 	protected String appendPageSql(String sql, int pageNumber, int pageSize) {
-		return " limit " + getPageLimit(pageNumber, pageSize) + "," + pageSize;
+		return sql + " limit " + getPageLimit(pageNumber, pageSize) + "," + pageSize;
 	}
 
 	@Override
 	protected String getBatchUpdateDbSql(String sql) {
 		return sql;
 	}
+
+	@Override
+	protected String getWindowTotalColumn() {
+		return this.isVersionAtLeast(WINDOW_FUNCTION_VERSION) ? "count(1) over()" : null;
+	}
+
+	@Override
+	protected String appendUpsertSql(String insertSql, List<String> columnNames) {
+		boolean rowAlias = this.isVersionAtLeast(ROW_ALIAS_VERSION);
+		StringBuilder sql = new StringBuilder(insertSql.length() + columnNames.size() * 32).append(insertSql);
+		if (rowAlias) {
+			sql.append(" as ").append(UPSERT_ROW_ALIAS);
+		}
+		sql.append(" on duplicate key update ");
+		for (int i = 0, j = columnNames.size(); i < j; i++) {
+			if (i > 0) {
+				sql.append(',');
+			}
+			String columnName = columnNames.get(i);
+			if (rowAlias) {
+				sql.append(columnName).append('=').append(UPSERT_ROW_ALIAS).append('.').append(columnName);
+			} else {
+				sql.append(columnName).append("=values(").append(columnName).append(')');
+			}
+		}
+		return sql.toString();
+	}
 	
 	
 }
@@ -0,0 +1,158 @@
+package com.obatis.core;
+
+import com.obatis.config.response.result.PageInfo;
+import com.obatis.core.constant.type.OrderEnum;
+import com.obatis.core.sql.QueryProvider;
+import com.obatis.core.sql.SqlHandleProvider;
+import com.obatis.core.sql.mysql.MysqlCommonMethod;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 通过代理的 SqlSession 记录 mapper 的查询，不连接数据库
+ */
+public class DBHandleFactoryTest {
+
+	private static final int PAGE_SIZE = 2;
+
+	public static class TestUserHandle extends DBHandleFactory<TestUserEntity> {
+	}
+
+	/**
+	 * sessionMapper 按实体全局缓存，绑定首次获取时的 SqlSession，所有测试共用同一个代理
+	 */
+	private static final AtomicInteger totalCount = new AtomicInteger();
+	private static final AtomicInteger pageCount = new AtomicInteger();
+	private static final Set<Thread> queryThreads = ConcurrentHashMap.newKeySet();
+	private static SqlSession sqlSession;
+	/**
+	 * 该页之后没有下一页
+	 */
+	private static volatile int lastPage;
+	private TestUserHandle handle;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		TestUserEntity.getEntityMeta();
+		// 正常由启动时按数据库类型设置
+		Field methodField = SqlHandleProvider.class.getDeclaredField("sqlHandleMethod");
+		methodField.setAccessible(true);
+		if (methodField.get(null) == null) {
+			methodField.set(null, new MysqlCommonMethod());
+		}
+		Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), new UnpooledDataSource()));
+		sqlSession = (SqlSession) Proxy.newProxyInstance(DBHandleFactoryTest.class.getClassLoader(), new Class<?>[] {SqlSession.class}, (proxy, method, args) -> {
+			if (method.getName().startsWith("select")) {
+				queryThreads.add(Thread.currentThread());
+			}
+			switch (method.getName()) {
+			case "getConfiguration":
+				return configuration;
+			case "selectOne":
+				if (((String) args[0]).endsWith(".findTotal")) {
+					totalCount.incrementAndGet();
+					return 10;
+				}
+				break;
+			case "selectList":
+				if (((String) args[0]).endsWith(".page")) {
+					return newPage(pageCount.incrementAndGet());
+				}
+				break;
+			default:
+				break;
+			}
+			throw new UnsupportedOperationException(method.toString());
+		});
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		totalCount.set(0);
+		pageCount.set(0);
+		queryThreads.clear();
+		lastPage = Integer.MAX_VALUE;
+		handle = new TestUserHandle();
+		Field field = DBHandleFactory.class.getDeclaredField("sqlSession");
+		field.setAccessible(true);
+		field.set(handle, sqlSession);
+	}
+
+	private static List<TestUserEntity> newPage(int page) {
+		List<TestUserEntity> list = new ArrayList<>();
+		int size = page < lastPage ? PAGE_SIZE + 1 : PAGE_SIZE;
+		for (int i = 0; i < size; i++) {
+			TestUserEntity entity = new TestUserEntity();
+			entity.setId(BigInteger.valueOf(page * 10 + i));
+			list.add(entity);
+		}
+		return list;
+	}
+
+	private static QueryProvider newSeekProvider(String cursor) {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.equals("name", "a");
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "id");
+		queryProvider.setSeekTotal(true);
+		queryProvider.setTotalCache(true);
+		queryProvider.setPageSize(PAGE_SIZE);
+		if (cursor != null) {
+			queryProvider.setCursor(cursor);
+		}
+		return queryProvider;
+	}
+
+	@Test
+	public void pageAfterUsesTotalCache() {
+		CursorPageInfo<TestUserEntity> first = handle.pageAfter(newSeekProvider(null));
+		assertTrue(first.isHasNext());
+		CursorPageInfo<TestUserEntity> second = handle.pageAfter(newSeekProvider(first.getNextCursor()));
+		assertNotEquals(first.getNextCursor(), second.getNextCursor());
+		assertEquals(Long.valueOf(10), second.getTotal());
+		assertEquals(2, pageCount.get());
+		assertEquals(1, totalCount.get());
+	}
+
+	@Test
+	public void pageConcurrentWithoutTemplateRunsOnCallerThread() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.equals("name", "a");
+		queryProvider.setPageConcurrent(true);
+		queryProvider.setPageSize(PAGE_SIZE);
+		PageInfo<TestUserEntity> page = handle.page(queryProvider);
+		assertEquals(10, page.getTotal());
+		assertEquals(1, totalCount.get());
+		assertEquals(1, pageCount.get());
+		assertEquals(Collections.singleton(Thread.currentThread()), queryThreads);
+	}
+
+	@Test
+	public void prefetchWithoutTemplateRunsOnCallerThread() {
+		lastPage = 3;
+		List<Integer> chunkSizes = new ArrayList<>();
+		handle.forEachChunk(new QueryProvider(), PAGE_SIZE, list -> chunkSizes.add(list.size()), true);
+		assertEquals(Arrays.asList(PAGE_SIZE, PAGE_SIZE, PAGE_SIZE), chunkSizes);
+		assertEquals(Collections.singleton(Thread.currentThread()), queryThreads);
+	}
+}
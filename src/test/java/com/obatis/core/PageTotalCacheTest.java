@@ -0,0 +1,133 @@
+package com.obatis.core;
+
+import com.obatis.core.sql.QueryProvider;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class PageTotalCacheTest {
+
+	private static final String TOTAL_SQL = "select count(1) from total_user t where t.id in (#{ids})";
+
+	private static Configuration newConfiguration() {
+		return new Configuration(new Environment("test", new JdbcTransactionFactory(), new UnpooledDataSource()));
+	}
+
+	private static PageTotalCache.TotalKey key(Object value) {
+		return new PageTotalCache.TotalKey(TOTAL_SQL, Collections.singletonMap("v", value));
+	}
+
+	@Test
+	public void arrayKeyByElements() {
+		assertEquals(key(new Integer[] {1, 2}), key(new Integer[] {1, 2}));
+		assertEquals(key(new int[] {1, 2}).hashCode(), key(new int[] {1, 2}).hashCode());
+		assertEquals(key(new int[] {1, 2}), key(new int[] {1, 2}));
+		assertNotEquals(key(new int[] {1, 2}), key(new int[] {1, 3}));
+		assertEquals(key(Arrays.asList("a", "b")), key(Arrays.asList("a", "b")));
+	}
+
+	@Test
+	public void dateKeyKeepsMillis() {
+		assertEquals(key(new Date(1000L)), key(new Date(1000L)));
+		assertNotEquals(key(new Date(1000L)), key(new Date(1001L)));
+	}
+
+	@Test
+	public void valueTypeIsPartOfKey() {
+		assertNotEquals(key(1), key(1L));
+		assertNotEquals(key(1), key("1"));
+	}
+
+	@Test
+	public void filterOrderIsIgnored() {
+		Map<String, Object> first = new HashMap<>();
+		first.put("a", 1);
+		first.put("b", 2);
+		Map<String, Object> second = new LinkedHashMap<>();
+		second.put("b", 2);
+		second.put("a", 1);
+		assertEquals(new PageTotalCache.TotalKey(TOTAL_SQL, first), new PageTotalCache.TotalKey(TOTAL_SQL, second));
+	}
+
+	@Test
+	public void cacheByDataSource() {
+		Configuration configuration = newConfiguration();
+		assertSame(PageTotalCache.getInstance(configuration), PageTotalCache.getInstance(configuration));
+		assertNotSame(PageTotalCache.getInstance(configuration), PageTotalCache.getInstance(newConfiguration()));
+	}
+
+	@Test
+	public void invalidateOnlyAffectsSameDataSource() {
+		PageTotalCache first = PageTotalCache.getInstance(newConfiguration());
+		PageTotalCache second = PageTotalCache.getInstance(newConfiguration());
+		QueryProvider queryProvider = new QueryProvider();
+		Map<String, Object> filterValue = Collections.singletonMap("ids", new long[] {1L, 2L});
+		AtomicInteger queryCount = new AtomicInteger();
+
+		assertEquals(1, first.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+		assertEquals(2, second.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+		assertEquals(1, first.getTotal("total_user", queryProvider, TOTAL_SQL, Collections.singletonMap("ids", new long[] {1L, 2L}), queryCount::incrementAndGet));
+
+		second.invalidate("total_user");
+		assertEquals(1, first.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+		assertEquals(3, second.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+	}
+
+	@Test
+	public void oneSynchronizationPerTransaction() {
+		PageTotalCache cache = PageTotalCache.getInstance(newConfiguration());
+		QueryProvider queryProvider = new QueryProvider();
+		Map<String, Object> filterValue = Collections.singletonMap("ids", 1);
+		AtomicInteger queryCount = new AtomicInteger();
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			for (int i = 0; i < 100; i++) {
+				cache.invalidate("total_user");
+				cache.invalidate("total_order");
+			}
+			List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+			assertEquals(1, synchronizations.size());
+			// 事务提交前其他查询缓存的总条数，在事务结束后失效
+			assertEquals(1, cache.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+			assertEquals(1, cache.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+			synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			assertFalse(TransactionSynchronizationManager.hasResource(cache));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals(2, cache.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+	}
+
+	@Test
+	public void ttlAndCapacity() throws InterruptedException {
+		PageTotalCache cache = PageTotalCache.getInstance(newConfiguration());
+		cache.setCapacity(16);
+		cache.setTtl(1);
+		assertEquals(16, cache.getCapacity());
+		QueryProvider queryProvider = new QueryProvider();
+		Map<String, Object> filterValue = Collections.singletonMap("ids", 1);
+		AtomicInteger queryCount = new AtomicInteger();
+		assertEquals(1, cache.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+		Thread.sleep(5);
+		assertEquals(2, cache.getTotal("total_user", queryProvider, TOTAL_SQL, filterValue, queryCount::incrementAndGet));
+	}
+}
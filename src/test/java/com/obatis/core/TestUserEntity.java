@@ -0,0 +1,61 @@
+package com.obatis.core;
+
+import com.obatis.core.annotation.Column;
+import com.obatis.core.annotation.Table;
+import com.obatis.core.convert.BeanCacheConvert;
+import com.obatis.core.convert.EntityMeta;
+
+/**
+ * 测试共用的实体，包含与属性名一致和通过 @Column 指定字段名的属性
+ */
+@Table(name = "test_user")
+public class TestUserEntity extends CommonModel {
+
+	private String name;
+	@Column(name = "user_age")
+	private Integer age;
+	private Integer stock;
+	@Column(name = "locked_stock")
+	private Integer lockedStock;
+
+	/**
+	 * 获取实体元数据，未初始化时先初始化
+	 * @return
+	 */
+	public static EntityMeta getEntityMeta() {
+		BeanCacheConvert.initEntityCache(TestUserEntity.class);
+		return BeanCacheConvert.getEntityMeta(TestUserEntity.class);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Integer getAge() {
+		return age;
+	}
+
+	public void setAge(Integer age) {
+		this.age = age;
+	}
+
+	public Integer getStock() {
+		return stock;
+	}
+
+	public void setStock(Integer stock) {
+		this.stock = stock;
+	}
+
+	public Integer getLockedStock() {
+		return lockedStock;
+	}
+
+	public void setLockedStock(Integer lockedStock) {
+		this.lockedStock = lockedStock;
+	}
+}
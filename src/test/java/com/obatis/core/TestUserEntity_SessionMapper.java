@@ -0,0 +1,9 @@
+package com.obatis.core;
+
+import com.obatis.core.mapper.BaseBeanSessionMapper;
+
+/**
+ * 与编译期生成的 sessionMapper 同名，测试中不进行运行时编译
+ */
+public interface TestUserEntity_SessionMapper extends BaseBeanSessionMapper<TestUserEntity> {
+}
@@ -0,0 +1,112 @@
+package com.obatis.core.convert;
+
+import com.obatis.core.CommonModel;
+import com.obatis.core.annotation.Column;
+import com.obatis.core.annotation.Table;
+import com.obatis.core.constant.CacheInfoConstant;
+import com.obatis.core.exception.HandleException;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BeanCacheConvertTest {
+
+	public static class ParentEntity extends CommonModel {
+		@Column(name = "parent_name")
+		private String name;
+	}
+
+	@Table(name = "convert_child")
+	public static class ChildEntity extends ParentEntity {
+		@Column(name = "child_name")
+		private String name;
+		private Integer age;
+	}
+
+	@Table(name = "convert_child")
+	public static class OtherChildEntity extends CommonModel {
+		private String name;
+	}
+
+	@Table(name = "convert_concurrent")
+	public static class ConcurrentEntity extends CommonModel {
+		private String name;
+	}
+
+	private static EntityMeta entityMeta;
+
+	@BeforeClass
+	public static void init() {
+		BeanCacheConvert.initEntityCache(ChildEntity.class);
+		entityMeta = BeanCacheConvert.getEntityMeta(ChildEntity.class);
+	}
+
+	@Test
+	public void superclassFieldWins() {
+		assertEquals("parent_name", entityMeta.getColumnMap().get("name"));
+		int index = -1;
+		for (int i = 0; i < entityMeta.size(); i++) {
+			if ("name".equals(entityMeta.getFieldName(i))) {
+				index = i;
+			}
+		}
+		assertEquals(0, index);
+		assertSame(ParentEntity.class, entityMeta.getField(index).getDeclaringClass());
+		assertEquals(entityMeta.getTableAliasName() + ".parent_name as name", entityMeta.getSelectColumns().split(",")[0]);
+	}
+
+	@Test
+	public void deprecatedCacheView() {
+		assertEquals(entityMeta.getColumnMap(), CacheInfoConstant.COLUMN_CACHE.get("convert_child"));
+		assertEquals("name", CacheInfoConstant.FIELD_CACHE.get("convert_child").get("parent_name"));
+		assertTrue(CacheInfoConstant.COLUMN_CACHE.containsKey("convert_child"));
+		assertTrue(CacheInfoConstant.COLUMN_CACHE.keySet().contains("convert_child"));
+	}
+
+	@Test
+	public void initSameEntityAgain() {
+		BeanCacheConvert.initEntityCache(ChildEntity.class);
+		assertSame(entityMeta, BeanCacheConvert.getEntityMeta(ChildEntity.class));
+	}
+
+	@Test(expected = HandleException.class)
+	public void otherEntityWithSameTableName() {
+		BeanCacheConvert.initEntityCache(OtherChildEntity.class);
+	}
+
+	@Test
+	public void concurrentInit() throws Exception {
+		int threads = 16;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<EntityMeta>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					BeanCacheConvert.initEntityCache(ConcurrentEntity.class);
+					return BeanCacheConvert.getEntityMeta(ConcurrentEntity.class);
+				}));
+			}
+			start.countDown();
+			EntityMeta first = futures.get(0).get();
+			assertNotNull(first);
+			for (Future<EntityMeta> future : futures) {
+				assertSame(first, future.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.obatis.core.convert;
+
+import com.obatis.core.exception.HandleException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class FieldAccessorFactoryTest {
+
+	@Test
+	public void privateField() {
+		AccessorChild child = new AccessorChild();
+		FieldAccessor accessor = FieldAccessorFactory.getAccessor(AccessorChild.class, "name");
+		accessor.set(child, "obatis");
+		assertEquals("obatis", accessor.get(child));
+		accessor.set(child, null);
+		assertNull(accessor.get(child));
+		assertSame(accessor, FieldAccessorFactory.getAccessor(AccessorChild.class, "name"));
+	}
+
+	@Test
+	public void inheritedField() {
+		AccessorChild child = new AccessorChild();
+		FieldAccessor accessor = FieldAccessorFactory.getAccessor(AccessorChild.class, "parentName");
+		accessor.set(child, "parent");
+		assertEquals("parent", child.getParentName());
+		// 按声明属性的 class 缓存，子类和父类取到同一个访问器
+		assertSame(accessor, FieldAccessorFactory.getAccessor(AccessorParent.class, "parentName"));
+	}
+
+	@Test
+	public void primitiveField() {
+		AccessorChild child = new AccessorChild();
+		FieldAccessor accessor = FieldAccessorFactory.getAccessor(AccessorChild.class, "age");
+		accessor.set(child, 18);
+		assertEquals(18, accessor.get(child));
+	}
+
+	@Test
+	public void nullIntoPrimitiveField() {
+		AccessorChild child = new AccessorChild();
+		FieldAccessor accessor = FieldAccessorFactory.getAccessor(AccessorChild.class, "age");
+		accessor.set(child, 18);
+		try {
+			accessor.set(child, null);
+			fail("null into primitive field");
+		} catch (HandleException e) {
+			assertEquals(18, accessor.get(child));
+		}
+	}
+
+	@Test
+	public void invalidValueType() {
+		FieldAccessor accessor = FieldAccessorFactory.getAccessor(AccessorChild.class, "age");
+		try {
+			accessor.set(new AccessorChild(), "18");
+			fail("string into int field");
+		} catch (HandleException e) {
+			assertEquals(ClassCastException.class, e.getCause().getClass());
+		}
+	}
+
+	@Test
+	public void finalSuperclassField() {
+		AccessorChild child = new AccessorChild();
+		FieldAccessor accessor = FieldAccessorFactory.getAccessor(AccessorChild.class, "code");
+		assertEquals("parent_code", accessor.get(child));
+		accessor.set(child, "child_code");
+		assertEquals("child_code", accessor.get(child));
+	}
+
+	@Test
+	public void fieldNotExist() {
+		try {
+			FieldAccessorFactory.getAccessor(AccessorChild.class, "notExist");
+			fail("field not exist");
+		} catch (HandleException e) {
+			// expected
+		}
+	}
+
+	static class AccessorParent {
+		private final String code = new String("parent_code");
+		private String parentName;
+
+		public String getParentName() {
+			return parentName;
+		}
+	}
+
+	static class AccessorChild extends AccessorParent {
+		private String name;
+		private int age;
+	}
+}
@@ -0,0 +1,53 @@
+package com.obatis.core.mapper.factory;
+
+import com.obatis.core.mapper.BaseBeanSessionMapper;
+import com.obatis.core.mapper.BaseResultSessionMapper;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SessionMapperCompilerTempletTest {
+
+	@Test
+	public void generatedMapperNameDoesNotClashWithMapperPackage() {
+		assertEquals("com.demo.entity.UserEntity_SessionMapper", SessionMapperCompilerTemplet.getGeneratedMapperName("com.demo.entity.UserEntity"));
+		assertEquals("com.demo.mapper.UserMapper", SessionMapperCompilerTemplet.getMapperName("com.demo.entity.UserEntity"));
+	}
+
+	@Test
+	public void loadGeneratedMapper() {
+		assertSame(LoadMapperResult_SessionMapper.class, SessionMapperCompilerTemplet.loadMapper(LoadMapperResult.class, BaseResultSessionMapper.class));
+	}
+
+	@Test
+	public void rejectMapperWithOtherBaseMapper() {
+		assertNull(SessionMapperCompilerTemplet.loadMapper(LoadMapperResult.class, BaseBeanSessionMapper.class));
+	}
+
+	@Test
+	public void rejectMapperWithOtherTypeArgument() {
+		assertNull(SessionMapperCompilerTemplet.loadMapper(OtherMapperResult.class, BaseResultSessionMapper.class));
+	}
+
+	@Test
+	public void notGenerated() {
+		assertNull(SessionMapperCompilerTemplet.loadMapper(SessionMapperCompilerTempletTest.class, BaseResultSessionMapper.class));
+	}
+}
+
+class LoadMapperResult {
+}
+
+interface LoadMapperResult_SessionMapper extends BaseResultSessionMapper<LoadMapperResult> {
+}
+
+class OtherMapperResult {
+}
+
+/**
+ * 名称与 OtherMapperResult 的生成规则一致，泛型参数不是 OtherMapperResult
+ */
+interface OtherMapperResult_SessionMapper extends BaseResultSessionMapper<LoadMapperResult> {
+}
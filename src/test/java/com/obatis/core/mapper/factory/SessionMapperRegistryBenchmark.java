@@ -0,0 +1,118 @@
+package com.obatis.core.mapper.factory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * sessionMapper 注册表在 32 线程下的争用对比：
+ * registry 为当前实现，synchronizedMap 为改造前在全局锁下读写 HashMap 的方式
+ * hit 为已注册 mapper 的读取，register 为不同实体首次注册(每次注册模拟 100 微秒的编译)
+ * 运行方式：执行 main 方法，或 java -cp target/test-classes:依赖 org.openjdk.jmh.Main SessionMapperRegistryBenchmark
+ * @author HuangLongPu
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class SessionMapperRegistryBenchmark {
+
+	private static final int ENTITY_SIZE = 512;
+	private static final long COMPILE_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+	@State(Scope.Benchmark)
+	public static class HitState {
+
+		@Param({"registry", "synchronizedMap"})
+		public String type;
+
+		private String[] names;
+		private SessionMapperRegistry<Object> registry;
+		private Map<String, Object> lockedMap;
+
+		@Setup
+		public void setUp() {
+			names = new String[ENTITY_SIZE];
+			registry = new SessionMapperRegistry<>(new ConcurrentHashMap<>());
+			lockedMap = new HashMap<>();
+			for (int i = 0; i < ENTITY_SIZE; i++) {
+				names[i] = "com.obatis.demo.entity.Entity" + i;
+				registry.get(names[i], Object::new);
+				lockedMap.put(names[i], new Object());
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class RegisterState {
+
+		@Param({"registry", "synchronizedMap"})
+		public String type;
+
+		private final AtomicLong index = new AtomicLong();
+		private SessionMapperRegistry<Object> registry;
+		private Map<String, Object> lockedMap;
+
+		@Setup(Level.Iteration)
+		public void setUp() {
+			registry = new SessionMapperRegistry<>(new ConcurrentHashMap<>());
+			lockedMap = new HashMap<>();
+		}
+	}
+
+	@Benchmark
+	public Object hit(HitState state) {
+		String name = state.names[ThreadLocalRandom.current().nextInt(ENTITY_SIZE)];
+		if ("registry".equals(state.type)) {
+			return state.registry.get(name, Object::new);
+		}
+		synchronized (state.lockedMap) {
+			return state.lockedMap.get(name);
+		}
+	}
+
+	@Benchmark
+	public Object register(RegisterState state) {
+		String name = "com.obatis.demo.entity.Entity" + state.index.incrementAndGet();
+		if ("registry".equals(state.type)) {
+			return state.registry.get(name, SessionMapperRegistryBenchmark::compile);
+		}
+		synchronized (state.lockedMap) {
+			return state.lockedMap.computeIfAbsent(name, key -> compile());
+		}
+	}
+
+	private static Object compile() {
+		long end = System.nanoTime() + COMPILE_NANOS;
+		while (System.nanoTime() < end) {
+			// 模拟编译耗时
+		}
+		return new Object();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SessionMapperRegistryBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,110 @@
+package com.obatis.core.mapper.factory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SessionMapperRegistryTest {
+
+	@Test
+	public void compileOnceForConcurrentCallers() throws Exception {
+		Map<String, Object> mappers = new ConcurrentHashMap<>();
+		SessionMapperRegistry<Object> registry = new SessionMapperRegistry<>(mappers);
+		AtomicInteger compileCount = new AtomicInteger();
+		int threads = 32;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Object>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return registry.get("demo.UserEntity", () -> {
+						compileCount.incrementAndGet();
+						sleep(50);
+						return new Object();
+					});
+				}));
+			}
+			start.countDown();
+			Object first = futures.get(0).get(5, TimeUnit.SECONDS);
+			for (Future<Object> future : futures) {
+				assertSame(first, future.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(1, compileCount.get());
+			assertSame(first, mappers.get("demo.UserEntity"));
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void slowCompileDoesNotBlockOtherKeys() throws Exception {
+		SessionMapperRegistry<Object> registry = new SessionMapperRegistry<>(new ConcurrentHashMap<>());
+		CountDownLatch slowStarted = new CountDownLatch(1);
+		CountDownLatch releaseSlow = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Object> slow = executor.submit(() -> registry.get("demo.SlowEntity", () -> {
+				slowStarted.countDown();
+				await(releaseSlow);
+				return new Object();
+			}));
+			assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+			// 其他实体的编译与注册不等待正在编译的实体
+			for (int i = 0; i < 256; i++) {
+				registry.get("demo.Entity" + i, Object::new);
+			}
+			releaseSlow.countDown();
+			slow.get(5, TimeUnit.SECONDS);
+		} finally {
+			releaseSlow.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void failedCompileIsRetried() {
+		SessionMapperRegistry<Object> registry = new SessionMapperRegistry<>(new ConcurrentHashMap<>());
+		try {
+			registry.get("demo.UserEntity", () -> {
+				throw new IllegalStateException("compile fail");
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("compile fail", e.getMessage());
+		}
+		Object mapper = new Object();
+		assertSame(mapper, registry.get("demo.UserEntity", () -> mapper));
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.TestUserEntity;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.exception.HandleException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ArithmeticExpressionTest {
+
+	private static final EntityMeta entityMeta = TestUserEntity.getEntityMeta();
+
+	private static String render(String expression) {
+		return ArithmeticExpression.render("t.", expression, entityMeta);
+	}
+
+	@Test
+	public void propertyAndColumnName() {
+		assertEquals("t.stock - t.locked_stock", render("stock-lockedStock"));
+		assertEquals("t.stock - t.locked_stock", render("stock - locked_stock"));
+	}
+
+	@Test
+	public void operatorWithSpace() {
+		assertEquals("t.stock - -1", render("stock - -1"));
+		assertEquals("t.stock - -1", render("stock--1"));
+		assertEquals("(t.stock + 1) * 2 % 3", render("(stock+1)*2%3"));
+	}
+
+	@Test
+	public void functionCall() {
+		assertEquals("ifnull(t.stock,0) + 10", render("ifnull(stock, 0)+10"));
+		assertEquals("count(*)", render("count(*)"));
+		assertEquals("count(distinct t.name)", render("count(distinct name)"));
+		assertEquals("concat(t.name,'a''b')", render("concat(name,'a''b')"));
+	}
+
+	@Test
+	public void keyword() {
+		assertEquals("current_date", render("current_date"));
+		assertEquals("cast(t.stock as char)", render("cast(stock as char)"));
+		assertEquals("date_add(t.create_time,interval 1 day)", render("date_add(create_time, interval 1 day)"));
+		assertEquals("case when t.stock > 0 then t.stock else 0 end", render("case when stock > 0 then stock else 0 end"));
+		assertEquals("t.stock <> t.locked_stock", render("stock<>lockedStock"));
+	}
+
+	@Test
+	public void qualifiedName() {
+		assertEquals("t.stock + t.locked_stock", render("t.stock+t.lockedStock"));
+		assertInvalid("u.stock+stock");
+	}
+
+	@Test
+	public void unknownName() {
+		assertInvalid("stock-notExist");
+		assertInvalid("ifnull(notExist,0)");
+		assertInvalid("sleep(1) or passwd");
+	}
+
+	@Test
+	public void invalidExpression() {
+		assertInvalid("stock @ 2");
+		assertInvalid("ifnull(stock");
+		assertInvalid("stock ! 2");
+	}
+
+	private static void assertInvalid(String expression) {
+		try {
+			render(expression);
+			fail("expression(" + expression + ") is invalid");
+		} catch (HandleException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void aliasWithLeadingSpace() {
+		assertEquals(" t.stock + 1", ArithmeticExpression.render(" t.", "stock+1", entityMeta));
+		assertEquals(" stock + 1", ArithmeticExpression.render(" ", "stock+1", entityMeta));
+	}
+}
@@ -0,0 +1,63 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.TestUserEntity;
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.constant.type.PageHandleEnum;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.sql.mysql.MysqlCommonMethod;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DeferredJoinPageSqlTest {
+
+	private static final EntityMeta entityMeta = TestUserEntity.getEntityMeta();
+	private static final AbstractSqlHandleMethod sqlHandleMethod = new MysqlCommonMethod();
+
+	private static QueryProvider newProvider(int pageNumber) {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.add("name");
+		queryProvider.equals("name", "a");
+		queryProvider.setPageNumber(pageNumber);
+		queryProvider.setPageSize(10);
+		queryProvider.setPageHandle(PageHandleEnum.PAGE_DEFERRED_JOIN);
+		return queryProvider;
+	}
+
+	private static boolean isDeferredJoin(QueryProvider queryProvider, Integer factoryOffset) {
+		Map<String, Object> providers = new HashMap<>();
+		providers.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		if (factoryOffset != null) {
+			providers.put(SqlConstant.PROVIDER_DEFERRED_JOIN_OFFSET, factoryOffset);
+		}
+		sqlHandleMethod.getQueryPageSql(providers, entityMeta);
+		return providers.get(SqlConstant.PROVIDER_QUERY_SQL).toString().contains("deferred_page");
+	}
+
+	@Test
+	public void defaultOffset() {
+		assertFalse(isDeferredJoin(newProvider(2), null));
+		assertTrue(isDeferredJoin(newProvider(SqlConstant.DEFERRED_JOIN_OFFSET / 10 + 1), null));
+	}
+
+	@Test
+	public void factoryOffset() {
+		assertTrue(isDeferredJoin(newProvider(2), 10));
+		assertFalse(isDeferredJoin(newProvider(2), 100));
+	}
+
+	@Test
+	public void providerOffsetOverridesFactory() {
+		QueryProvider queryProvider = newProvider(2);
+		queryProvider.setDeferredJoinOffset(10);
+		assertTrue(isDeferredJoin(queryProvider, 100));
+
+		queryProvider = newProvider(2);
+		queryProvider.setDeferredJoinOffset(100);
+		assertFalse(isDeferredJoin(queryProvider, 0));
+	}
+}
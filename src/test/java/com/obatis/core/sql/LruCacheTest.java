@@ -0,0 +1,60 @@
+package com.obatis.core.sql;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LruCacheTest {
+
+	@Test
+	public void countHitAndMiss() {
+		LruCache<String, String> cache = new LruCache<>(16);
+		assertNull(cache.get("a"));
+		cache.put("a", "1");
+		assertEquals("1", cache.get("a"));
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void sizeIsBoundedByCapacity() {
+		LruCache<Integer, Integer> cache = new LruCache<>(100);
+		for (int i = 0; i < 10000; i++) {
+			cache.put(i, i);
+			assertTrue(cache.size() <= 100);
+		}
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() {
+		LruCache<Integer, Integer> cache = new LruCache<>(100);
+		for (int i = 0; i < 100; i++) {
+			cache.put(i, i);
+		}
+		// 访问前 10 个，使其成为最近使用的数据
+		for (int i = 0; i < 10; i++) {
+			assertNotNull(cache.get(i));
+		}
+		cache.put(100, 100);
+		for (int i = 0; i < 10; i++) {
+			assertNotNull(cache.get(i));
+		}
+		assertNotNull(cache.get(100));
+		// 未访问的最早写入的数据被移除
+		assertNull(cache.get(10));
+	}
+
+	@Test
+	public void removeAndClear() {
+		LruCache<String, String> cache = new LruCache<>(4);
+		cache.put("a", "1");
+		cache.put("b", "2");
+		cache.remove("a");
+		assertNull(cache.get("a"));
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+}
@@ -0,0 +1,39 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.constant.type.OrderEnum;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class QueryProviderTest {
+
+	@Test
+	public void copyDoesNotChangeSource() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.add("name");
+		queryProvider.equals("name", "a");
+		queryProvider.setPageSize(20);
+
+		QueryProvider copy = queryProvider.copy();
+		copy.add("age");
+		copy.equals("age", 1);
+		copy.setPageSize(100);
+		copy.setSeek(OrderEnum.ORDER_DESC, "id");
+		copy.setCursor(SeekCursor.encode(new Object[] {1L}));
+
+		assertEquals(1, queryProvider.getFields().size());
+		assertEquals(1, queryProvider.getFilters().size());
+		assertEquals(20, queryProvider.getPageSize());
+		assertNull(queryProvider.getSeekFields());
+		assertNull(queryProvider.getSeekValues());
+
+		assertEquals(2, copy.getFields().size());
+		assertEquals(2, copy.getFilters().size());
+		assertSame(queryProvider.getFilters().get(0), copy.getFilters().get(0));
+		assertEquals(Collections.singletonList("id"), copy.getSeekFields());
+	}
+}
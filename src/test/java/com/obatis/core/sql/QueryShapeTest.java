@@ -0,0 +1,62 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.TestUserEntity;
+import com.obatis.core.convert.EntityMeta;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class QueryShapeTest {
+
+	private static final EntityMeta entityMeta = TestUserEntity.getEntityMeta();
+
+	@Test
+	public void sameStructureWithDifferentValues() {
+		QueryShape first = QueryShape.getKey("select", newProvider("a", 1, Arrays.asList(1, 2)), entityMeta);
+		QueryShape second = QueryShape.getKey("select", newProvider("b", 2, Arrays.asList(3, 4)), entityMeta);
+		assertEquals(first, second);
+		assertEquals(first.hashCode(), second.hashCode());
+	}
+
+	@Test
+	public void inArityChangesShape() {
+		QueryShape first = QueryShape.getKey("select", newProvider("a", 1, Arrays.asList(1, 2)), entityMeta);
+		QueryShape second = QueryShape.getKey("select", newProvider("a", 1, Arrays.asList(1, 2, 3)), entityMeta);
+		assertNotEquals(first, second);
+	}
+
+	@Test
+	public void typeAndFilterTypeChangeShape() {
+		QueryProvider provider = newProvider("a", 1, Arrays.asList(1, 2));
+		assertNotEquals(QueryShape.getKey("select", provider, entityMeta), QueryShape.getKey("validate", provider, entityMeta));
+
+		QueryProvider other = new QueryProvider();
+		other.add("name");
+		other.like("name", "a");
+		other.equals("age", 1);
+		other.in("id", Arrays.asList(1, 2));
+		assertNotEquals(QueryShape.getKey("select", provider, entityMeta), QueryShape.getKey("select", other, entityMeta));
+	}
+
+	@Test
+	public void orProviderChangesShape() {
+		QueryProvider first = newProvider("a", 1, Arrays.asList(1, 2));
+		QueryProvider second = newProvider("a", 1, Arrays.asList(1, 2));
+		QueryProvider or = new QueryProvider();
+		or.equals("age", 3);
+		second.orProvider(or);
+		assertNotEquals(QueryShape.getKey("select", first, entityMeta), QueryShape.getKey("select", second, entityMeta));
+	}
+
+	private static QueryProvider newProvider(String name, int age, Object ids) {
+		QueryProvider provider = new QueryProvider();
+		provider.add("name");
+		provider.equals("name", name);
+		provider.equals("age", age);
+		provider.in("id", ids);
+		return provider;
+	}
+}
@@ -0,0 +1,53 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.exception.HandleException;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class SeekCursorTest {
+
+	@Test
+	public void roundTrip() {
+		Object[] values = {"a,b'c", 1, 2L, 1.5D, new BigDecimal("12.340"), new BigInteger("12345678901234567890"), true,
+				new Date(1234567890123L), LocalDate.of(2020, 2, 29), LocalDateTime.of(2020, 1, 2, 3, 4, 5, 6000000), null};
+		String cursor = SeekCursor.encode(values);
+		assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="));
+		assertArrayEquals(values, SeekCursor.decode(cursor));
+	}
+
+	@Test
+	public void dateKeepsMillis() {
+		Date date = new Date(1000L * 3600 * 24 * 365 + 789);
+		assertEquals(date, SeekCursor.decode(SeekCursor.encode(new Object[] {date}))[0]);
+	}
+
+	@Test
+	public void narrowIntegerDecodesAsInteger() {
+		Object[] values = SeekCursor.decode(SeekCursor.encode(new Object[] {(short) 3, (byte) 4}));
+		assertArrayEquals(new Object[] {3, 4}, values);
+	}
+
+	@Test(expected = HandleException.class)
+	public void unsupportedType() {
+		SeekCursor.encode(new Object[] {new Object()});
+	}
+
+	@Test(expected = HandleException.class)
+	public void invalidCursor() {
+		SeekCursor.decode("not a cursor");
+	}
+
+	@Test(expected = HandleException.class)
+	public void trailingBytes() {
+		SeekCursor.decode(SeekCursor.encode(new Object[] {1}) + "AA");
+	}
+}
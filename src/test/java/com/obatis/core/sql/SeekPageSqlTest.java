@@ -0,0 +1,93 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.TestUserEntity;
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.constant.type.OrderEnum;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.exception.HandleException;
+import com.obatis.core.sql.mysql.MysqlCommonMethod;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SeekPageSqlTest {
+
+	private static final EntityMeta entityMeta = TestUserEntity.getEntityMeta();
+	private static final AbstractSqlHandleMethod sqlHandleMethod = new MysqlCommonMethod();
+
+	private static Map<String, Object> getSeekSql(QueryProvider queryProvider) {
+		Map<String, Object> providers = new HashMap<>();
+		providers.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		sqlHandleMethod.getQuerySeekSql(providers, entityMeta);
+		return providers;
+	}
+
+	@Test
+	public void selectAllUsesPropertyName() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "age", "id");
+		Map<String, Object> providers = getSeekSql(queryProvider);
+		assertArrayEquals(new String[] {"age", "id"}, (String[]) providers.get(SqlConstant.PROVIDER_SEEK_FIELD));
+		assertTrue(providers.get(SqlConstant.PROVIDER_QUERY_SQL).toString().contains("order by"));
+	}
+
+	@Test
+	public void columnNameResolvesToProperty() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.setSeek(OrderEnum.ORDER_DESC, "user_age", "create_time");
+		assertArrayEquals(new String[] {"age", "createTime"}, (String[]) getSeekSql(queryProvider).get(SqlConstant.PROVIDER_SEEK_FIELD));
+	}
+
+	@Test
+	public void selectedFieldUsesAlias() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.add("id", "userId");
+		queryProvider.add("age");
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "age", "id");
+		assertArrayEquals(new String[] {"age", "userId"}, (String[]) getSeekSql(queryProvider).get(SqlConstant.PROVIDER_SEEK_FIELD));
+	}
+
+	@Test
+	public void seekValueNotInFilter() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.equals("name", "a");
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "id");
+		queryProvider.setCursor(SeekCursor.encode(new Object[] {BigInteger.ONE}));
+		Map<String, Object> providers = getSeekSql(queryProvider);
+		Map<?, ?> filterValue = (Map<?, ?>) providers.get(SqlConstant.PROVIDER_FILTER);
+		assertEquals(Collections.singletonList("a"), new ArrayList<>(filterValue.values()));
+		assertEquals(BigInteger.ONE, ((Map<?, ?>) providers.get(SqlConstant.PROVIDER_SEEK_VALUE)).get("seek_0"));
+		assertTrue(providers.get(SqlConstant.PROVIDER_QUERY_SQL).toString().contains("#{request." + SqlConstant.PROVIDER_SEEK_VALUE + ".seek_0}"));
+	}
+
+	@Test(expected = HandleException.class)
+	public void seekFieldNotSelected() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.add("name");
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "id");
+		getSeekSql(queryProvider);
+	}
+
+	@Test(expected = HandleException.class)
+	public void seekFieldExcluded() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.setNotField("id");
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "id");
+		getSeekSql(queryProvider);
+	}
+
+	@Test(expected = HandleException.class)
+	public void seekFieldInvalid() {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.setSeek(OrderEnum.ORDER_ASC, "unknown");
+		getSeekSql(queryProvider);
+	}
+}
@@ -0,0 +1,111 @@
+package com.obatis.core.sql;
+
+import com.obatis.core.TestUserEntity;
+import com.obatis.core.convert.EntityMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sql 结构缓存命中路径在多线程下的耗时：
+ * shapeCache 为当前实现(QueryShape 指纹 + 并发 LruCache)，
+ * legacyCache 为改造前的方式(拼接字符串指纹 + synchronized 的 access-order LinkedHashMap)
+ * 运行方式：执行 main 方法，或 java -cp target/test-classes:依赖 org.openjdk.jmh.Main ShapeSqlCacheBenchmark -t 线程数
+ * @author HuangLongPu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShapeSqlCacheBenchmark {
+
+	private EntityMeta entityMeta;
+	private QueryProvider queryProvider;
+	private LruCache<QueryShape, String[]> shapeCache;
+	private Map<String, String[]> legacyCache;
+
+	@Setup
+	public void setUp() {
+		entityMeta = TestUserEntity.getEntityMeta();
+		queryProvider = new QueryProvider();
+		queryProvider.add("name");
+		queryProvider.add("age");
+		queryProvider.equals("name", "obatis");
+		queryProvider.equals("age", 18);
+		queryProvider.in("id", Arrays.asList(1, 2, 3));
+
+		shapeCache = new LruCache<>(1024);
+		shapeCache.put(QueryShape.getKey("select", queryProvider, entityMeta), new String[] {"select"});
+		legacyCache = new LinkedHashMap<String, String[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+				return size() > 1024;
+			}
+		};
+		legacyCache.put(legacyKey("select", queryProvider, entityMeta), new String[] {"select"});
+	}
+
+	@Benchmark
+	public String[] shapeCache() {
+		return shapeCache.get(QueryShape.getKey("select", queryProvider, entityMeta));
+	}
+
+	@Benchmark
+	public String[] legacyCache() {
+		String key = legacyKey("select", queryProvider, entityMeta);
+		synchronized (legacyCache) {
+			return legacyCache.get(key);
+		}
+	}
+
+	/**
+	 * 改造前的字符串指纹，只保留本基准用到的查询字段和条件部分
+	 */
+	private static String legacyKey(String type, QueryProvider queryProvider, EntityMeta entityMeta) {
+		char separator = '\u0001';
+		StringBuilder key = new StringBuilder(128);
+		key.append(type).append(separator).append(entityMeta.getTableName()).append(separator);
+		List<Object[]> fields = queryProvider.getFields();
+		if (fields != null) {
+			key.append("f[");
+			for (Object[] field : fields) {
+				key.append(field[0]).append(separator).append(((Enum<?>) field[1]).ordinal()).append(separator).append(field[2]).append(separator);
+			}
+			key.append(']');
+		}
+		List<Object[]> filters = queryProvider.getFilters();
+		if (filters != null) {
+			key.append("w[");
+			for (Object[] filter : filters) {
+				key.append(filter[0]).append(separator).append(((Enum<?>) filter[1]).ordinal()).append(filter[3]);
+				key.append(QueryShape.getInArity(filter[2])).append(separator);
+			}
+			key.append(']');
+		}
+		return key.toString();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ShapeSqlCacheBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,124 @@
+package com.obatis.core.sql;
+
+import org.apache.ibatis.jdbc.SQL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlRenderer 与改造前 org.apache.ibatis.jdbc.SQL + StringBuffer 拼装方式的对比，
+ * 两种方式拼装相同结构的 select(带条件、group by、order by)与 update 语句，filterSize 为条件个数
+ * 运行方式：执行 main 方法，或 java -cp target/test-classes:依赖 org.openjdk.jmh.Main SqlRendererBenchmark -prof gc
+ * @author HuangLongPu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlRendererBenchmark {
+
+	private static final String FILTER_PREFIX = "#{request.provider_filters.";
+	private static final String FIELD_PREFIX = "#{request.provider_fields.";
+
+	@Param({"3", "12"})
+	public int filterSize;
+
+	private String columns;
+	private String tableName;
+	private List<String> filterColumns;
+	private List<String> groups;
+	private List<String> orders;
+
+	@Setup
+	public void setUp() {
+		tableName = "sys_user sysuser";
+		List<String> columnList = new ArrayList<>();
+		filterColumns = new ArrayList<>();
+		for (int i = 0; i < filterSize; i++) {
+			columnList.add("sysuser.column_" + i + " as column" + i);
+			filterColumns.add("sysuser.column_" + i);
+		}
+		columns = String.join(",", columnList);
+		groups = Collections.singletonList("sysuser.column_0");
+		orders = Collections.singletonList("sysuser.create_time desc");
+	}
+
+	@Benchmark
+	public String renderSelect() {
+		StringBuilder filterSql = new StringBuilder();
+		for (int i = 0; i < filterColumns.size(); i++) {
+			if (i > 0) {
+				filterSql.append(" and ");
+			}
+			filterSql.append(filterColumns.get(i)).append(" = ").append(FILTER_PREFIX).append("provider_filters_v0_").append(i).append('}');
+		}
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			return sql.select(columns).from(tableName).where(filterSql).groupBy(groups).orderBy(orders).render();
+		}
+	}
+
+	@Benchmark
+	public String legacySelect() {
+		StringBuffer filterSql = new StringBuffer();
+		for (int i = 0; i < filterColumns.size(); i++) {
+			if (i > 0) {
+				filterSql.append(" and ");
+			}
+			filterSql.append(filterColumns.get(i) + " = " + FILTER_PREFIX + "provider_filters_v0_" + i + "}");
+		}
+		SQL sql = new SQL();
+		sql.SELECT(columns);
+		sql.FROM(tableName);
+		sql.WHERE(filterSql.toString());
+		sql.GROUP_BY(groups.toArray(new String[0]));
+		sql.ORDER_BY(orders.toArray(new String[0]));
+		return sql.toString();
+	}
+
+	@Benchmark
+	public String renderUpdate() {
+		try (SqlRenderer sql = SqlRenderer.get()) {
+			sql.update("sys_user");
+			for (int i = 0; i < filterColumns.size(); i++) {
+				if (i > 0) {
+					sql.append(", ");
+				}
+				sql.append("column_").append(i).append("= ").append(FIELD_PREFIX).append("provider_fields_v0_").append(i).append('}');
+			}
+			return sql.where("id = " + FILTER_PREFIX + "provider_filters_v0_0}").render();
+		}
+	}
+
+	@Benchmark
+	public String legacyUpdate() {
+		SQL sql = new SQL();
+		sql.UPDATE("sys_user");
+		for (int i = 0; i < filterColumns.size(); i++) {
+			sql.SET("column_" + i + "= " + FIELD_PREFIX + "provider_fields_v0_" + i + "}");
+		}
+		sql.WHERE("id = " + FILTER_PREFIX + "provider_filters_v0_0}");
+		return sql.toString();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SqlRendererBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,87 @@
+package com.obatis.core.sql.mysql;
+
+import com.obatis.core.TestUserEntity;
+import com.obatis.core.constant.SqlConstant;
+import com.obatis.core.constant.type.PageHandleEnum;
+import com.obatis.core.convert.EntityMeta;
+import com.obatis.core.exception.HandleException;
+import com.obatis.core.sql.QueryProvider;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MysqlCommonMethodTest {
+
+	private static final EntityMeta entityMeta = TestUserEntity.getEntityMeta();
+
+	@Test
+	public void serverVersion() {
+		assertFalse(new MysqlCommonMethod().isVersionAtLeast(50700));
+		assertTrue(new MysqlCommonMethod("5.7.40-log").isVersionAtLeast(50740));
+		assertFalse(new MysqlCommonMethod("5.7.40-log").isVersionAtLeast(80000));
+		assertTrue(new MysqlCommonMethod("8.0.32").isVersionAtLeast(80020));
+		assertTrue(new MysqlCommonMethod("8").isVersionAtLeast(80000));
+		assertFalse(new MysqlCommonMethod("8").isVersionAtLeast(80001));
+		try {
+			new MysqlCommonMethod("mysql");
+			fail("invalid version");
+		} catch (HandleException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void windowTotalColumn() {
+		assertNull(new MysqlCommonMethod().getWindowTotalColumn());
+		assertNull(new MysqlCommonMethod("5.7.40").getWindowTotalColumn());
+		assertEquals("count(1) over()", new MysqlCommonMethod("8.0.11").getWindowTotalColumn());
+	}
+
+	@Test
+	public void windowPageOnlyWhenSupported() {
+		// 先由支持窗口函数的方言生成并缓存 sql 结构，不支持的方言命中同一缓存时仍单独查询总条数
+		Map<String, Object> providers = getQueryPageSql(new MysqlCommonMethod("8.0.32"));
+		assertTrue(providers.get(SqlConstant.PROVIDER_WINDOW_SQL).toString().contains("count(1) over()"));
+		assertTrue(providers.containsKey(SqlConstant.PROVIDER_COUNT_SQL));
+
+		providers = getQueryPageSql(new MysqlCommonMethod("5.7.40"));
+		assertFalse(providers.containsKey(SqlConstant.PROVIDER_WINDOW_SQL));
+		assertTrue(providers.containsKey(SqlConstant.PROVIDER_COUNT_SQL));
+	}
+
+	@Test
+	public void upsertWithValuesFunction() {
+		String insertSql = "insert into test_user(name,stock) values ('a',1)";
+		assertEquals(insertSql + " on duplicate key update name=values(name),stock=values(stock)",
+				new MysqlCommonMethod("8.0.18").appendUpsertSql(insertSql, Arrays.asList("name", "stock")));
+		assertEquals(insertSql + " on duplicate key update stock=values(stock)", new MysqlCommonMethod().appendUpsertSql(insertSql, Arrays.asList("stock")));
+	}
+
+	@Test
+	public void upsertWithRowAlias() {
+		String insertSql = "insert into test_user(name,stock) values ('a',1)";
+		assertEquals(insertSql + " as new on duplicate key update name=new.name,stock=new.stock",
+				new MysqlCommonMethod("8.0.19").appendUpsertSql(insertSql, Arrays.asList("name", "stock")));
+	}
+
+	private static Map<String, Object> getQueryPageSql(MysqlCommonMethod sqlHandleMethod) {
+		QueryProvider queryProvider = new QueryProvider();
+		queryProvider.add("stock");
+		queryProvider.equals("name", "a");
+		queryProvider.setPageNumber(1);
+		queryProvider.setPageSize(10);
+		queryProvider.setPageHandle(PageHandleEnum.PAGE_WINDOW_COUNT);
+		Map<String, Object> providers = new HashMap<>();
+		providers.put(SqlConstant.PROVIDER_OBJ, queryProvider);
+		sqlHandleMethod.getQueryPageSql(providers, entityMeta);
+		return providers;
+	}
+}